@@ -3,8 +3,8 @@ package com.beaglebuddy.mp3;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Vector;
 
 import com.beaglebuddy.mp3.enums.Encoding;
 import com.beaglebuddy.mp3.enums.FrameType;
@@ -12,6 +12,7 @@ import com.beaglebuddy.mp3.enums.Genre;
 import com.beaglebuddy.mp3.enums.Language;
 import com.beaglebuddy.mp3.enums.PictureType;
 import com.beaglebuddy.mp3.pojo.AttachedPicture;
+import com.beaglebuddy.mp3.pojo.SaveResult;
 import com.beaglebuddy.mp3.pojo.SynchronizedLyric;
 import com.beaglebuddy.mp3.id3v23.ID3v23Frame;
 import com.beaglebuddy.mp3.id3v23.frame_body.ID3v23FrameBodyAttachedPicture;
@@ -120,6 +121,18 @@ public class MP3 extends MP3Base
       super(mp3File);
    }
 
+   /**
+    * This constructor reads the ID3 tag(s) from the .mp3 file.  If <i>lazy</i> is true, then the frames of the ID3v2.3 tag are only parsed when they are used, and the frames that
+    * are never used are saved back to the .mp3 file exactly as they were read in.  Errors in frames that are parsed later are not reported by {@link #hasErrors()}.
+    * @param mp3File   file pointing to an .mp3 file.
+    * @param lazy      whether to parse the frames of the ID3v2.3 tag only when they are used.
+    * @throws IOException   if there is a problem reading the .mp3 file.
+    */
+   public MP3(File mp3File, boolean lazy) throws IOException
+   {
+      super(mp3File, lazy);
+   }
+
    /**
     * This constructor reads the ID3 tag(s), which contain the information about the song, from the .mp3 file located at the specified URL.
     * <p>
@@ -922,7 +935,7 @@ public class MP3 extends MP3Base
     */
    public List<AttachedPicture> getPictures()
    {
-      Vector<AttachedPicture> attachedPictures      = new Vector<AttachedPicture>();
+      List<AttachedPicture>   attachedPictures      = new ArrayList<AttachedPicture>();
       List<ID3v23Frame>       attachedPictureFrames = getFrames(FrameType.ATTACHED_PICTURE);
 
       for(ID3v23Frame attachedPictureFrame : attachedPictureFrames)
@@ -1242,7 +1255,7 @@ public class MP3 extends MP3Base
       if (mp3File == null)
          throw new IllegalStateException(getReadOnlyErrorMessage());
 
-      Vector<SynchronizedLyric> lyrics = new Vector<SynchronizedLyric>();
+      List<SynchronizedLyric> lyrics = new ArrayList<SynchronizedLyric>();
 
       if (synchronizedLyrics != null && synchronizedLyrics.length != 0)
       {
@@ -1508,16 +1521,17 @@ public class MP3 extends MP3Base
    /**
     * saves the ID3v2.3 tag to the .mp3 file.  Any invalid frames that were found while reading in the .mp3 file  are discarded, thereby ensuring that
     * saved .mp3 file contains only valid information.
+    * @return what was written to the .mp3 file and how long it took.
     * @throws IOException              if there was an error writing the ID3v2.3 tag to the .mp3 file.
     * @throws IllegalStateException    if the mp3 song was loaded from a URL and is therefore considered to be read only and thus may not be modified.
     */
    @Override
-   public void save() throws IOException, IllegalStateException
+   public SaveResult save() throws IOException, IllegalStateException
    {
       if (mp3File == null)
          throw new IllegalStateException(getReadOnlyErrorMessage());
 
-      super.save();
+      return super.save();
    }
 
    /**
@@ -9,8 +9,9 @@ import java.io.PrintStream;
 import java.io.RandomAccessFile;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Vector;
 
 import com.beaglebuddy.mp3.enums.Encoding;
 import com.beaglebuddy.mp3.enums.FrameType;
@@ -19,10 +20,12 @@ import com.beaglebuddy.mp3.enums.Language;
 import com.beaglebuddy.mp3.enums.PictureType;
 import com.beaglebuddy.mp3.exception.TagNotFoundException;
 import com.beaglebuddy.mp3.pojo.AttachedPicture;
+import com.beaglebuddy.mp3.pojo.SaveResult;
 import com.beaglebuddy.mp3.pojo.SynchronizedLyric;
 import com.beaglebuddy.mp3.id3v1.ID3v1Tag;
 import com.beaglebuddy.mp3.id3v23.ID3v23Frame;
 import com.beaglebuddy.mp3.id3v23.ID3v23Tag;
+import com.beaglebuddy.mp3.id3v23.PaddingStrategy;
 import com.beaglebuddy.mp3.id3v23.frame_body.ID3v23FrameBodyAttachedPicture;
 import com.beaglebuddy.mp3.id3v23.frame_body.ID3v23FrameBodyComments;
 import com.beaglebuddy.mp3.id3v23.frame_body.ID3v23FrameBodyPopularimeter;
@@ -48,13 +51,16 @@ import com.beaglebuddy.mp3.id3v23.frame_body.ID3v23FrameBodyUnsynchronizedLyrics
 public class MP3Base
 {
    // data members
-                                      /** if the mp3 file is loaded from a local file, then this data member will contain the path to the .mp3 file. Otherwise, this data member will be null. */
-   protected File      mp3File;       /** if the mp3 file is loaded from a URL,        then this data member will contain the URL to the .mp3 file.  Otherwise, this data member will be null. */
-   protected URL       mp3Url;        /** ID3v2.3 tag which holds all the information about the .mp3 file.                                                                                     */
-   protected ID3v23Tag id3v23Tag;     /** size (in bytes) of the .mp3 file.                                                                                                                    */
-   protected long      fileSize;      /** size (in bytes) of the ID3v2.3 tag.                                                                                                                  */
-   protected long      tagSize;       /** size (in bytes) of the audio portion of the .mp3 file.  That is, the number of bytes comprising the actual sound data for the song.                  */
-   protected long      audioSize;
+                                               /** if the mp3 file is loaded from a local file, then this data member will contain the path to the .mp3 file. Otherwise, this data member will be null. */
+   protected File            mp3File;          /** if the mp3 file is loaded from a URL,        then this data member will contain the URL to the .mp3 file.  Otherwise, this data member will be null. */
+   protected URL             mp3Url;           /** ID3v2.3 tag which holds all the information about the .mp3 file.                                                                                     */
+   protected ID3v23Tag       id3v23Tag;        /** size (in bytes) of the .mp3 file.                                                                                                                    */
+   protected long            fileSize;         /** size (in bytes) of the ID3v2.3 tag.                                                                                                                  */
+   protected long            tagSize;          /** size (in bytes) of the audio portion of the .mp3 file.  That is, the number of bytes comprising the actual sound data for the song.                  */
+   protected long            audioSize;        /** decides how much padding to reserve in the ID3v2.3 tag when the whole .mp3 file has to be rewritten.                                                 */
+   protected PaddingStrategy paddingStrategy;  /** number of times the ID3v2.3 tag was saved in the space of the old tag, without rewriting the .mp3 file.                                              */
+   protected int             numInPlaceSaves;  /** number of times the whole .mp3 file was rewritten to save the ID3v2.3 tag.                                                                           */
+   protected int             numRewrites;
 
 
 
@@ -75,8 +81,20 @@ public class MP3Base
     */
    public MP3Base(File mp3File) throws IOException
    {
-      this.mp3File = mp3File;
-      readID3Tag(new FileInputStream(mp3File));
+      this(mp3File, false);
+   }
+
+   /**
+    * constructor.
+    * @param mp3File   .mp3 file from which to get information.
+    * @param lazy      whether to parse the frames of the ID3v2.3 tag only when they are used.  See {@link ID3v23Tag#ID3v23Tag(InputStream, boolean)}.
+    * @throws IOException   if there is a problem reading the .mp3 file.
+    */
+   public MP3Base(File mp3File, boolean lazy) throws IOException
+   {
+      this.mp3File         = mp3File;
+      this.paddingStrategy = new PaddingStrategy.Fixed(ID3v23Tag.DEFAULT_PADDING_SIZE);
+      readID3Tag(new FileInputStream(mp3File), lazy);
       this.fileSize  = mp3File.length();
       this.audioSize = fileSize - tagSize;
    }
@@ -88,7 +106,8 @@ public class MP3Base
     */
    public MP3Base(URL mp3Url) throws IOException
    {
-      this.mp3Url = mp3Url;
+      this.mp3Url          = mp3Url;
+      this.paddingStrategy = new PaddingStrategy.Fixed(ID3v23Tag.DEFAULT_PADDING_SIZE);
       URLConnection conn = this.mp3Url.openConnection();
       conn.connect();
       InputStream reader  = mp3Url.openStream();
@@ -104,10 +123,22 @@ public class MP3Base
     * @throws IOException  if there is a problem reading the .mp3 file.
     */
    public void readID3Tag(InputStream inputStream) throws IOException
+   {
+      readID3Tag(inputStream, false);
+   }
+
+   /**
+    * reads in the ID3v2.3 tag from the .mp3 file.  If the .mp3 file does not have an ID3v2.3 tag, then an ID3v1 tag is searched for, and if found, values from it
+    * are used to create an ID3v2.3 tag.
+    * @param inputStream   input stream pointing to the beginning of an .mp3 file
+    * @param lazy          whether to parse the frames of the ID3v2.3 tag only when they are used.
+    * @throws IOException  if there is a problem reading the .mp3 file.
+    */
+   public void readID3Tag(InputStream inputStream, boolean lazy) throws IOException
    {
       try
       {
-         this.id3v23Tag = new ID3v23Tag(inputStream);
+         this.id3v23Tag = new ID3v23Tag(inputStream, lazy);
          this.tagSize   = id3v23Tag.getSize();
       }
       catch (TagNotFoundException ex)
@@ -175,7 +206,7 @@ public class MP3Base
     */
    public List<String> getErrors()
    {
-      Vector<String>    errors        = new Vector<String>();
+      List<String>      errors        = new ArrayList<String>();
       List<ID3v23Frame> invalidFrames = id3v23Tag.getInvalidFrames();
 
       for(ID3v23Frame frame : invalidFrames)
@@ -248,27 +279,17 @@ public class MP3Base
     */
    protected ID3v23Frame getFrame(FrameType frameType)
    {
-      for(ID3v23Frame frame : id3v23Tag.getFrames())
-         if (frame.getHeader().getFrameType().equals(frameType))
-            return frame;
-
-      return null;
+      return id3v23Tag.getFrame(frameType);
    }
 
    /**
     * get all the frames with the specified frame id.
     * @param frameType   ID3v2.3 frame type.
-    * @return all the frames found with the given frame Id, or an empty collection of size 0 if no frame with the specified id can be found.
+    * @return a read only list of all the frames found with the given frame Id, or an empty collection of size 0 if no frame with the specified id can be found.
     */
-   protected Vector<ID3v23Frame> getFrames(FrameType frameType)
+   protected List<ID3v23Frame> getFrames(FrameType frameType)
    {
-      Vector<ID3v23Frame> frames = new Vector<ID3v23Frame>();
-
-      for(ID3v23Frame frame : id3v23Tag.getFrames())
-         if (frame.getHeader().getFrameType().equals(frameType))
-            frames.add(frame);
-
-      return frames;
+      return id3v23Tag.getFrames(frameType);
    }
 
    /**
@@ -278,15 +299,7 @@ public class MP3Base
     */
    public ID3v23Frame removeFrame(FrameType frameType)
    {
-      ID3v23Frame found = null;
-      for(ID3v23Frame frame : id3v23Tag.getFrames())
-      {
-         if (frame.getHeader().getFrameType().equals(frameType))
-         {
-            found = frame;
-            break;
-         }
-      }
+      ID3v23Frame found = id3v23Tag.getFrame(frameType);
       if (found != null)
         id3v23Tag.getFrames().remove(found);
 
@@ -298,15 +311,11 @@ public class MP3Base
     * @param frameType   ID3v2.3 frame type.
     * @return the first frame found with the given frame Id, or null if no frame with the specified id can be found.
     */
-   public Vector<ID3v23Frame> removeFrames(FrameType frameType)
+   public List<ID3v23Frame> removeFrames(FrameType frameType)
    {
       // get a list of all the frames of type frameId
-      Vector<ID3v23Frame> found = new Vector<ID3v23Frame>();
-      for(ID3v23Frame frame : id3v23Tag.getFrames())
-      {
-         if (frame.getHeader().getFrameType().equals(frameType))
-            found.add(frame);
-      }
+      List<ID3v23Frame> found = new ArrayList<ID3v23Frame>(id3v23Tag.getFrames(frameType));
+
       // remove them from the ID3v2.3 tag
       for(ID3v23Frame frame : found)
         id3v23Tag.getFrames().remove(frame);
@@ -323,6 +332,15 @@ public class MP3Base
       return mp3File.length();
    }
 
+   /**
+    * returns the size (in bytes) of the ID3v2.3 tag, including its padding, at the beginning of the .mp3 file.
+    * @return the size (in bytes) of the ID3v2.3 tag in the .mp3 file, or 0 if the .mp3 file does not have one.
+    */
+   public long getTagSize()
+   {
+      return tagSize;
+   }
+
    /**
     * gets the ID3 V2.3 frame containing the attached picture of the specified picture type.
     * @param pictureType   One of the 21 allowable ID3v2.3 picture types.
@@ -332,8 +350,8 @@ public class MP3Base
     */
    protected ID3v23Frame getAttachedPictureFrame(PictureType pictureType) throws IllegalArgumentException
    {
-      ID3v23Frame         found  = null;
-      Vector<ID3v23Frame> frames = getFrames(FrameType.ATTACHED_PICTURE);
+      ID3v23Frame       found  = null;
+      List<ID3v23Frame> frames = getFrames(FrameType.ATTACHED_PICTURE);
 
       for(ID3v23Frame frame : frames)
       {
@@ -398,8 +416,8 @@ public class MP3Base
     */
    private ID3v23Frame getCommentsFrame(Language language) throws IllegalArgumentException
    {
-      ID3v23Frame         found  = null;
-      Vector<ID3v23Frame> frames = getFrames(FrameType.COMMENTS);
+      ID3v23Frame       found  = null;
+      List<ID3v23Frame> frames = getFrames(FrameType.COMMENTS);
 
       for(ID3v23Frame frame : frames)
       {
@@ -494,8 +512,8 @@ public class MP3Base
     */
    private ID3v23Frame getSynchronizedLyricsFrame(Language language)
    {
-      ID3v23Frame         found  = null;
-      Vector<ID3v23Frame> frames = getFrames(FrameType.SYNCHRONIZED_LYRIC_TEXT);
+      ID3v23Frame       found  = null;
+      List<ID3v23Frame> frames = getFrames(FrameType.SYNCHRONIZED_LYRIC_TEXT);
 
       for(ID3v23Frame frame : frames)
       {
@@ -641,8 +659,8 @@ public class MP3Base
     */
    private ID3v23Frame getUnsynchronizedLyricsFrame(Language language) throws IllegalArgumentException
    {
-      ID3v23Frame         found  = null;
-      Vector<ID3v23Frame> frames = getFrames(FrameType.UNSYCHRONIZED_LYRICS);
+      ID3v23Frame       found  = null;
+      List<ID3v23Frame> frames = getFrames(FrameType.UNSYCHRONIZED_LYRICS);
 
       for(ID3v23Frame frame : frames)
       {
@@ -709,16 +727,60 @@ public class MP3Base
          throw new IOException("Unable to rename the file " + tempFile.getPath() + " to " + mp3File.getPath() + ".");
    }
 
+   /**
+    * gets the strategy used to decide how much padding to reserve in the ID3v2.3 tag when the tag no longer fits in its old space and the whole .mp3 file has to be rewritten.
+    * @return the padding strategy.
+    * @see #setPaddingStrategy(PaddingStrategy)
+    */
+   public PaddingStrategy getPaddingStrategy()
+   {
+      return paddingStrategy;
+   }
+
+   /**
+    * sets the strategy used to decide how much padding to reserve in the ID3v2.3 tag when the tag no longer fits in its old space and the whole .mp3 file has to be rewritten.
+    * @param paddingStrategy   the padding strategy.
+    * @throws IllegalArgumentException   if the padding strategy is null.
+    * @see #getPaddingStrategy()
+    */
+   public void setPaddingStrategy(PaddingStrategy paddingStrategy) throws IllegalArgumentException
+   {
+      if (paddingStrategy == null)
+         throw new IllegalArgumentException("The padding strategy can not be null.");
+      this.paddingStrategy = paddingStrategy;
+   }
+
+   /**
+    * @return the number of times the ID3v2.3 tag was saved in the space of the old tag, without rewriting the .mp3 file.
+    */
+   public int getNumInPlaceSaves()
+   {
+      return numInPlaceSaves;
+   }
+
+   /**
+    * @return the number of times the whole .mp3 file had to be rewritten because the ID3v2.3 tag had outgrown its space.
+    */
+   public int getNumRewrites()
+   {
+      return numRewrites;
+   }
+
    /**
     * save the ID3v2.3 tag to the .mp3 file.
     * This is a very messy method, and you really have to understand the ID3v2.3 structure to understand this method.
     * So, if you can, by all means, avoid reading the code in this method.
     * <br/><br/>
+    * When the whole .mp3 file has to be rewritten, the audio is copied with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+    * which lets the operating system copy the bytes directly between the two files.
+    * <br/><br/>
+    * @return what was written and how long it took.
     * @throws IOException              if there was an error writing the ID3v2.3 tag to the .mp3 file.
     * @throws IllegalStateException    if the mp3 song was loaded from a URL and is therefore considered to be read only and thus may not be modified.
     */
-   public void save() throws IOException, IllegalStateException
+   public SaveResult save() throws IOException, IllegalStateException
    {
+      long startTime      = System.nanoTime();                                   // time the save started, used to calculate the throughput
       setText((int)audioSize, FrameType.SIZE);                                   // set the size (in bytes) of the audio portion of the .mp3 in a TSIZ frame
       long oldTagSize     = tagSize;                                             // get the size of the tag before any changes were made
       long oldPaddingSize = id3v23Tag.getPadding().length;                       // get the size of the padding in the tag before any changes were made
@@ -732,6 +794,9 @@ public class MP3Base
          RandomAccessFile file = new RandomAccessFile(mp3File, "rwd");           // open the mp3 file for writing
          id3v23Tag.save(file);                                                   // write the ID3v2.3 tag to the beginning of the .mp3 file
          file.close();
+         numInPlaceSaves++;
+
+         return new SaveResult(false, id3v23Tag.getSize(), 0, System.nanoTime() - startTime);
       }
       // otherwise, we need to re-write the whole .m3 file so that we have enough space to accommodate the tag's new larger size.
       else
@@ -739,28 +804,35 @@ public class MP3Base
          File             tempFile     = new File(mp3File.getPath() + ".tmp");   // name of the temporary .mp3 file
          FileOutputStream tempMp3File  = new FileOutputStream(tempFile);         // output stream used to write the bytes to the temp    .mp3 file
          FileInputStream  audioFile    = new FileInputStream (mp3File);          // input  stream used to read  the audio of the current .mp3 file
-         byte[]           audio        = new byte[2048];                         // buffer used to read the audio bytes from the current .mp3 file to the temp .mp3 file
-
-         id3v23Tag.setPadding(ID3v23Tag.DEFAULT_PADDING_SIZE);                   // set the padding to a default size
-         id3v23Tag.save(tempMp3File);                                            // save the new ID3v2.3 tag to the beginning of the new .mp3 file
+         long             audioSizeWritten = 0;                                  // number of audio bytes copied from the current .mp3 file to the temp .mp3 file
 
-         // copy the audio portion of the old .mp3 file to the new one
-         int n = 0;
-         int audioSizeWritten = 0;
-         audioFile.skip(oldTagSize);                                             // skip to the audio portion of the current .mp3 file
-
-         while ((n = audioFile.read(audio)) != -1)
+         try
          {
-            audioSizeWritten+=n;
-            tempMp3File.write(audio, 0, n);
+            id3v23Tag.setPadding(paddingStrategy.getPaddingSize((int)newTagSize, (int)(newTagSize - (oldTagSize - oldPaddingSize))));
+            id3v23Tag.save(tempMp3File);                                         // save the new ID3v2.3 tag to the beginning of the new .mp3 file
+
+            // copy the audio portion of the old .mp3 file to the new one.  transferTo() may copy fewer bytes than asked for, so keep going until the end of the file.
+            FileChannel audio = audioFile  .getChannel();
+            FileChannel temp  = tempMp3File.getChannel();
+            long        n;
+            while ((n = audio.transferTo(oldTagSize + audioSizeWritten, audio.size() - oldTagSize - audioSizeWritten, temp)) > 0)
+               audioSizeWritten += n;
+         }
+         finally
+         {
+            tempMp3File.close();
+            audioFile.close();
          }
-         tempMp3File.close();
-         audioFile.close();
 
          if (audioSizeWritten != audioSize)
              throw new IOException("Error saving the audio portion.  Expected " + audioSize + " bytes, but saved " + audioSizeWritten + " bytes.");
 
          rename(tempFile, mp3File);
+         tagSize  = id3v23Tag.getSize();                                         // the audio now starts right after the new tag
+         fileSize = tagSize + audioSize;
+         numRewrites++;
+
+         return new SaveResult(true, id3v23Tag.getSize(), audioSizeWritten, System.nanoTime() - startTime);
       }
    }
 
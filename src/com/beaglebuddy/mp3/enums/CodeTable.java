@@ -0,0 +1,115 @@
+package com.beaglebuddy.mp3.enums;
+
+import java.util.function.Function;
+
+
+
+
+/**
+ * <table class="logos_width">
+ *    <tbody>
+ *       <tr>
+ *          <td                               ><img src="../../../../resources/id3v2.gif"                     width="56"  height="54"  alt="ID3 logo"        /></td>
+ *          <td class="logos_horz_align_right"><img src="../../../../resources/beaglebuddy_software_logo.gif" width="340" height="110" alt="Beaglebuddy logo"/></td>
+ *       </tr>
+ *    </tbody>
+ * </table>
+ * <p class="beaglebuddy">
+ * A lookup table from the short character codes used in .mp3 files, such as the 4 character {@link FrameType frame ids} and the 3 character {@link Language language} and
+ * {@link Currency currency} codes, to their enums.  A code of up to 4 ISO-8859-1 characters is packed into an int, one character per byte, and the int is looked up in an open
+ * addressing hash table which is built once when the enum is loaded.  A lookup therefore takes constant time and does not allocate any objects.
+ * </p>
+ * @param <E>   the type of enum stored in the table.
+ */
+final class CodeTable<E extends Enum<E>>
+{
+   // data members
+   private final int[]    codes;    // packed codes of the enums, at the index of their hash or of the next free slot after it
+   private final Object[] values;   // enum of each code, or null if the slot is free
+   private final int      shift;    // number of bits to shift the hash by to get the index of a slot
+
+
+
+
+   /**
+    * constructor.  builds a table of the enum values, with at most one enum in every four slots so that lookups rarely have to probe more than one slot.
+    * @param values   the enum values to be stored in the table.
+    * @param code     gets the code of an enum value.
+    * @throws IllegalArgumentException   if a code can not be packed into an int, or if two enum values have the same code.
+    */
+   CodeTable(E[] values, Function<E, String> code)
+   {
+      int bits = 32 - Integer.numberOfLeadingZeros(values.length * 4 - 1);
+
+      this.codes  = new int[1 << bits];
+      this.values = new Object[1 << bits];
+      this.shift  = 32 - bits;
+
+      for (E value : values)
+      {
+         String s      = code.apply(value);
+         int    packed = pack(s, s.length());
+         int    index  = index(packed);
+
+         if (packed == 0)
+            throw new IllegalArgumentException("Invalid code " + s + ".");
+         while (this.values[index] != null)
+         {
+            if (this.codes[index] == packed)
+               throw new IllegalArgumentException("Duplicate code " + s + ".");
+            index = (index + 1) & (this.codes.length - 1);
+         }
+         this.codes [index] = packed;
+         this.values[index] = value;
+      }
+   }
+
+   /**
+    * packs a code into an int, one character per byte, so that the first character is in the most significant byte that is used.
+    * @param code     the code to be packed.
+    * @param length   the length the code must have.
+    * @return the packed code, or 0 if the code does not have the given length, or has a character which is not an ISO-8859-1 character.
+    */
+   static int pack(String code, int length)
+   {
+      if (code == null || code.length() != length || length > 4)
+         return 0;
+
+      int packed = 0;
+      for (int i=0; i<length; i++)
+      {
+         char c = code.charAt(i);
+         if (c > 0xFF)
+            return 0;
+         packed = (packed << 8) | c;
+      }
+      return packed;
+   }
+
+   /**
+    * gets the enum of a packed code.
+    * @param code   the packed code.
+    * @return the enum of the code, or null if no enum has the code.
+    */
+   @SuppressWarnings("unchecked")
+   E get(int code)
+   {
+      if (code == 0)
+         return null;
+
+      for (int index=index(code); values[index] != null; index = (index + 1) & (codes.length - 1))
+         if (codes[index] == code)
+            return (E)values[index];
+      return null;
+   }
+
+   /**
+    * gets the index of the slot of a packed code, using fibonacci hashing so that codes which only differ in their last character are spread over the table.
+    * @param code   the packed code.
+    * @return the index of the code's slot.
+    */
+   private int index(int code)
+   {
+      return (code * 0x9E3779B9) >>> shift;
+   }
+}
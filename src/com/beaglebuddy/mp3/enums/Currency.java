@@ -180,6 +180,9 @@ public enum Currency
    ZMK("Zambia Kwacha"                                           ), /** Zimbabwe Dollar                                          */
    ZWD("Zimbabwe Dollar"                                         );
 
+   // class members
+   private static final CodeTable<Currency> CURRENCIES = new CodeTable<Currency>(values(), Currency::getCode);   // currencies, by their codes
+
    // data members
    private String code;
    private String name;
@@ -229,13 +232,10 @@ public enum Currency
     */
    public static Currency getCurrency(String code) throws IllegalArgumentException
    {
-      if (code == null || code.length() != 3)
+      Currency currency = CURRENCIES.get(CodeTable.pack(code, 3));
+      if (currency == null)
          throw new IllegalArgumentException("Invalid currency " + code + ".");
-
-      for (Currency c : Currency.values())
-         if (code.equals(c.getCode()))
-            return c;
-      throw new IllegalArgumentException("Invalid currency " + code + ".");
+      return currency;
    }
 
    /**
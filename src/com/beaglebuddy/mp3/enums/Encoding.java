@@ -22,6 +22,9 @@ public enum Encoding
    ISO_8859_1("ISO-8859-1", Charset.forName("ISO-8859-1"), 1), /** 2 byte unicode character set */
    UTF_16    ("UTF-16"    , Charset.forName("UTF-16")    , 2);
 
+   // class members
+   private static final Encoding[] ENCODINGS = values();   // encodings, indexed by their ordinals
+
    // data members
    private String  name;
    private Charset characterSet;
@@ -75,10 +78,10 @@ public enum Encoding
     */
    public static Encoding getEncoding(byte encoding) throws IllegalArgumentException
    {
-      for (Encoding e : Encoding.values())
-         if (encoding == e.ordinal())
-            return e;
-      throw new IllegalArgumentException("Invalid encoding " + encoding + ".  It must be either 0 or 1.");
+      int index = encoding & 0xFF;
+      if (index >= ENCODINGS.length)
+         throw new IllegalArgumentException("Invalid encoding " + index + ".  It must be either 0 or 1.");
+      return ENCODINGS[index];
    }
 
    /**
@@ -274,6 +274,9 @@ public enum EventType
    AUDIO_FILE_ENDS             ("audio file ends"                                                                                     , true ),   /** one more byte of events follows (all the following bytes with the value 0xFF have the same function) */
    EVENT_BYTE_FOLLOWS          ("one more byte of events follows (all the following bytes with the value 0xFF have the same function)", true );
 
+   // class members
+   private static final EventType[] EVENT_TYPES = values();   // event types, indexed by their ordinals
+
    // data members
    private String  description;    // description of the event
    private boolean valid;          // whether a user may specify this value
@@ -348,10 +351,10 @@ public enum EventType
     */
    public static EventType getEventType(byte eventType) throws IllegalArgumentException
    {
-      for (EventType e : EventType.values())
-         if (eventType == e.ordinal())
-            return e;
-      throw new IllegalArgumentException("Invalid event type " + eventType + ".");
+      int index = eventType & 0xFF;
+      if (index >= EVENT_TYPES.length)
+         throw new IllegalArgumentException("Invalid event type " + index + ".");
+      return EVENT_TYPES[index];
    }
 
    /**
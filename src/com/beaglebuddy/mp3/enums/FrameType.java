@@ -97,6 +97,7 @@ public enum FrameType
    // class members
                                                  /** length of ID3v2.3 frame ids */
    public static final int FRAME_ID_LENGTH = 4;
+   private static final CodeTable<FrameType> FRAME_TYPES = new CodeTable<FrameType>(values(), FrameType::getId);   // frame types, by their ids
 
    // data members
    private String         id;                    // 4 character id
@@ -187,10 +188,24 @@ public enum FrameType
     */
    public static FrameType getFrameType(String frameId) throws IllegalArgumentException
    {
-      for (FrameType ft : FrameType.values())
-         if (frameId.equals(ft.getId()))
-            return ft;
-      throw new IllegalArgumentException("Invalid frame type " + frameId + ".");
+      FrameType frameType = FRAME_TYPES.get(CodeTable.pack(frameId, FRAME_ID_LENGTH));
+      if (frameType == null)
+         throw new IllegalArgumentException("Invalid frame type " + frameId + ".");
+      return frameType;
+   }
+
+   /**
+    * convert a frame id, as the 4 bytes read in from an .mp3 file packed into an int with the first byte in the most significant byte, to its corresponding frame type enum.
+    * @return the FrameType enum corresponding to the frame id.
+    * @param frameId  the 4 bytes of the frame id packed into an int.
+    * @throws IllegalArgumentException   if the frame id does not correspond to a valid FrameType.
+    */
+   public static FrameType getFrameType(int frameId) throws IllegalArgumentException
+   {
+      FrameType frameType = FRAME_TYPES.get(frameId);
+      if (frameType == null)
+         throw new IllegalArgumentException("Invalid frame type " + String.format("0x%08X", frameId) + ".");
+      return frameType;
    }
 
    /**
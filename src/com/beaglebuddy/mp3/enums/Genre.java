@@ -170,6 +170,9 @@ public enum Genre
 
 
 
+   // class members
+   private static final Genre[] GENRES = values();   // genres, indexed by their ordinals
+
    // data members
    private String name;
 
@@ -190,10 +193,10 @@ public enum Genre
     */
    public static Genre getGenre(byte genre) throws IllegalArgumentException
    {
-      for (Genre g : Genre.values())
-         if (genre == g.ordinal())
-            return g;
-      throw new IllegalArgumentException("Invalid genre " + genre + ".");
+      int index = genre & 0xFF;
+      if (index >= GENRES.length)
+         throw new IllegalArgumentException("Invalid genre " + index + ".");
+      return GENRES[index];
    }
 
    /**
@@ -520,6 +520,9 @@ public enum Language
    ZXX("No linguistic content; Not applicable"                                           ), /** Zaza; Dimili; Dimli; Kirdki; Kirmanjki; Zazaki                                   */
    ZZA("Zaza; Dimili; Dimli; Kirdki; Kirmanjki; Zazaki"                                  );
 
+   // class members
+   private static final CodeTable<Language> LANGUAGES = new CodeTable<Language>(values(), Language::getCode);   // languages, by their codes
+
    // data members
    private String code;
    private String name;
@@ -569,13 +572,10 @@ public enum Language
     */
    public static Language getLanguage(String code)
    {
-      if (code == null || code.length() != 3)
+      Language language = LANGUAGES.get(CodeTable.pack(code, 3));
+      if (language == null)
          throw new IllegalArgumentException("Invalid language " + code + ".");
-
-      for (Language l : Language.values())
-         if (code.equals(l.getCode()))
-            return l;
-      throw new IllegalArgumentException("Invalid language " + code + ".");
+      return language;
    }
 
    /**
@@ -37,6 +37,9 @@ public enum PictureType
    BAND_LOGO         ("Band Logo"         , "Band/artist logotype"               ), /** Publisher/Studio logotype           */
    PUBLISHER_LOGO    ("Publisher Logo"    , "Publisher/Studio logotype"          );
 
+   // class members
+   private static final PictureType[] PICTURE_TYPES = values();   // picture types, indexed by their ordinals
+
    // data members
    private String name;
    private String description;
@@ -69,10 +72,10 @@ public enum PictureType
     */
    public static PictureType getPictureType(byte pictureType) throws IllegalArgumentException
    {
-      for (PictureType p : PictureType.values())
-         if (pictureType == p.ordinal())
-            return p;
-      throw new IllegalArgumentException("Invalid picture type " + pictureType + ".");
+      int index = pictureType & 0xFF;
+      if (index >= PICTURE_TYPES.length)
+         throw new IllegalArgumentException("Invalid picture type " + index + ".");
+      return PICTURE_TYPES[index];
    }
 
    /**
@@ -20,6 +20,9 @@ public enum TimeStampFormat
    MPEG(1, "absolute time, 32 bit sized, using MPEG frames as units" ),  /** absolute time, 32 bit sized, using milliseconds as units */
    MS  (2, "absolute time, 32 bit sized, using milliseconds as units");
 
+   // class members
+   private static final TimeStampFormat[] TIME_STAMP_FORMATS = {null, MPEG, MS};   // time stamp formats, indexed by their values
+
    // data members
    private String description;
    private int    value;
@@ -61,10 +64,9 @@ public enum TimeStampFormat
     */
    public static TimeStampFormat getTimeStampFormat(byte timeStampFormat) throws IllegalArgumentException
    {
-      for (TimeStampFormat t : TimeStampFormat.values())
-         if (timeStampFormat == t.getValue())
-            return t;
-      throw new IllegalArgumentException("Invalid time stamp format " + timeStampFormat + ".  It must be either 1 or 2.");
+      if (timeStampFormat < 1 || timeStampFormat >= TIME_STAMP_FORMATS.length)
+         throw new IllegalArgumentException("Invalid time stamp format " + timeStampFormat + ".  It must be either 1 or 2.");
+      return TIME_STAMP_FORMATS[timeStampFormat];
    }
 
    /**
@@ -4,8 +4,6 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 
 import com.beaglebuddy.mp3.enums.FrameType;
 import com.beaglebuddy.mp3.id3v23.frame_body.*;
@@ -82,6 +80,7 @@ public class ID3v23Frame
    private ID3v23FrameBody   body;
    private String            invalidMessage;  // indicates whether the frame read in is a valid ID3v2.3 frame
                                               // this allows invalid frames to be read from the mp3 file and to be ignored
+   private boolean           unparsed;        // whether the frame body's raw bytes were read in lazily and have not been parsed yet
 
 
 
@@ -91,43 +90,8 @@ public class ID3v23Frame
     */
    public ID3v23Frame(FrameType frameType)
    {
-      // most frame body classes have a default constructor.
-      // however, ID3v23FrameBodyTextInformation and ID3v23FrameBodyURLLink do not, since they are used to instantiate multiple frame body type and therefore require a frame type
-      // when they are being constructed.
-      try
-      {
-         Class<?>       frameBodyClass = null;
-         Constructor<?> constructor    = null;
-
-         header         = new ID3v23FrameHeader(frameType);
-         frameBodyClass = frameType.getFrameBodyClass();
-         if (frameBodyClass.getName().endsWith("ID3v23FrameBodyTextInformation") || frameBodyClass.getName().endsWith("ID3v23FrameBodyURLLink"))
-         {
-            constructor = frameBodyClass.getConstructor(new Class<?>[] {FrameType.class});
-            body        = (ID3v23FrameBody)constructor.newInstance(frameType);
-         }
-         else
-         {
-            constructor = frameBodyClass.getConstructor(new Class<?>[] {});
-            body        = (ID3v23FrameBody)constructor.newInstance();
-         }
-      }
-      catch (NoSuchMethodException ex)
-      {  // this can never happen
-         ex.printStackTrace();
-      }
-      catch (InstantiationException ex)
-      {  // this can never happen
-         ex.printStackTrace();
-      }
-      catch (IllegalAccessException ex)
-      {  // this can never happen
-         ex.printStackTrace();
-      }
-      catch (InvocationTargetException ex)
-      {  // this can never happen
-         ex.printStackTrace();
-      }
+      header = new ID3v23FrameHeader(frameType);
+      body   = ID3v23FrameBodyFactory.createFrameBody(frameType);
    }
 
    /**
@@ -161,55 +125,48 @@ public class ID3v23Frame
     */
    public ID3v23Frame(ID3v23FrameHeader header, InputStream inputStream) throws IOException, IllegalArgumentException
    {
-      this.header = header;
+      this(header, inputStream, false);
+   }
 
-      Class<?>       frameBodyClass = null;
-      Constructor<?> constructor    = null;
+   /**
+    * constructor.  called when reading in an existing frame header from an .mp3 file.
+    * If <i>lazy</i> is true, then only the raw bytes of the frame body are read in, and they are not parsed until the frame's {@link #getBody() body} is first asked for.
+    * A frame whose body is never asked for is saved back to the .mp3 file from the raw bytes that were read in.
+    * @param header        the frame's header.
+    * @param inputStream   input stream pointing to the next frame in the ID3v2.3 tag.
+    * @param lazy          whether to defer parsing the frame body until it is used.
+    * @throws IOException                if there is an error while reading the frame.
+    * @throws IllegalArgumentException   if a valid frame id was read, and the bytes for the frame body were read, but an invalid value was encountered while parsing the frame body.
+    *                                    See {@link #ID3v23Frame(ID3v23FrameHeader, InputStream)}.
+    */
+   public ID3v23Frame(ID3v23FrameHeader header, InputStream inputStream, boolean lazy) throws IOException, IllegalArgumentException
+   {
+      this.header = header;
 
-      try
-      {
-         frameBodyClass = header.getFrameType().getFrameBodyClass();
-         constructor    = header.getFrameType().getFrameBodyConstructor();
-         body           = (ID3v23FrameBody)(constructor.getParameterTypes().length == 2 ? constructor.newInstance(inputStream,                        header.getFrameBodySize())
-                                                                                        : constructor.newInstance(inputStream, header.getFrameType(), header.getFrameBodySize()));
-         body.parse();
-      }
-      catch (InstantiationException ex)
-      {
-         // this can never happen
-         ex.printStackTrace();
-      }
-      catch (IllegalAccessException ex)
-      {
-         // this can never happen
-         ex.printStackTrace();
-      }
-      catch (InvocationTargetException ex)
+      if (header.getFrameType() == null)
       {
-         // this can never happen
-         ex.printStackTrace();
+         // an invalid frame id encountered.
+         // try and read in the bytes of the body so that we can continue parsing the remaining frames in the ID3v2.3 tag
+         body           = new ID3v23FrameBody(inputStream, header.getInvalidFrameId(), header.getFrameBodySize());
+         invalidMessage = "Invalid ID3 v2.3 frame id " + header.getInvalidFrameId();
       }
-      catch (NullPointerException ex)
+      else
       {
-         // an invalid frame id encountered
-         if (frameBodyClass == null)
+         body = ID3v23FrameBodyFactory.createFrameBody(inputStream, header.getFrameType(), header.getFrameBodySize());
+         try
          {
-            // try and read in the bytes of the body so that we can continue parsing the remaining frames in the ID3v2.3 tag
-            body           = new ID3v23FrameBody(inputStream, header.getInvalidFrameId(), header.getFrameBodySize());
-            invalidMessage = "Invalid ID3 v2.3 frame id " + header.getInvalidFrameId();
+            if (lazy)
+               unparsed = true;
+            else
+               body.parse();
          }
-         else
+         catch (IllegalArgumentException ex)
          {
+            // the frame body had an illegal value, such as a bad language code, no comments for a comment frame, etc.
+            // mark the frame as invalid an continue on
             invalidMessage = ex.getMessage();
-            throw ex;
          }
       }
-      catch (IllegalArgumentException ex)
-      {
-         // the frame body had an illegal value, such as a bad language code, no comments for a comment frame, etc.
-         // mark the frame as invalid an continue on
-         invalidMessage = ex.getMessage();
-      }
    }
 
    /**
@@ -236,16 +193,36 @@ public class ID3v23Frame
     */
    public ID3v23FrameBody getBody()
    {
+      if (unparsed)
+         parse();
       return body;
    }
 
+   /**
+    * parses the raw bytes of a frame body that was read in lazily.  If an invalid value is encountered, then the frame is tagged as being invalid, just as it would have been
+    * had the frame body been parsed when it was read in.  However, the frame stays in the ID3v2.3 tag, and its raw bytes are saved back to the .mp3 file unchanged.
+    */
+   private void parse()
+   {
+      unparsed = false;
+      try
+      {
+         body.parse();
+      }
+      catch (IllegalArgumentException ex)
+      {
+         invalidMessage = ex.getMessage();
+      }
+   }
+
    /**
     * sets the ID3v2.3 frame's body to one of the 74 types defined by the <a href="http://www.id3.org">ID32.3</a> Specification.
     * @param body    the frame's body.
     */
    public void setBody(ID3v23FrameBody body)
    {
-      this.body = body;
+      this.body     = body;
+      this.unparsed = false;
    }
 
    /**
@@ -256,7 +233,7 @@ public class ID3v23Frame
     */
    public boolean isDirty()
    {
-      return header.isDirty() || body.isDirty();
+      return header.isDirty() || (isValid() && body.isDirty());
    }
 
    /**
@@ -311,7 +288,10 @@ public class ID3v23Frame
       header.setFrameBodySize(body.getSize());
       header.setBuffer();
       header.save(file);
-      body  .save(file);
+      if (isValid())
+         body.save(file);
+      else
+         file.write(body.getBuffer());
 
    }
 
@@ -330,7 +310,10 @@ public class ID3v23Frame
       header.setFrameBodySize(body.getSize());
       header.setBuffer();
       header.save(file);
-      body  .save(file);
+      if (isValid())
+         body.save(file);
+      else
+         file.write(body.getBuffer());
    }
 
    /**
@@ -339,7 +322,8 @@ public class ID3v23Frame
     */
    public void setBuffer()
    {
-      body  .setBuffer();
+      if (isValid())
+         body.setBuffer();
       header.setFrameBodySize(body.getSize());
       header.setBuffer();
    }
@@ -354,7 +338,7 @@ public class ID3v23Frame
 
       buffer.append("ID3v2.3 frame: " + getDescription() + "\n");
       buffer.append(header);
-      buffer.append(body  );
+      buffer.append(getBody());
 
       return buffer.toString();
    }
@@ -153,8 +153,7 @@ public class ID3v23FrameHeader
 
             try
             {
-               String s = new String(buffer, 0, 4, Encoding.ISO_8859_1.getCharacterSet());
-               frameType = FrameType.getFrameType(s);
+               frameType = FrameType.getFrameType(((buffer[0] & 0xFF) << 24) + ((buffer[1] & 0xFF) << 16) + ((buffer[2] & 0xFF) << 8) + (buffer[3] & 0xFF));
             }
             catch (IllegalArgumentException ex)
             {
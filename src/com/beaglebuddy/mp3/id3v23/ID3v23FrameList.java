@@ -0,0 +1,221 @@
+package com.beaglebuddy.mp3.id3v23;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+
+import com.beaglebuddy.mp3.enums.FrameType;
+
+
+
+
+/**
+ * <table class="logos_width">
+ *    <tbody>
+ *       <tr>
+ *          <td                               ><img src="../../../../resources/id3v2.gif"                     width="56"  height="54"  alt="ID3 logo"        /></td>
+ *          <td class="logos_horz_align_right"><img src="../../../../resources/beaglebuddy_software_logo.gif" width="340" height="110" alt="Beaglebuddy logo"/></td>
+ *       </tr>
+ *    </tbody>
+ * </table>
+ * <p class="beaglebuddy">
+ * The list of frames in an {@link ID3v23Tag ID3v2.3 tag}.  Besides the frames in the order they are stored in the tag, the list keeps an index of the frames by their
+ * {@link FrameType frame type}, which is updated whenever a frame is added to or removed from the list.  This allows the frames of a given type to be found without
+ * searching through all the frames in the tag.
+ * </p>
+ * <p class="beaglebuddy">
+ * A frame is indexed by the frame type its header has when it is added to the list.  If the frame type of a frame in the list is changed, then the frame must be removed
+ * from the list and added again.
+ * </p>
+ */
+class ID3v23FrameList extends AbstractList<ID3v23Frame>
+{
+   // data members
+   private List<ID3v23Frame>                     frames;   // frames, in the order they are stored in the ID3v2.3 tag
+   private EnumMap<FrameType, List<ID3v23Frame>> index;    // frames of each frame type, in the order they are stored in the ID3v2.3 tag
+
+
+
+
+   /**
+    * default constructor.
+    */
+   public ID3v23FrameList()
+   {
+      frames = new ArrayList<ID3v23Frame>();
+      index  = new EnumMap<FrameType, List<ID3v23Frame>>(FrameType.class);
+   }
+
+   /**
+    * constructor.
+    * @param frames   frames to be stored in the list.
+    */
+   public ID3v23FrameList(Collection<ID3v23Frame> frames)
+   {
+      this();
+      addAll(frames);
+   }
+
+   /**
+    * gets the frame at the specified position in the list.
+    * @param i   position of the frame.
+    * @return the frame at the specified position.
+    */
+   public ID3v23Frame get(int i)
+   {
+      return frames.get(i);
+   }
+
+   /**
+    * gets the number of frames in the list.
+    * @return the number of frames in the list.
+    */
+   public int size()
+   {
+      return frames.size();
+   }
+
+   /**
+    * replaces the frame at the specified position in the list.
+    * @param i       position of the frame to be replaced.
+    * @param frame   the new frame.
+    * @return the frame that was replaced.
+    */
+   public ID3v23Frame set(int i, ID3v23Frame frame)
+   {
+      ID3v23Frame replaced = frames.set(i, frame);
+      unindex(replaced);
+      index(i, frame);
+
+      return replaced;
+   }
+
+   /**
+    * inserts a frame at the specified position in the list.
+    * @param i       position the frame is to be inserted at.
+    * @param frame   the frame to be inserted.
+    */
+   public void add(int i, ID3v23Frame frame)
+   {
+      frames.add(i, frame);
+      index(i, frame);
+      modCount++;
+   }
+
+   /**
+    * removes the frame at the specified position in the list.
+    * @param i   position of the frame to be removed.
+    * @return the frame that was removed.
+    */
+   public ID3v23Frame remove(int i)
+   {
+      ID3v23Frame removed = frames.remove(i);
+      unindex(removed);
+      modCount++;
+
+      return removed;
+   }
+
+   /**
+    * removes all the frames from the list.
+    */
+   public void clear()
+   {
+      frames.clear();
+      index.clear();
+      modCount++;
+   }
+
+   /**
+    * gets the first frame of the specified frame type.
+    * @param frameType   ID3v2.3 frame type.
+    * @return the first frame of the given type, or null if the list does not contain a frame of that type.
+    */
+   public ID3v23Frame getFrame(FrameType frameType)
+   {
+      List<ID3v23Frame> framesOfType = frameType == null ? null : index.get(frameType);
+
+      return framesOfType == null ? null : framesOfType.get(0);
+   }
+
+   /**
+    * gets all the frames of the specified frame type.
+    * @param frameType   ID3v2.3 frame type.
+    * @return a read only list of the frames of the given type, which is empty if the list does not contain a frame of that type.
+    */
+   public List<ID3v23Frame> getFrames(FrameType frameType)
+   {
+      List<ID3v23Frame> framesOfType = frameType == null ? null : index.get(frameType);
+
+      return framesOfType == null ? Collections.<ID3v23Frame>emptyList() : Collections.unmodifiableList(framesOfType);
+   }
+
+   /**
+    * adds a frame, which has been stored at the specified position in the list, to the index of the frames of its type.
+    * @param i       position of the frame in the list.
+    * @param frame   the frame to be indexed.
+    */
+   private void index(int i, ID3v23Frame frame)
+   {
+      FrameType frameType = frameType(frame);
+      if (frameType == null)
+         return;
+
+      List<ID3v23Frame> framesOfType = index.get(frameType);
+      if (framesOfType == null)
+      {
+         framesOfType = new ArrayList<ID3v23Frame>(1);
+         index.put(frameType, framesOfType);
+      }
+
+      // frames are almost always added to the end of the list, in which case they are also the last frame of their type
+      if (i == frames.size() - 1)
+      {
+         framesOfType.add(frame);
+      }
+      else
+      {
+         int position = 0;
+         for(int j=0; j<i; j++)
+            if (frameType(frames.get(j)) == frameType)
+               position++;
+         framesOfType.add(position, frame);
+      }
+   }
+
+   /**
+    * removes a frame, which has been removed from the list, from the index of the frames of its type.
+    * @param frame   the frame to be removed from the index.
+    */
+   private void unindex(ID3v23Frame frame)
+   {
+      FrameType         frameType    = frameType(frame);
+      List<ID3v23Frame> framesOfType = frameType == null ? null : index.get(frameType);
+      if (framesOfType == null)
+         return;
+
+      for(int i=0; i<framesOfType.size(); i++)
+      {
+         if (framesOfType.get(i) == frame)
+         {
+            framesOfType.remove(i);
+            break;
+         }
+      }
+      if (framesOfType.isEmpty())
+         index.remove(frameType);
+   }
+
+   /**
+    * gets the frame type a frame is indexed by.
+    * @param frame   an ID3v2.3 frame.
+    * @return the frame type of the frame, or null if the frame or its header is null.
+    */
+   private static FrameType frameType(ID3v23Frame frame)
+   {
+      return frame == null || frame.getHeader() == null ? null : frame.getHeader().getFrameType();
+   }
+}
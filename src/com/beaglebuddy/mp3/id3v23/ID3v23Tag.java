@@ -1,12 +1,14 @@
 package com.beaglebuddy.mp3.id3v23;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Vector;
 
+import com.beaglebuddy.mp3.enums.FrameType;
 import com.beaglebuddy.mp3.exception.TagNotFoundException;
 
 
@@ -70,7 +72,7 @@ public class ID3v23Tag
 
    // data members
    private ID3v23TagHeader   header;        // tag header
-   private List<ID3v23Frame> frames;        // valid frames
+   private ID3v23FrameList   frames;        // valid frames, indexed by their frame type
    private List<ID3v23Frame> invalidFrames; // invalid frames encountered while reading in a tag - this allows the invalid frames to be skipped over (ignored)
    private byte[]            padding;       // unused padding (filled with 0x00's)
 
@@ -83,8 +85,8 @@ public class ID3v23Tag
    public ID3v23Tag()
    {
       header        = new ID3v23TagHeader();
-      frames        = new Vector<ID3v23Frame>();
-      invalidFrames = new Vector<ID3v23Frame>();
+      frames        = new ID3v23FrameList();
+      invalidFrames = new ArrayList<ID3v23Frame>();
       padding       = new byte[DEFAULT_PADDING_SIZE];
    }
 
@@ -96,30 +98,46 @@ public class ID3v23Tag
     * @throws TagNotFoundException   if the .mp3 file does not contain an ID3v2.3 tag.
     */
    public ID3v23Tag(InputStream inputStream) throws IOException, TagNotFoundException
+   {
+      this(inputStream, false);
+   }
+
+   /**
+    * constructor.  Called when reading an existing ID3v2.3 tag from an .mp3 file.  If <i>lazy</i> is true, then the frame bodies are read in but are only parsed when they are first used,
+    * so that large frames such as pictures, synchronized lyrics, and encapsulated objects that are never looked at cost no more than reading their bytes, and are saved back unchanged.
+    * A frame body that turns out to be invalid when it is parsed is tagged as invalid, but is not moved to the list of {@link #getInvalidFrames() invalid frames}.
+    * @param inputStream   input stream mp3 file whose ID3v2.3 tag is to be read.
+    * @param lazy          whether to defer parsing the frame bodies until they are used.
+    * @throws IOException            if there was an error while loading the ID3v2.3 tag from the .mp3 file.
+    * @throws TagNotFoundException   if the .mp3 file does not contain an ID3v2.3 tag.
+    */
+   public ID3v23Tag(InputStream inputStream, boolean lazy) throws IOException, TagNotFoundException
    {
       header = new ID3v23TagHeader(inputStream);
 
+      // read in the rest of the tag with one bulk read, so that the frame headers and bodies are parsed from memory rather than with a read from the .mp3 file for every few bytes.
+      InputStream       tagStream     = readTag(inputStream, ID3v23TagHeader.ID3V2_3_TAG_HEADER_STANDARD_SIZE + header.getTagSize() - header.getSize());
+
       // after the tag header come the tag frames.
       // although the tag header tells you how many bytes long the tag is, that number includes the padding that can follow the frame data.
       // since the tag header doesn't tell you how many frames the tag contains, the only way to tell when you've hit the padding is to look
       // for a null byte where you'd expect a frame identifier.
-                        frames        = new Vector<ID3v23Frame>();
-                        invalidFrames = new Vector<ID3v23Frame>();
+                        frames        = new ID3v23FrameList();
+                        invalidFrames = new ArrayList<ID3v23Frame>();
       int               tagSize       = ID3v23TagHeader.ID3V2_3_TAG_HEADER_STANDARD_SIZE + header.getTagSize();
       int               paddingSize   = 0;
       int               numBytesRead  = header.getSize();
       ID3v23FrameHeader frameHeader   = null;
 
        // read frames until we reach a null byte (0x00), which indicates that we've read the last frame and that we've now hit the padding
-      while (numBytesRead < tagSize && !(frameHeader = new ID3v23FrameHeader(inputStream)).isPadding())
+      while (numBytesRead < tagSize && !(frameHeader = new ID3v23FrameHeader(tagStream)).isPadding())
       {
-         ID3v23Frame frame = new ID3v23Frame(frameHeader, inputStream);       // read in the frame body
+         ID3v23Frame frame = new ID3v23Frame(frameHeader, tagStream, lazy);   // read in the frame body
          if (frame.isValid())
             frames.add(frame);
          else
             invalidFrames.add(frame);
-         numBytesRead += frame.getHeader().getSize();
-         numBytesRead += frame.getBody  ().getSize();
+         numBytesRead += frame.getSize();                                     // frame.getBody() would parse a lazily read frame body
       }
 
       paddingSize = tagSize - numBytesRead;
@@ -130,11 +148,30 @@ public class ID3v23Tag
       {
           // since we read in 1 byte (0x00) to detect the beginning of the padding, subtract 1 from the number of bytes left to be read in the padding.
          byte[] buffer = new byte[paddingSize-1];
-         inputStream.read(buffer);
+         tagStream.read(buffer);
          System.arraycopy(buffer, 0, padding, 1, buffer.length);
       }
    }
 
+   /**
+    * reads in the frames and padding of an ID3v2.3 tag, which follow the tag header.  If the .mp3 file ends before the end of the tag, then only the bytes up to the end of the file are returned.
+    * @param inputStream   input stream pointing to the first frame of the ID3v2.3 tag.
+    * @param size          size (in bytes) of the frames and padding, as given by the tag header.
+    * @return an input stream over the bytes read in.
+    * @throws IOException   if there was an error reading from the .mp3 file.
+    */
+   private static InputStream readTag(InputStream inputStream, int size) throws IOException
+   {
+      byte[] buffer    = new byte[Math.max(size, 0)];
+      int    bytesRead = 0;
+      int    n         = 0;
+
+      while (bytesRead < buffer.length && (n = inputStream.read(buffer, bytesRead, buffer.length - bytesRead)) != -1)
+         bytesRead += n;
+
+      return new ByteArrayInputStream(buffer, 0, bytesRead);
+   }
+
    /**
     * gets the ID3v2.3 tag's header.
     * @return the ID3v2.3 tag header.
@@ -156,9 +193,10 @@ public class ID3v23Tag
    }
 
    /**
-    * gets the list of frames stored in the ID3v2.3 tag.
+    * gets the list of frames stored in the ID3v2.3 tag.  Frames added to or removed from the list are added to or removed from the tag.
     * @return a list of the frames.
     * @see #setFrames(List)
+    * @see #getFrames(FrameType)
     */
    public List<ID3v23Frame> getFrames()
    {
@@ -166,13 +204,38 @@ public class ID3v23Tag
    }
 
    /**
-    * sets the list of frames and stores them in the ID3v2.3 tag.
+    * gets the first frame of the specified frame type stored in the ID3v2.3 tag.  The frames are indexed by their type, so the frames of other types are not searched.
+    * @param frameType   ID3v2.3 frame type.
+    * @return the first frame of the given type, or null if the tag does not contain a frame of that type.
+    * @see #getFrames(FrameType)
+    */
+   public ID3v23Frame getFrame(FrameType frameType)
+   {
+      return frames.getFrame(frameType);
+   }
+
+   /**
+    * gets all the frames of the specified frame type stored in the ID3v2.3 tag, in the order they are stored in the tag.  The returned list is read only.
+    * If the {@link ID3v23FrameHeader#setFrameType(FrameType) frame type} of a frame in the tag is changed, then the frame must be removed from the tag and added again in order
+    * to be found under its new frame type.
+    * @param frameType   ID3v2.3 frame type.
+    * @return the frames of the given type, or an empty list if the tag does not contain a frame of that type.
+    * @see #getFrame(FrameType)
+    * @see #getFrames()
+    */
+   public List<ID3v23Frame> getFrames(FrameType frameType)
+   {
+      return frames.getFrames(frameType);
+   }
+
+   /**
+    * sets the list of frames and stores them in the ID3v2.3 tag.  The frames are copied into the tag's own list, so that they can be indexed by their frame type.
     * @param frames   a list of ID3v2.3 frames containing information about the .mp3 song.
     * @see #getFrames()
     */
    public void setFrames(List<ID3v23Frame> frames)
    {
-      this.frames = frames;
+      this.frames = new ID3v23FrameList(frames);
    }
 
    /**
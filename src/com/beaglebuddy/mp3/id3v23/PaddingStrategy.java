@@ -0,0 +1,168 @@
+package com.beaglebuddy.mp3.id3v23;
+
+
+/**
+ * <table class="logos_width">
+ *    <tbody>
+ *       <tr>
+ *          <td                               ><img src="../../../../resources/id3v2.gif"                     width="56"  height="54"  alt="ID3 logo"        /></td>
+ *          <td class="logos_horz_align_right"><img src="../../../../resources/beaglebuddy_software_logo.gif" width="340" height="110" alt="Beaglebuddy logo"/></td>
+ *       </tr>
+ *    </tbody>
+ * </table>
+ * <p class="beaglebuddy">
+ * A padding strategy decides how much padding is reserved at the end of an ID3v2.3 tag when the tag has outgrown its space in the .mp3 file and the whole
+ * .mp3 file has to be rewritten.  The more padding is reserved, the more the tag can grow on later saves before the .mp3 file has to be rewritten again.
+ * The following strategies are provided:
+ * </p>
+ * <p class="beaglebuddy">
+ * <table class="beaglebuddy">
+ *    <caption><b>Padding Strategies</b></caption>
+ *    <thead>
+ *       <tr><th class="beaglebuddy">&nbsp;</th><th class="beaglebuddy">Strategy</th><th class="beaglebuddy">Description</th></tr>
+ *    </thead>
+ *    <tbody>
+ *       <tr><td class="beaglebuddy">1. </td><td class="beaglebuddy">{@link Fixed}     </td><td class="beaglebuddy">always reserves the same number of bytes.  This is the default, using {@link ID3v23Tag#DEFAULT_PADDING_SIZE}.</td></tr>
+ *       <tr><td class="beaglebuddy">2. </td><td class="beaglebuddy">{@link Percentage}</td><td class="beaglebuddy">reserves a percentage of the size of the tag.                                                                   </td></tr>
+ *       <tr><td class="beaglebuddy">3. </td><td class="beaglebuddy">{@link Block}     </td><td class="beaglebuddy">pads the tag so that it ends on a block boundary, such as 4K or 64K, and so the audio starts on one.           </td></tr>
+ *       <tr><td class="beaglebuddy">4. </td><td class="beaglebuddy">{@link Headroom}  </td><td class="beaglebuddy">reserves enough room for a number of future edits that grow the tag as much as the last one did.              </td></tr>
+ *    </tbody>
+ * </table>
+ * </p>
+ */
+public interface PaddingStrategy
+{
+   /**
+    * gets the amount of padding to reserve at the end of an ID3v2.3 tag that is about to be written to a rewritten .mp3 file.
+    * @param tagSize   size (in bytes) of the ID3v2.3 tag, not counting any padding.
+    * @param growth    number of bytes the ID3v2.3 tag, not counting any padding, has grown by since it was read from the .mp3 file.
+    * @return the size (in bytes) of the padding.
+    */
+   public int getPaddingSize(int tagSize, int growth);
+
+
+
+   /**
+    * reserves the same amount of padding every time.
+    */
+   public static class Fixed implements PaddingStrategy
+   {
+      private int size;    // size (in bytes) of the padding
+
+      /**
+       * constructor.
+       * @param size   size (in bytes) of the padding.
+       * @throws IllegalArgumentException   if the size is less than 0.
+       */
+      public Fixed(int size)
+      {
+         if (size < 0)
+            throw new IllegalArgumentException("Invalid padding size, " + size + ".  It must be >= 0.");
+         this.size = size;
+      }
+
+      /**
+       * @return the fixed padding size.
+       */
+      public int getPaddingSize(int tagSize, int growth)
+      {
+         return size;
+      }
+   }
+
+   /**
+    * reserves a percentage of the size of the tag, but never less than a minimum number of bytes.
+    */
+   public static class Percentage implements PaddingStrategy
+   {
+      private int percent;     // percentage of the tag size to reserve
+      private int minimum;     // minimum size (in bytes) of the padding
+
+      /**
+       * constructor.
+       * @param percent   percentage of the tag size to reserve.
+       * @param minimum   minimum size (in bytes) of the padding.
+       * @throws IllegalArgumentException   if the percentage or the minimum is less than 0.
+       */
+      public Percentage(int percent, int minimum)
+      {
+         if (percent < 0 || minimum < 0)
+            throw new IllegalArgumentException("Invalid padding percentage, " + percent + "%, or minimum, " + minimum + ".  They must be >= 0.");
+         this.percent = percent;
+         this.minimum = minimum;
+      }
+
+      /**
+       * @return the given percentage of the tag size, or the minimum padding size if that is larger.
+       */
+      public int getPaddingSize(int tagSize, int growth)
+      {
+         return (int)Math.max(minimum, (long)tagSize * percent / 100);
+      }
+   }
+
+   /**
+    * reserves at least a minimum number of bytes, and then enough padding so that the tag ends on a multiple of the block size.
+    * Since the ID3v2.3 tag is at the start of the .mp3 file, the audio then starts on a block boundary as well.
+    */
+   public static class Block implements PaddingStrategy
+   {
+      private int blockSize;   // size (in bytes) of a block
+      private int minimum;     // minimum size (in bytes) of the padding
+
+      /**
+       * constructor.
+       * @param blockSize   size (in bytes) of a block.  ex: 4096 or 65536.
+       * @param minimum     minimum size (in bytes) of the padding.
+       * @throws IllegalArgumentException   if the block size is less than 1 or the minimum is less than 0.
+       */
+      public Block(int blockSize, int minimum)
+      {
+         if (blockSize < 1 || minimum < 0)
+            throw new IllegalArgumentException("Invalid block size, " + blockSize + ", or minimum, " + minimum + ".  They must be >= 1 and >= 0.");
+         this.blockSize = blockSize;
+         this.minimum   = minimum;
+      }
+
+      /**
+       * @return the padding needed to round the tag plus the minimum padding up to the next block boundary.
+       */
+      public int getPaddingSize(int tagSize, int growth)
+      {
+         long size = tagSize + minimum;
+         return (int)((size + blockSize - 1) / blockSize * blockSize - tagSize);
+      }
+   }
+
+   /**
+    * reserves enough padding for a number of future edits, assuming each of them grows the tag by as much as the last one did.
+    * This suits tags that grow a little on every save, for example when text is appended to a comment each time.
+    */
+   public static class Headroom implements PaddingStrategy
+   {
+      private int edits;       // number of future edits to reserve room for
+      private int minimum;     // minimum size (in bytes) of the padding
+
+      /**
+       * constructor.
+       * @param edits     number of future edits to reserve room for.
+       * @param minimum   minimum size (in bytes) of the padding.
+       * @throws IllegalArgumentException   if the number of edits or the minimum is less than 0.
+       */
+      public Headroom(int edits, int minimum)
+      {
+         if (edits < 0 || minimum < 0)
+            throw new IllegalArgumentException("Invalid number of edits, " + edits + ", or minimum, " + minimum + ".  They must be >= 0.");
+         this.edits   = edits;
+         this.minimum = minimum;
+      }
+
+      /**
+       * @return the growth of the tag times the number of edits, or the minimum padding size if that is larger.
+       */
+      public int getPaddingSize(int tagSize, int growth)
+      {
+         return (int)Math.min(Integer.MAX_VALUE, Math.max(minimum, (long)Math.max(growth, 0) * edits));
+      }
+   }
+}
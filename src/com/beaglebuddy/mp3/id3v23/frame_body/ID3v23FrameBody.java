@@ -86,6 +86,15 @@ public class ID3v23FrameBody extends ID3v23FrameBodyUtility
          throw new IOException("Error reading the body of an invalid frame with id " + invalidFrameId + ".");
    }
 
+   /**
+    * gets the raw bytes of the frame body, as they were read in from the .mp3 file or as they were last stored by {@link #setBuffer()}.
+    * @return the frame body's raw byte buffer.
+    */
+   public byte[] getBuffer()
+   {
+      return buffer;
+   }
+
    /**
     * gets the frame body's ID3v2.3 type.
     * @return the frame body's ID3v2.3 type.
@@ -0,0 +1,212 @@
+package com.beaglebuddy.mp3.id3v23.frame_body;
+
+import java.io.InputStream;
+import java.io.IOException;
+
+import com.beaglebuddy.mp3.enums.FrameType;
+
+
+
+
+/**
+ * <table class="logos_width">
+ *    <tbody>
+ *       <tr>
+ *          <td                               ><img src="../../../../../resources/id3v2.gif"                     width="56"  height="54"  alt="ID3 logo"        /></td>
+ *          <td class="logos_horz_align_right"><img src="../../../../../resources/beaglebuddy_software_logo.gif" width="340" height="110" alt="Beaglebuddy logo"/></td>
+ *       </tr>
+ *    </tbody>
+ * </table>
+ * <p class="beaglebuddy">
+ * Creates the frame body for each of the 74 {@link FrameType frame types} by calling the frame body class's constructor directly, rather than looking the constructor up
+ * by reflection.  The frame body class of each frame type is the one given by {@link FrameType#getFrameBodyClass()}.  The {@link ID3v23FrameBodyTextInformation text information}
+ * and {@link ID3v23FrameBodyURLLink URL link} frame bodies implement several frame types and are therefore also given the frame type.
+ * </p>
+ */
+public class ID3v23FrameBodyFactory
+{
+   /**
+    * This class only has static methods and is not meant to be instantiated.
+    */
+   private ID3v23FrameBodyFactory()
+   {
+      // nothing to do
+   }
+
+   /**
+    * creates a new frame body with the default values for the frame type.  Called when creating a new frame.
+    * @param frameType   the type of ID3v2.3 frame whose body is to be created.
+    * @return a new frame body.
+    */
+   public static ID3v23FrameBody createFrameBody(FrameType frameType)
+   {
+      switch (frameType)
+      {
+         case AUDIO_ENCRYPTION:                         return new ID3v23FrameBodyAudioEncryption();
+         case ATTACHED_PICTURE:                         return new ID3v23FrameBodyAttachedPicture();
+         case COMMENTS:                                 return new ID3v23FrameBodyComments();
+         case COMMERCIAL:                               return new ID3v23FrameBodyCommercial();
+         case ENCRYPTION_METHOD_REGISTRATION:           return new ID3v23FrameBodyEncryptionMethodRegistration();
+         case EQUALIZATION:                             return new ID3v23FrameBodyEqualization();
+         case EVENT_TIMING_CODES:                       return new ID3v23FrameBodyEventTimingCodes();
+         case GENERAL_ENCAPSULATED_OBJECT:              return new ID3v23FrameBodyGeneralEncapsulatedObject();
+         case GROUP_IDENTIFICATION_REGISTRATION:        return new ID3v23FrameBodyGroupIdentificationRegistration();
+         case INVOLVED_PEOPLE_LIST:                     return new ID3v23FrameBodyInvolvedPeopleList();
+         case LINKED_INFORMATION:                       return new ID3v23FrameBodyLinkedInformation();
+         case MUSIC_CD_IDENTIFIER:                      return new ID3v23FrameBodyMusicCDIdentifier();
+         case MPEG_LOCATION_LOOKUP_TABLE:               return new ID3v23FrameBodyMPEGLocationLookupTable();
+         case OWNERSHIP:                                return new ID3v23FrameBodyOwnership();
+         case PLAY_COUNTER:                             return new ID3v23FrameBodyPlayCounter();
+         case POPULARIMETER:                            return new ID3v23FrameBodyPopularimeter();
+         case POSITION_SYNCHRONIZATION:                 return new ID3v23FrameBodyPositionSynchronization();
+         case PRIVATE:                                  return new ID3v23FrameBodyPrivate();
+         case RECOMMENDED_BUFFER_SIZE:                  return new ID3v23FrameBodyRecommendedBufferSize();
+         case RELATIVE_VOLUME_ADJUSTMENT:               return new ID3v23FrameBodyRelativeVolumeAdjustment();
+         case REVERB:                                   return new ID3v23FrameBodyReverb();
+         case SYNCHRONIZED_LYRIC_TEXT:                  return new ID3v23FrameBodySynchronizedLyricsText();
+         case SYNCHRONIZED_TEMPO_CODES:                 return new ID3v23FrameBodySynchronizedTempoCodes();
+         case ALBUM_TITLE:
+         case BEATS_PER_MINUTE:
+         case COMPOSER:
+         case CONTENT_TYPE:
+         case COPYRIGHT_MESSAGE:
+         case DATE:
+         case PLAYLIST_DELAY:
+         case ENCODED_BY:
+         case LYRICIST:
+         case FILE_TYPE:
+         case TIME:
+         case CONTENT_GROUP_DESCRIPTION:
+         case SONG_TITLE:
+         case SUBTITLE_REFINEMENT:
+         case INITIAL_KEY:
+         case LANGUAGE:
+         case LENGTH:
+         case MEDIA_TYPE:
+         case ORIGINAL_ALBUM_TITLE:
+         case ORIGINAL_FILENAME:
+         case ORIGINAL_LYRICIST:
+         case ORIGINAL_ARTIST:
+         case ORIGINAL_RELEASE_YEAR:
+         case FILE_OWNER:
+         case LEAD_PERFORMER:
+         case BAND:
+         case CONDUCTOR:
+         case INTERPRETED_MODIFIED_BY:
+         case PART_OF_A_SET:
+         case PUBLISHER:
+         case TRACK_NUMBER:
+         case RECORDING_DATES:
+         case INTERNET_RADIO_STATION_NAME:
+         case INTERNET_RADIO_STATION_OWNER:
+         case SIZE:
+         case INTERNATIONAL_STANDARD_RECORDING_CODE:
+         case SOFTWARE_HARDWARE_ENCODING_SETTINGS:
+         case YEAR:                                     return new ID3v23FrameBodyTextInformation(frameType);
+         case USER_DEFINED_TEXT_INFORMATION:            return new ID3v23FrameBodyUserDefinedTextInformation();
+         case UNIQUE_FILE_IDENTIFIER:                   return new ID3v23FrameBodyUniqueFileIdentifier();
+         case TERMS_OF_USE:                             return new ID3v23FrameBodyTermsOfUse();
+         case UNSYCHRONIZED_LYRICS:                     return new ID3v23FrameBodyUnsynchronizedLyrics();
+         case COMMERCIAL_INFORMATION:
+         case COPYRIGHT_LEGAL_INFORMATION:
+         case OFFICIAL_AUDIO_FILE_WEBPAGE:
+         case OFFICIAL_ARTIST_WEBPAGE:
+         case OFFICIAL_AUDIO_SOURCE_WEBPAGE:
+         case OFFICIAL_INTERNET_RADIO_STATION_HOMEPAGE:
+         case PAYMENT:
+         case PUBLISHERS_OFFICIAL_WEBPAGE:              return new ID3v23FrameBodyURLLink(frameType);
+         case USER_DEFINED_URL_LINK_FRAME:              return new ID3v23FrameBodyUserDefinedURLLink();
+      }
+      throw new IllegalArgumentException("Invalid frame type " + frameType + ".");
+   }
+
+   /**
+    * creates a frame body by reading in its raw bytes from an .mp3 file.  The frame body's {@link ID3v23FrameBody#parse() parse()} method has not been called yet.
+    * @param inputStream     input stream pointing to a frame body in the .mp3 file.
+    * @param frameType       the type of ID3v2.3 frame whose body is to be read in.
+    * @param frameBodySize   size (in bytes) of the frame's body.
+    * @return the frame body read in.
+    * @throws IOException   if there is an error while reading in the frame body.
+    */
+   public static ID3v23FrameBody createFrameBody(InputStream inputStream, FrameType frameType, int frameBodySize) throws IOException
+   {
+      switch (frameType)
+      {
+         case AUDIO_ENCRYPTION:                         return new ID3v23FrameBodyAudioEncryption(inputStream, frameBodySize);
+         case ATTACHED_PICTURE:                         return new ID3v23FrameBodyAttachedPicture(inputStream, frameBodySize);
+         case COMMENTS:                                 return new ID3v23FrameBodyComments(inputStream, frameBodySize);
+         case COMMERCIAL:                               return new ID3v23FrameBodyCommercial(inputStream, frameBodySize);
+         case ENCRYPTION_METHOD_REGISTRATION:           return new ID3v23FrameBodyEncryptionMethodRegistration(inputStream, frameBodySize);
+         case EQUALIZATION:                             return new ID3v23FrameBodyEqualization(inputStream, frameBodySize);
+         case EVENT_TIMING_CODES:                       return new ID3v23FrameBodyEventTimingCodes(inputStream, frameBodySize);
+         case GENERAL_ENCAPSULATED_OBJECT:              return new ID3v23FrameBodyGeneralEncapsulatedObject(inputStream, frameBodySize);
+         case GROUP_IDENTIFICATION_REGISTRATION:        return new ID3v23FrameBodyGroupIdentificationRegistration(inputStream, frameBodySize);
+         case INVOLVED_PEOPLE_LIST:                     return new ID3v23FrameBodyInvolvedPeopleList(inputStream, frameBodySize);
+         case LINKED_INFORMATION:                       return new ID3v23FrameBodyLinkedInformation(inputStream, frameBodySize);
+         case MUSIC_CD_IDENTIFIER:                      return new ID3v23FrameBodyMusicCDIdentifier(inputStream, frameBodySize);
+         case MPEG_LOCATION_LOOKUP_TABLE:               return new ID3v23FrameBodyMPEGLocationLookupTable(inputStream, frameBodySize);
+         case OWNERSHIP:                                return new ID3v23FrameBodyOwnership(inputStream, frameBodySize);
+         case PLAY_COUNTER:                             return new ID3v23FrameBodyPlayCounter(inputStream, frameBodySize);
+         case POPULARIMETER:                            return new ID3v23FrameBodyPopularimeter(inputStream, frameBodySize);
+         case POSITION_SYNCHRONIZATION:                 return new ID3v23FrameBodyPositionSynchronization(inputStream, frameBodySize);
+         case PRIVATE:                                  return new ID3v23FrameBodyPrivate(inputStream, frameBodySize);
+         case RECOMMENDED_BUFFER_SIZE:                  return new ID3v23FrameBodyRecommendedBufferSize(inputStream, frameBodySize);
+         case RELATIVE_VOLUME_ADJUSTMENT:               return new ID3v23FrameBodyRelativeVolumeAdjustment(inputStream, frameBodySize);
+         case REVERB:                                   return new ID3v23FrameBodyReverb(inputStream, frameBodySize);
+         case SYNCHRONIZED_LYRIC_TEXT:                  return new ID3v23FrameBodySynchronizedLyricsText(inputStream, frameBodySize);
+         case SYNCHRONIZED_TEMPO_CODES:                 return new ID3v23FrameBodySynchronizedTempoCodes(inputStream, frameBodySize);
+         case ALBUM_TITLE:
+         case BEATS_PER_MINUTE:
+         case COMPOSER:
+         case CONTENT_TYPE:
+         case COPYRIGHT_MESSAGE:
+         case DATE:
+         case PLAYLIST_DELAY:
+         case ENCODED_BY:
+         case LYRICIST:
+         case FILE_TYPE:
+         case TIME:
+         case CONTENT_GROUP_DESCRIPTION:
+         case SONG_TITLE:
+         case SUBTITLE_REFINEMENT:
+         case INITIAL_KEY:
+         case LANGUAGE:
+         case LENGTH:
+         case MEDIA_TYPE:
+         case ORIGINAL_ALBUM_TITLE:
+         case ORIGINAL_FILENAME:
+         case ORIGINAL_LYRICIST:
+         case ORIGINAL_ARTIST:
+         case ORIGINAL_RELEASE_YEAR:
+         case FILE_OWNER:
+         case LEAD_PERFORMER:
+         case BAND:
+         case CONDUCTOR:
+         case INTERPRETED_MODIFIED_BY:
+         case PART_OF_A_SET:
+         case PUBLISHER:
+         case TRACK_NUMBER:
+         case RECORDING_DATES:
+         case INTERNET_RADIO_STATION_NAME:
+         case INTERNET_RADIO_STATION_OWNER:
+         case SIZE:
+         case INTERNATIONAL_STANDARD_RECORDING_CODE:
+         case SOFTWARE_HARDWARE_ENCODING_SETTINGS:
+         case YEAR:                                     return new ID3v23FrameBodyTextInformation(inputStream, frameType, frameBodySize);
+         case USER_DEFINED_TEXT_INFORMATION:            return new ID3v23FrameBodyUserDefinedTextInformation(inputStream, frameBodySize);
+         case UNIQUE_FILE_IDENTIFIER:                   return new ID3v23FrameBodyUniqueFileIdentifier(inputStream, frameBodySize);
+         case TERMS_OF_USE:                             return new ID3v23FrameBodyTermsOfUse(inputStream, frameBodySize);
+         case UNSYCHRONIZED_LYRICS:                     return new ID3v23FrameBodyUnsynchronizedLyrics(inputStream, frameBodySize);
+         case COMMERCIAL_INFORMATION:
+         case COPYRIGHT_LEGAL_INFORMATION:
+         case OFFICIAL_AUDIO_FILE_WEBPAGE:
+         case OFFICIAL_ARTIST_WEBPAGE:
+         case OFFICIAL_AUDIO_SOURCE_WEBPAGE:
+         case OFFICIAL_INTERNET_RADIO_STATION_HOMEPAGE:
+         case PAYMENT:
+         case PUBLISHERS_OFFICIAL_WEBPAGE:              return new ID3v23FrameBodyURLLink(inputStream, frameType, frameBodySize);
+         case USER_DEFINED_URL_LINK_FRAME:              return new ID3v23FrameBodyUserDefinedURLLink(inputStream, frameBodySize);
+      }
+      throw new IllegalArgumentException("Invalid frame type " + frameType + ".");
+   }
+}
@@ -130,7 +130,7 @@ public class ID3v23FrameBodyLinkedInformation extends ID3v23FrameBody
    @Override
    public void parse() throws IllegalArgumentException
    {
-      setLinkedFrameType(FrameType.getFrameType(new String(buffer, 0, FrameType.FRAME_ID_LENGTH, Encoding.ISO_8859_1.getCharacterSet())));
+      setLinkedFrameType(FrameType.getFrameType(((buffer[0] & 0xFF) << 24) + ((buffer[1] & 0xFF) << 16) + ((buffer[2] & 0xFF) << 8) + (buffer[3] & 0xFF)));
       nullTerminatorIndex = getNextNullTerminator(FrameType.FRAME_ID_LENGTH, Encoding.ISO_8859_1.getCharacterSet());
       setURL(new String(buffer, FrameType.FRAME_ID_LENGTH, nullTerminatorIndex - FrameType.FRAME_ID_LENGTH, Encoding.ISO_8859_1.getCharacterSet()).trim());
       nullTerminatorIndex +=  Encoding.ISO_8859_1.getNumBytesInNullTerminator();
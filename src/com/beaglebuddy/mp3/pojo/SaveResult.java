@@ -0,0 +1,103 @@
+package com.beaglebuddy.mp3.pojo;
+
+
+/**
+ * <table class="logos_width">
+ *    <tbody>
+ *       <tr>
+ *          <td                               ><img src="../../../../resources/id3v2.gif"                     width="56"  height="54"  alt="ID3 logo"        /></td>
+ *          <td class="logos_horz_align_right"><img src="../../../../resources/beaglebuddy_software_logo.gif" width="340" height="110" alt="Beaglebuddy logo"/></td>
+ *       </tr>
+ *    </tbody>
+ * </table>
+ * A SaveResult describes what happened when an ID3v2.3 tag was saved to an .mp3 file.  It contains the following fields.
+ * <p class="beaglebuddy">
+ * <table class="beaglebuddy">
+ *    <caption><b>Save Result Fields</b></caption>
+ *    <thead>
+ *       <tr><th class="beaglebuddy">&nbsp;</th><th class="beaglebuddy">Field</th><th class="beaglebuddy">Description</th></tr>
+ *    </thead>
+ *    <tbody>
+ *       <tr><td class="beaglebuddy">1. </td><td class="beaglebuddy">rewritten  </td><td class="beaglebuddy">whether the whole .mp3 file had to be rewritten, or the tag fit in the space of the old one.</td></tr>
+ *       <tr><td class="beaglebuddy">2. </td><td class="beaglebuddy">tagSize    </td><td class="beaglebuddy">size (in bytes) of the ID3v2.3 tag, including its padding, that was written.               </td></tr>
+ *       <tr><td class="beaglebuddy">3. </td><td class="beaglebuddy">audioSize  </td><td class="beaglebuddy">number of audio bytes copied to the new .mp3 file.  0 if the file was not rewritten.        </td></tr>
+ *       <tr><td class="beaglebuddy">4. </td><td class="beaglebuddy">elapsedTime</td><td class="beaglebuddy">time (in nanoseconds) it took to save the tag and, if needed, copy the audio.              </td></tr>
+ *    </tbody>
+ * </table>
+ * </p>
+ */
+public class SaveResult
+{
+   // data members
+   private boolean rewritten;         // whether the whole .mp3 file was rewritten
+   private long    tagSize;           // size (in bytes) of the ID3v2.3 tag that was written
+   private long    audioSize;         // number of audio bytes copied to the new .mp3 file
+   private long    elapsedTime;       // time (in nanoseconds) it took to save the .mp3 file
+
+
+
+   /**
+    * constructor.
+    * @param rewritten     whether the whole .mp3 file was rewritten.
+    * @param tagSize       size (in bytes) of the ID3v2.3 tag that was written.
+    * @param audioSize     number of audio bytes copied to the new .mp3 file.
+    * @param elapsedTime   time (in nanoseconds) it took to save the .mp3 file.
+    */
+   public SaveResult(boolean rewritten, long tagSize, long audioSize, long elapsedTime)
+   {
+      this.rewritten   = rewritten;
+      this.tagSize     = tagSize;
+      this.audioSize   = audioSize;
+      this.elapsedTime = elapsedTime;
+   }
+
+   /**
+    * @return whether the whole .mp3 file had to be rewritten because the new ID3v2.3 tag did not fit in the space of the old one.
+    */
+   public boolean isRewritten()
+   {
+      return rewritten;
+   }
+
+   /**
+    * @return the size (in bytes) of the ID3v2.3 tag, including its padding, that was written to the .mp3 file.
+    */
+   public long getTagSize()
+   {
+      return tagSize;
+   }
+
+   /**
+    * @return the number of audio bytes copied to the new .mp3 file.
+    */
+   public long getAudioSize()
+   {
+      return audioSize;
+   }
+
+   /**
+    * @return the time (in nanoseconds) it took to save the .mp3 file.
+    */
+   public long getElapsedTime()
+   {
+      return elapsedTime;
+   }
+
+   /**
+    * @return the number of bytes (tag and audio) written per second, or 0 if the save took no measurable time.
+    */
+   public double getThroughput()
+   {
+      return elapsedTime == 0 ? 0 : (tagSize + audioSize) * 1000000000.0 / elapsedTime;
+   }
+
+   /**
+    * @return a string representation of the save result.
+    */
+   @Override
+   public String toString()
+   {
+      return (rewritten ? "rewrote " : "updated ") + (tagSize + audioSize) + " bytes in " + (elapsedTime / 1000000) + " ms (" +
+             String.format("%.1f", getThroughput() / (1024 * 1024)) + " MiB/s)";
+   }
+}
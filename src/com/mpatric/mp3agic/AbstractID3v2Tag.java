@@ -231,9 +231,8 @@ public abstract class AbstractID3v2Tag implements ID3v2 {
 				while (frameIterator.hasNext()) {
 					ID3v2Frame frame = (ID3v2Frame) frameIterator.next();
 					if (frame.getDataLength() > 0) {
-						byte[] frameData = frame.toBytes();
-						BufferTools.copyIntoByteBuffer(frameData, 0, frameData.length, bytes, offset);
-						offset += frameData.length;
+						frame.packFrame(bytes, offset);
+						offset += frame.getLength();
 					}
 				}
 			}
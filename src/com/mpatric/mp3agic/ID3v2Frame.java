@@ -23,6 +23,8 @@ public class ID3v2Frame {
 	protected String id;
 	protected int dataLength = 0;
 	protected byte[] data = null;
+	private byte[] buffer = null;
+	private int dataOffset;
 	private boolean preserveTag = false;
 	private boolean preserveFile = false;
 	private boolean readOnly = false;
@@ -45,7 +47,11 @@ public class ID3v2Frame {
 	protected void unpackFrame(byte[] buffer, int offset) throws InvalidDataException {
 		int dataOffset = unpackHeader(buffer, offset);
 		sanityCheckUnpackedHeader();
-		data = BufferTools.copyBuffer(buffer, dataOffset, dataLength);
+		if (dataLength < 0 || dataLength > buffer.length - dataOffset) {
+			throw new ArrayIndexOutOfBoundsException("Frame " + id + " extends beyond end of tag");
+		}
+		this.buffer = buffer;
+		this.dataOffset = dataOffset;
 	}
 
 	protected int unpackHeader(byte[] buffer, int offset) {
@@ -90,16 +96,20 @@ public class ID3v2Frame {
 	
 	public void packFrame(byte[] bytes, int offset) throws NotSupportedException {
 		packHeader(bytes, offset);
-		BufferTools.copyIntoByteBuffer(data, 0, data.length, bytes, offset + HEADER_LENGTH);
+		if (data == null && buffer != null) {
+			BufferTools.copyIntoByteBuffer(buffer, dataOffset, dataLength, bytes, offset + HEADER_LENGTH);
+		} else {
+			BufferTools.copyIntoByteBuffer(data, 0, data.length, bytes, offset + HEADER_LENGTH);
+		}
 	}
 
 	private void packHeader(byte[] bytes, int i) {
 		try {
-			BufferTools.stringIntoByteBuffer(id, 0, id.length(), bytes, 0);
+			BufferTools.stringIntoByteBuffer(id, 0, id.length(), bytes, i);
 		} catch (UnsupportedEncodingException e) {
 		}
-		BufferTools.copyIntoByteBuffer(packDataLength(), 0, 4, bytes, 4);
-		BufferTools.copyIntoByteBuffer(packFlags(), 0, 2, bytes, 8);
+		BufferTools.copyIntoByteBuffer(packDataLength(), 0, 4, bytes, i + 4);
+		BufferTools.copyIntoByteBuffer(packFlags(), 0, 2, bytes, i + 8);
 	}
 
 	protected byte[] packDataLength() {
@@ -132,11 +142,16 @@ public class ID3v2Frame {
 	}
 
 	public byte[] getData() {
+		if (data == null && buffer != null) {
+			data = BufferTools.copyBuffer(buffer, dataOffset, dataLength);
+			buffer = null;
+		}
 		return data;
 	}
 	
 	public void setData(byte[] data) {
 		this.data = data;
+		buffer = null;
 		if (data == null) dataLength = 0;
 		else dataLength = data.length;
 	}
@@ -190,10 +205,12 @@ public class ID3v2Frame {
 			if (other.id != null) return false;
 		} else if (other.id == null) return false;
 		else if (! id.equals(other.id)) return false;
+		byte[] data = getData();
+		byte[] otherData = other.getData();
 		if (data == null) {
-			if (other.data != null) return false;
-		} else if (other.data == null) return false;
-		else if (! Arrays.equals(data, other.data)) return false; 
+			if (otherData != null) return false;
+		} else if (otherData == null) return false;
+		else if (! Arrays.equals(data, otherData)) return false; 
 		return true;
 	}
 }
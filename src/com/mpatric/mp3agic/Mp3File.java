@@ -2,24 +2,54 @@ package com.mpatric.mp3agic;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 public class Mp3File extends FileWrapper {
 
-	private static final int DEFAULT_BUFFER_LENGTH = 65536;
+	public static final int DEFAULT_BUFFER_LENGTH = 65536;
 	private static final int MINIMUM_BUFFER_LENGTH = 40;
 	private static final int XING_MARKER_OFFSET_1 = 13;
 	private static final int XING_MARKER_OFFSET_2 = 21;
 	private static final int XING_MARKER_OFFSET_3 = 36;
+	private static final int XING_FLAG_FRAMES = 0x1;
+	private static final int XING_FLAG_BYTES = 0x2;
+	private static final int XING_FLAG_TOC = 0x4;
+	private static final int XING_TOC_LENGTH = 100;
+	private static final int VBRI_MARKER_OFFSET = 36;
+	private static final int VBRI_BYTES_OFFSET = 10;
+	private static final int VBRI_FRAMES_OFFSET = 14;
+	public static final int MAXIMUM_PROBE_FRAMES = 100;
+	public static final int MAPPED_WINDOW_LENGTH = 64 * 1024 * 1024;
+	public static final int UPDATE_PADDING_LENGTH = 2048;
+	private static final String XING = "Xing";
+	private static final String INFO = "Info";
+	private static final String VBRI = "VBRI";
+	// every mpeg bitrate is a multiple of 8 kbps, the highest is 448 kbps
+	private static final int BITRATE_STEP = 8;
+	private static final int BITRATE_SLOTS = 448 / BITRATE_STEP + 1;
 
 	protected int bufferLength;
-	private int xingOffset = -1;
-	private int startOffset = -1;
-	private int endOffset = -1;
+	private long xingOffset = -1;
+	private long startOffset = -1;
+	private long endOffset = -1;
 	private int frameCount = 0;
-	private Map<Integer, MutableInteger> bitrates = new HashMap<Integer, MutableInteger>();
+	private int[] bitrateCounts = new int[BITRATE_SLOTS];
+	private int bitrateVariants = 0;
+	private int startHeader;
 	private int xingBitrate;
+	private String xingType;
+	private int xingFrameCount = -1;
+	private long xingByteCount = -1;
+	private byte[] xingToc;
+	private long lengthInMilliseconds = -1;
 	private double bitrate = 0;
 	private String channelMode;
 	private String emphasis;
@@ -32,7 +62,12 @@ public class Mp3File extends FileWrapper {
 	private ID3v1 id3v1Tag;
 	private ID3v2 id3v2Tag;
 	private byte[] customTag;
+	private boolean id3v1TagInFile;
+	private byte[] customTagInFile;
 	private boolean scanFile;
+	private boolean readTags;
+	private boolean probe;
+	private boolean mapFile;
 	
 	protected Mp3File() {
 	}
@@ -50,10 +85,34 @@ public class Mp3File extends FileWrapper {
 	}
 	
 	public Mp3File(String filename, int bufferLength, boolean scanFile) throws IOException, UnsupportedTagException, InvalidDataException {		
+		this(filename, bufferLength, scanFile, true);
+	}
+
+	public Mp3File(String filename, int bufferLength, boolean scanFile, boolean readTags) throws IOException, UnsupportedTagException, InvalidDataException {
+		this(filename, bufferLength, scanFile, readTags, false);
+	}
+
+	/**
+	 * With probe set frame count, bitrate and length are taken from the Xing/Info or VBRI header when the file
+	 * has one, otherwise they are estimated from the first MAXIMUM_PROBE_FRAMES frames. The file is never scanned
+	 * to the end, so the end offset is the end of the file (less the ID3v1 tag) and no custom tag is read.
+	 */
+	public Mp3File(String filename, int bufferLength, boolean scanFile, boolean readTags, boolean probe) throws IOException, UnsupportedTagException, InvalidDataException {
+		this(filename, bufferLength, scanFile, readTags, probe, false);
+	}
+
+	/**
+	 * With mapFile set the file is scanned straight over memory mapped windows of MAPPED_WINDOW_LENGTH bytes
+	 * instead of being copied into a bufferLength heap buffer block by block.
+	 */
+	public Mp3File(String filename, int bufferLength, boolean scanFile, boolean readTags, boolean probe, boolean mapFile) throws IOException, UnsupportedTagException, InvalidDataException {
 		super(filename);
 		if (bufferLength < MINIMUM_BUFFER_LENGTH + 1) throw new IllegalArgumentException("Buffer too small");
 		this.bufferLength = bufferLength;
 		this.scanFile = scanFile;
+		this.readTags = readTags;
+		this.probe = scanFile && probe;
+		this.mapFile = mapFile;
 		init();
 	}
 
@@ -65,9 +124,11 @@ public class Mp3File extends FileWrapper {
 			if (startOffset < 0) {
 				throw new InvalidDataException("No mpegs frames found");
 			}
-			initId3v2Tag(file);
-			if (scanFile) {
-				initCustomTag(file);
+			if (readTags) {
+				initId3v2Tag(file);
+				if (scanFile && !probe) {
+					initCustomTag(file);
+				}
 			}
 		} finally {
 			file.close();
@@ -96,39 +157,67 @@ public class Mp3File extends FileWrapper {
 	}
 
 	private void scanFile(RandomAccessFile file) throws IOException, InvalidDataException {
-		byte[] bytes = new byte[bufferLength];
-		int fileOffset = preScanFile(file);
-		file.seek(fileOffset);
+		byte[] bytes = mapFile ? null : new byte[bufferLength];
+		FileChannel channel = file.getChannel();
+		MappedByteBuffer window = null;
+		long windowOffset = 0;
+		long fileOffset = preScanFile(file);
 		boolean lastBlock = false;
-		int lastOffset = fileOffset;
+		long lastOffset = fileOffset;
 		while (!lastBlock) {
-			int bytesRead = file.read(bytes, 0, bufferLength);
-			if (bytesRead < bufferLength) lastBlock = true;
+			ByteBuffer block;
+			if (mapFile) {
+				long windowLength = Math.min(MAPPED_WINDOW_LENGTH, getLength() - fileOffset);
+				if (windowLength <= 0) break;
+				long windowEnd = window == null ? -1 : windowOffset + window.limit();
+				if (window == null || fileOffset < windowOffset || (windowEnd < getLength() && windowEnd - fileOffset < MAPPED_WINDOW_LENGTH / 2)) {
+					window = channel.map(FileChannel.MapMode.READ_ONLY, fileOffset, windowLength);
+					windowOffset = fileOffset;
+				}
+				window.position((int)(fileOffset - windowOffset));
+				block = window.slice();
+			} else {
+				file.seek(fileOffset);
+				int bytesRead = file.read(bytes, 0, bufferLength);
+				block = ByteBuffer.wrap(bytes, 0, Math.max(bytesRead, 0));
+			}
+			int bytesRead = block.limit();
+			if (fileOffset + bytesRead >= getLength()) lastBlock = true;
 			if (bytesRead >= MINIMUM_BUFFER_LENGTH) {
 				while (true) {
 					try {
 						int offset = 0;
 						if (startOffset < 0) {
-							offset = scanBlockForStart(bytes, bytesRead, fileOffset, offset);
+							offset = scanBlockForStart(block, bytesRead, fileOffset, offset);
 							if (startOffset >= 0 && ! scanFile) {
 								return;
 							}
+							if (startOffset >= 0 && probe && probeXingFrame()) {
+								return;
+							}
 							lastOffset = startOffset;
 						}
-						offset = scanBlock(bytes, bytesRead, fileOffset, offset);
+						offset = scanBlock(block, bytesRead, fileOffset, offset);
 						fileOffset += offset;
-						file.seek(fileOffset);
+						if (probe && frameCount >= MAXIMUM_PROBE_FRAMES) {
+							probeFrames();
+							return;
+						}
 						break;
 					} catch (InvalidDataException e) {
 						if (frameCount < 2) {
 							startOffset = -1;
 							xingOffset = -1;
+							xingType = null;
+							xingFrameCount = -1;
+							xingByteCount = -1;
+							xingToc = null;
 							frameCount = 0;
-							bitrates.clear();
+							Arrays.fill(bitrateCounts, 0);
+							bitrateVariants = 0;
 							lastBlock = false;
 							fileOffset = lastOffset + 1;
 							if (fileOffset == 0) throw new InvalidDataException("Valid start of mpeg frames not found", e);
-							file.seek(fileOffset);
 							break;
 						}
 						return;
@@ -138,17 +227,20 @@ public class Mp3File extends FileWrapper {
 		}
 	}
 
-	private int scanBlockForStart(byte[] bytes, int bytesRead, int absoluteOffset, int offset) {
+	private int scanBlockForStart(ByteBuffer bytes, int bytesRead, long absoluteOffset, int offset) {
 		while (offset < bytesRead - MINIMUM_BUFFER_LENGTH) {
-			if (bytes[offset] == (byte)0xFF && (bytes[offset + 1] & (byte)0xE0) == (byte)0xE0) {
-				try {
-					MpegFrame frame = new MpegFrame(bytes[offset], bytes[offset + 1], bytes[offset + 2], bytes[offset + 3]);
-					if (xingOffset < 0 && isXingFrame(bytes, offset)) {
-						xingOffset = absoluteOffset + offset;
-						xingBitrate = frame.getBitrate();
-						offset += frame.getLengthInBytes();
-					} else {
-						startOffset = absoluteOffset + offset;
+			if (bytes.get(offset) == (byte)0xFF && (bytes.get(offset + 1) & (byte)0xE0) == (byte)0xE0) {
+				int frameHeader = bytes.getInt(offset);
+				if (! MpegFrame.isValidHeader(frameHeader)) {
+					offset++;
+				} else if (xingOffset < 0 && isXingFrame(bytes, offset)) {
+					xingOffset = absoluteOffset + offset;
+					xingBitrate = MpegFrame.getBitrate(frameHeader);
+					initXingHeader(bytes, bytesRead, offset);
+					offset += MpegFrame.getLengthInBytes(frameHeader);
+				} else {
+					try {
+						MpegFrame frame = new MpegFrame(bytes.get(offset), bytes.get(offset + 1), bytes.get(offset + 2), bytes.get(offset + 3));
 						channelMode = frame.getChannelMode();
 						emphasis = frame.getEmphasis();
 						layer = frame.getLayer();
@@ -157,13 +249,16 @@ public class Mp3File extends FileWrapper {
 						version = frame.getVersion();
 						copyright = frame.isCopyright();
 						original = frame.isOriginal();
-						frameCount++;
-						addBitrate(frame.getBitrate());
-						offset += frame.getLengthInBytes();
-						return offset;
+					} catch (InvalidDataException e) {
+						offset++;
+						continue;
 					}
-				} catch (InvalidDataException e) {
-					offset++;
+					startOffset = absoluteOffset + offset;
+					startHeader = frameHeader;
+					frameCount++;
+					addBitrate(MpegFrame.getBitrate(frameHeader));
+					offset += MpegFrame.getLengthInBytes(frameHeader);
+					return offset;
 				}
 			} else {
 				offset++;
@@ -172,16 +267,18 @@ public class Mp3File extends FileWrapper {
 		return offset;
 	}
 	
-	private int scanBlock(byte[] bytes, int bytesRead, int absoluteOffset, int offset) throws InvalidDataException {
-		while (offset < bytesRead - MINIMUM_BUFFER_LENGTH) {
-			MpegFrame frame = new MpegFrame(bytes[offset], bytes[offset + 1], bytes[offset + 2], bytes[offset + 3]);
-			sanityCheckFrame(frame, absoluteOffset + offset);
-			int newEndOffset = absoluteOffset + offset + frame.getLengthInBytes() - 1;
-			if (newEndOffset < maxEndOffset()) {
-				endOffset = absoluteOffset + offset + frame.getLengthInBytes() - 1;
+	private int scanBlock(ByteBuffer bytes, int bytesRead, long absoluteOffset, int offset) throws InvalidDataException {
+		long maxEndOffset = maxEndOffset();
+		while (offset < bytesRead - MINIMUM_BUFFER_LENGTH && !(probe && frameCount >= MAXIMUM_PROBE_FRAMES)) {
+			int frameHeader = bytes.getInt(offset);
+			sanityCheckFrame(frameHeader, absoluteOffset + offset);
+			int lengthInBytes = MpegFrame.getLengthInBytes(frameHeader);
+			long newEndOffset = absoluteOffset + offset + lengthInBytes - 1;
+			if (newEndOffset < maxEndOffset) {
+				endOffset = newEndOffset;
 				frameCount++;
-				addBitrate(frame.getBitrate());
-				offset += frame.getLengthInBytes();
+				addBitrate(MpegFrame.getBitrate(frameHeader));
+				offset += lengthInBytes;
 			} else {
 				break;
 			}
@@ -189,43 +286,107 @@ public class Mp3File extends FileWrapper {
 		return offset;
 	}
 
-	private int maxEndOffset() {
-		int maxEndOffset = (int)getLength();
+	private long maxEndOffset() {
+		long maxEndOffset = getLength();
 		if (hasId3v1Tag()) maxEndOffset -= ID3v1Tag.TAG_LENGTH;
 		return maxEndOffset;
 	}
 
-	private boolean isXingFrame(byte[] bytes, int offset) {
-		if (bytes.length >= offset + XING_MARKER_OFFSET_1 + 3) {
-			if ("Xing".equals(BufferTools.byteBufferToStringIgnoringEncodingIssues(bytes, offset + XING_MARKER_OFFSET_1, 4))) return true;
-			if ("Info".equals(BufferTools.byteBufferToStringIgnoringEncodingIssues(bytes, offset + XING_MARKER_OFFSET_1, 4))) return true;
-			if (bytes.length >= offset + XING_MARKER_OFFSET_2 + 3) {
-				if ("Xing".equals(BufferTools.byteBufferToStringIgnoringEncodingIssues(bytes, offset + XING_MARKER_OFFSET_2, 4))) return true;
-				if ("Info".equals(BufferTools.byteBufferToStringIgnoringEncodingIssues(bytes, offset + XING_MARKER_OFFSET_2, 4))) return true;
-				if (bytes.length >= offset + XING_MARKER_OFFSET_3 + 3) {
-					if ("Xing".equals(BufferTools.byteBufferToStringIgnoringEncodingIssues(bytes, offset + XING_MARKER_OFFSET_3, 4))) return true;
-					if ("Info".equals(BufferTools.byteBufferToStringIgnoringEncodingIssues(bytes, offset + XING_MARKER_OFFSET_3, 4))) return true;
+	private boolean isXingFrame(ByteBuffer bytes, int offset) {
+		if (bytes.limit() >= offset + XING_MARKER_OFFSET_1 + 4) {
+			if (isMarker(bytes, offset + XING_MARKER_OFFSET_1, XING)) return true;
+			if (isMarker(bytes, offset + XING_MARKER_OFFSET_1, INFO)) return true;
+			if (bytes.limit() >= offset + XING_MARKER_OFFSET_2 + 4) {
+				if (isMarker(bytes, offset + XING_MARKER_OFFSET_2, XING)) return true;
+				if (isMarker(bytes, offset + XING_MARKER_OFFSET_2, INFO)) return true;
+				if (bytes.limit() >= offset + XING_MARKER_OFFSET_3 + 4) {
+					if (isMarker(bytes, offset + XING_MARKER_OFFSET_3, XING)) return true;
+					if (isMarker(bytes, offset + XING_MARKER_OFFSET_3, INFO)) return true;
+					if (isMarker(bytes, offset + VBRI_MARKER_OFFSET, VBRI)) return true;
 				}
 			}
 		}
 		return false;
 	}
+
+	private static boolean isMarker(ByteBuffer bytes, int offset, String marker) {
+		for (int i = 0; i < marker.length(); i++) {
+			if (bytes.get(offset + i) != marker.charAt(i)) return false;
+		}
+		return true;
+	}
+
+	private void initXingHeader(ByteBuffer bytes, int bytesRead, int offset) {
+		int[] markerOffsets = {XING_MARKER_OFFSET_1, XING_MARKER_OFFSET_2, XING_MARKER_OFFSET_3};
+		for (int markerOffset : markerOffsets) {
+			int position = offset + markerOffset;
+			if (position + 8 > bytesRead) return;
+			if (isMarker(bytes, position, XING) || isMarker(bytes, position, INFO)) {
+				xingType = isMarker(bytes, position, XING) ? XING : INFO;
+				int flags = bytes.getInt(position + 4);
+				position += 8;
+				if ((flags & XING_FLAG_FRAMES) != 0) {
+					if (position + 4 > bytesRead) return;
+					xingFrameCount = bytes.getInt(position);
+					position += 4;
+				}
+				if ((flags & XING_FLAG_BYTES) != 0) {
+					if (position + 4 > bytesRead) return;
+					xingByteCount = bytes.getInt(position) & 0xFFFFFFFFL;
+					position += 4;
+				}
+				if ((flags & XING_FLAG_TOC) != 0 && position + XING_TOC_LENGTH <= bytesRead) {
+					xingToc = new byte[XING_TOC_LENGTH];
+					for (int i = 0; i < XING_TOC_LENGTH; i++) xingToc[i] = bytes.get(position + i);
+				}
+				return;
+			}
+		}
+		int position = offset + VBRI_MARKER_OFFSET;
+		if (position + VBRI_FRAMES_OFFSET + 4 > bytesRead) return;
+		if (isMarker(bytes, position, VBRI)) {
+			xingType = VBRI;
+			xingByteCount = bytes.getInt(position + VBRI_BYTES_OFFSET) & 0xFFFFFFFFL;
+			xingFrameCount = bytes.getInt(position + VBRI_FRAMES_OFFSET);
+		}
+	}
+
+	private boolean probeXingFrame() {
+		if (xingFrameCount <= 0 || sampleRate <= 0) return false;
+		long streamStart = hasXingFrame() ? xingOffset : startOffset;
+		long streamLength = xingByteCount > 0 ? xingByteCount : maxEndOffset() - streamStart;
+		endOffset = Math.min(streamStart + streamLength, maxEndOffset()) - 1;
+		frameCount = xingFrameCount;
+		lengthInMilliseconds = (long)(((double)xingFrameCount * getSamplesPerFrame() * 1000) / sampleRate + 0.5);
+		if (!isXingVbr()) return true;
+		if (lengthInMilliseconds > 0) bitrate = (8.0 * (endOffset - startOffset + 1)) / lengthInMilliseconds;
+		return true;
+	}
+
+	private void probeFrames() {
+		long sampledLength = endOffset - startOffset + 1;
+		endOffset = maxEndOffset() - 1;
+		if (sampledLength > 0) {
+			frameCount = (int)((frameCount * (endOffset - startOffset + 1)) / sampledLength);
+		}
+	}
+
+	private int getSamplesPerFrame() {
+		return MpegFrame.getSamplesPerFrame(startHeader);
+	}
+
+	private boolean isXingVbr() {
+		return XING.equals(xingType) || VBRI.equals(xingType);
+	}
 	
-	private void sanityCheckFrame(MpegFrame frame, int offset) throws InvalidDataException {
-		if (sampleRate != frame.getSampleRate()) throw new InvalidDataException("Inconsistent frame header");
-		if (! layer.equals(frame.getLayer())) throw new InvalidDataException("Inconsistent frame header");
-		if (! version.equals(frame.getVersion())) throw new InvalidDataException("Inconsistent frame header");
-		if (offset + frame.getLengthInBytes() > getLength()) throw new InvalidDataException("Frame would extend beyond end of file");
+	private void sanityCheckFrame(int frameHeader, long offset) throws InvalidDataException {
+		if (! MpegFrame.isValidHeader(frameHeader)) throw new InvalidDataException("Invalid frame header");
+		if (! MpegFrame.isSameStream(startHeader, frameHeader)) throw new InvalidDataException("Inconsistent frame header");
+		if (offset + MpegFrame.getLengthInBytes(frameHeader) > getLength()) throw new InvalidDataException("Frame would extend beyond end of file");
 	}
 	
 	private void addBitrate(int bitrate) {
-		Integer key = new Integer(bitrate);
-		MutableInteger count = bitrates.get(key);
-		if (count != null) {
-			count.increment();
-		} else {
-			bitrates.put(key, new MutableInteger(1));
-		}
+		if (bitrateCounts[bitrate / BITRATE_STEP]++ == 0) bitrateVariants++;
 		this.bitrate = ((this.bitrate * (frameCount - 1)) + bitrate) / frameCount;
 	}
 	
@@ -239,6 +400,7 @@ public class Mp3File extends FileWrapper {
 		} catch (NoSuchTagException e) {
 			id3v1Tag = null;
 		}
+		id3v1TagInFile = id3v1Tag != null;
 	}
 	
 	private void initId3v2Tag(RandomAccessFile file) throws IOException, UnsupportedTagException, InvalidDataException {
@@ -246,8 +408,8 @@ public class Mp3File extends FileWrapper {
 			id3v2Tag = null;
 		} else {
 			int bufferLength;
-			if (hasXingFrame()) bufferLength = xingOffset;
-			else bufferLength = startOffset;
+			if (hasXingFrame()) bufferLength = (int)xingOffset;
+			else bufferLength = (int)startOffset;
 			byte[] bytes = new byte[bufferLength];
 			file.seek(0);
 			int bytesRead = file.read(bytes, 0, bufferLength);
@@ -272,21 +434,23 @@ public class Mp3File extends FileWrapper {
 			int bytesRead = file.read(customTag, 0, bufferLength);
 			if (bytesRead < bufferLength) throw new IOException("Not enough bytes read");
 		}
+		customTagInFile = customTag;
 	}
 
 	public int getFrameCount() {
 		return frameCount;
 	}
 
-	public int getStartOffset() {
+	public long getStartOffset() {
 		return startOffset;
 	}
 	
-	public int getEndOffset() {
+	public long getEndOffset() {
 		return endOffset;
 	}
 
 	public long getLengthInMilliseconds() {
+		if (lengthInMilliseconds >= 0) return lengthInMilliseconds;
 		double d = 8 * (endOffset - startOffset); 
 		return (long)((d / bitrate) + 0.5); 
 	}
@@ -296,7 +460,8 @@ public class Mp3File extends FileWrapper {
 	}
 	
 	public boolean isVbr() {
-		return bitrates.size() > 1;
+		if (probe && xingType != null && xingFrameCount > 0) return isXingVbr();
+		return bitrateVariants > 1;
 	}
 	
 	public int getBitrate() {
@@ -304,6 +469,12 @@ public class Mp3File extends FileWrapper {
 	}
 	
 	public Map<Integer, MutableInteger> getBitrates() {
+		Map<Integer, MutableInteger> bitrates = new HashMap<Integer, MutableInteger>();
+		for (int slot = 0; slot < BITRATE_SLOTS; slot++) {
+			if (bitrateCounts[slot] > 0) {
+				bitrates.put(slot * BITRATE_STEP, new MutableInteger(bitrateCounts[slot]));
+			}
+		}
 		return bitrates;
 	}
 
@@ -343,13 +514,36 @@ public class Mp3File extends FileWrapper {
 		return (xingOffset >= 0);
 	}
 
-	public int getXingOffset() {
+	public long getXingOffset() {
 		return xingOffset;
 	}
 	
 	public int getXingBitrate() {
 		return xingBitrate;
 	}
+
+	/**
+	 * @return "Xing", "Info" or "VBRI", null if there is no such header
+	 */
+	public String getXingType() {
+		return xingType;
+	}
+
+	public int getXingFrameCount() {
+		return xingFrameCount;
+	}
+
+	public long getXingByteCount() {
+		return xingByteCount;
+	}
+
+	public byte[] getXingToc() {
+		return xingToc;
+	}
+
+	public boolean isProbed() {
+		return probe;
+	}
 	
 	public boolean hasId3v1Tag() {
 		return id3v1Tag != null;
@@ -399,48 +593,117 @@ public class Mp3File extends FileWrapper {
 		this.customTag = null;
 	}
 	
-	public void save(String newFilename) throws IOException, NotSupportedException {
+	public SaveResult save(String newFilename) throws IOException, NotSupportedException {
 		if (filename.compareToIgnoreCase(newFilename) == 0) {
 			throw new IllegalArgumentException("Save filename same as source filename");
 		}
+		return save(newFilename, hasId3v2Tag() ? id3v2Tag.toBytes() : null);
+	}
+
+	/**
+	 * Saves the tags back to this file. When the new ID3v2 tag fits in the space before the first mpeg frame it is
+	 * written over the old one, padded to fill that space, and the audio is not touched. Otherwise the file is
+	 * rewritten through a temporary file with UPDATE_PADDING_LENGTH bytes of padding for later updates.
+	 */
+	public SaveResult update() throws IOException, NotSupportedException {
+		long startTime = System.nanoTime();
+		long audioStart = hasXingFrame() ? xingOffset : startOffset;
+		byte[] tagBytes = hasId3v2Tag() ? id3v2Tag.toBytes() : null;
+		if (tagBytes != null && !id3v2Tag.hasFooter() && tagBytes.length <= audioStart
+				&& hasId3v1Tag() == id3v1TagInFile && customTag == customTagInFile) {
+			long tagBytesWritten = 0;
+			RandomAccessFile file = new RandomAccessFile(filename, "rw");
+			try {
+				FileChannel channel = file.getChannel();
+				tagBytesWritten += writeFully(channel, padTag(tagBytes, (int)audioStart), 0);
+				if (hasId3v1Tag()) {
+					tagBytesWritten += writeFully(channel, id3v1Tag.toBytes(), getLength() - ID3v1Tag.TAG_LENGTH);
+				}
+			} finally {
+				file.close();
+			}
+			lastModified = this.file.lastModified();
+			return new SaveResult(tagBytesWritten, 0, System.nanoTime() - startTime, true);
+		}
+
+		String tempFilename = filename + ".tmp";
+		if (tagBytes != null && !id3v2Tag.hasFooter()) {
+			tagBytes = padTag(tagBytes, tagBytes.length + UPDATE_PADDING_LENGTH);
+		}
+		SaveResult result = save(tempFilename, tagBytes);
+		Files.move(Paths.get(tempFilename), Paths.get(filename), StandardCopyOption.REPLACE_EXISTING);
+		long delta = (tagBytes == null ? 0 : tagBytes.length) - audioStart;
+		if (xingOffset >= 0) xingOffset += delta;
+		startOffset += delta;
+		endOffset += delta;
+		length = this.file.length();
+		lastModified = this.file.lastModified();
+		id3v1TagInFile = hasId3v1Tag();
+		customTagInFile = customTag;
+		return new SaveResult(result.getTagBytes(), result.getAudioBytes(), System.nanoTime() - startTime, false);
+	}
+
+	private static byte[] padTag(byte[] tagBytes, int length) {
+		if (tagBytes.length == length) return tagBytes;
+		byte[] bytes = new byte[length];
+		System.arraycopy(tagBytes, 0, bytes, 0, tagBytes.length);
+		BufferTools.packSynchsafeInteger(length - AbstractID3v2Tag.HEADER_LENGTH, bytes, AbstractID3v2Tag.DATA_LENGTH_OFFSET);
+		return bytes;
+	}
+
+	private static int writeFully(FileChannel channel, byte[] bytes, long position) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, position + buffer.position());
+		}
+		return bytes.length;
+	}
+
+	private SaveResult save(String newFilename, byte[] id3v2Bytes) throws IOException, NotSupportedException {
+		long startTime = System.nanoTime();
+		long tagBytes = 0;
+		long audioBytes;
 		RandomAccessFile saveFile = new RandomAccessFile(newFilename, "rw");
 		try {
-			if (hasId3v2Tag()) {
-				saveFile.write(id3v2Tag.toBytes());
+			if (id3v2Bytes != null) {
+				saveFile.write(id3v2Bytes);
+				tagBytes += id3v2Bytes.length;
 			}
-			saveMpegFrames(saveFile);
+			audioBytes = saveMpegFrames(saveFile);
 			if (hasCustomTag()) {
 				saveFile.write(customTag);
+				tagBytes += customTag.length;
 			}
 			if (hasId3v1Tag()) {
-				saveFile.write(id3v1Tag.toBytes());
+				byte[] bytes = id3v1Tag.toBytes();
+				saveFile.write(bytes);
+				tagBytes += bytes.length;
 			}
 		} finally {
 			saveFile.close();
 		}
+		return new SaveResult(tagBytes, audioBytes, System.nanoTime() - startTime);
 	}
 
-	private void saveMpegFrames(RandomAccessFile saveFile) throws IOException {
-		int filePos = xingOffset;
+	private long saveMpegFrames(RandomAccessFile saveFile) throws IOException {
+		long filePos = xingOffset;
 		if (filePos < 0) filePos = startOffset;
-		if (filePos < 0) return;
-		if (endOffset < filePos) return;
+		if (filePos < 0) return 0;
+		if (endOffset < filePos) return 0;
+		long length = endOffset - filePos + 1;
+		long transferred = 0;
+		FileChannel saveChannel = saveFile.getChannel();
 		RandomAccessFile file = new RandomAccessFile(filename, "r");
-		byte[] bytes = new byte[bufferLength];
 		try {
-			file.seek(filePos);
-			while (true) {
-				int bytesRead = file.read(bytes, 0, bufferLength);
-				if (filePos + bytesRead <= endOffset) {
-					saveFile.write(bytes, 0, bytesRead);
-					filePos += bytesRead;
-				} else {
-					saveFile.write(bytes, 0, endOffset - filePos + 1);
-					break;
-				}
+			FileChannel channel = file.getChannel();
+			while (transferred < length) {
+				long n = channel.transferTo(filePos + transferred, length - transferred, saveChannel);
+				if (n <= 0) break;
+				transferred += n;
 			}
 		} finally {
 			file.close();
 		}
+		return transferred;
 	}
 }
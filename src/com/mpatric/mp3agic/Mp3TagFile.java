@@ -0,0 +1,85 @@
+package com.mpatric.mp3agic;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Reads the ID3v2 tag at the start and the ID3v1 tag at the end of a file and nothing else: the ID3v2 header gives
+ * the exact size of the tag, so no MPEG frames are searched for. Use Mp3File when the audio stream is needed.
+ */
+public class Mp3TagFile extends FileWrapper {
+
+	private ID3v1 id3v1Tag;
+	private ID3v2 id3v2Tag;
+
+	public Mp3TagFile(String filename) throws IOException, UnsupportedTagException, InvalidDataException {
+		super(filename);
+		init();
+	}
+
+	private void init() throws IOException, UnsupportedTagException, InvalidDataException {
+		RandomAccessFile file = new RandomAccessFile(filename, "r");
+		try {
+			initId3v2Tag(file);
+			initId3v1Tag(file);
+		} finally {
+			file.close();
+		}
+	}
+
+	private void initId3v2Tag(RandomAccessFile file) throws IOException, UnsupportedTagException, InvalidDataException {
+		if (getLength() < AbstractID3v2Tag.HEADER_LENGTH) return;
+		byte[] header = new byte[AbstractID3v2Tag.HEADER_LENGTH];
+		file.readFully(header);
+		try {
+			ID3v2TagFactory.sanityCheckTag(header);
+		} catch (NoSuchTagException e) {
+			return;
+		}
+
+		int dataOffset = AbstractID3v2Tag.DATA_LENGTH_OFFSET;
+		long tagLength = AbstractID3v2Tag.HEADER_LENGTH + BufferTools.unpackSynchsafeInteger(header[dataOffset],
+				header[dataOffset + 1], header[dataOffset + 2], header[dataOffset + 3]);
+		if (header[AbstractID3v2Tag.MAJOR_VERSION_OFFSET] == 4 && (header[AbstractID3v2Tag.FLAGS_OFFSET] & (1 << AbstractID3v2Tag.FOOTER_BIT)) != 0) {
+			tagLength += AbstractID3v2Tag.FOOTER_LENGTH;
+		}
+		if (tagLength > getLength()) throw new InvalidDataException("Tag would extend beyond end of file");
+
+		byte[] bytes = new byte[(int)tagLength];
+		System.arraycopy(header, 0, bytes, 0, header.length);
+		file.readFully(bytes, header.length, bytes.length - header.length);
+		try {
+			id3v2Tag = ID3v2TagFactory.createTag(bytes);
+		} catch (NoSuchTagException e) {
+			id3v2Tag = null;
+		}
+	}
+
+	private void initId3v1Tag(RandomAccessFile file) throws IOException {
+		if (getLength() < ID3v1Tag.TAG_LENGTH) return;
+		byte[] bytes = new byte[ID3v1Tag.TAG_LENGTH];
+		file.seek(getLength() - ID3v1Tag.TAG_LENGTH);
+		file.readFully(bytes);
+		try {
+			id3v1Tag = new ID3v1Tag(bytes);
+		} catch (NoSuchTagException e) {
+			id3v1Tag = null;
+		}
+	}
+
+	public boolean hasId3v1Tag() {
+		return id3v1Tag != null;
+	}
+
+	public ID3v1 getId3v1Tag() {
+		return id3v1Tag;
+	}
+
+	public boolean hasId3v2Tag() {
+		return id3v2Tag != null;
+	}
+
+	public ID3v2 getId3v2Tag() {
+		return id3v2Tag;
+	}
+}
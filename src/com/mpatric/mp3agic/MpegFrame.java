@@ -41,6 +41,38 @@ public class MpegFrame {
 	private static final long BITMASK_COPYRIGHT = 0x8L;
 	private static final long BITMASK_ORIGINAL = 0x4L;
 	private static final long BITMASK_EMPHASIS = 0x3L;
+	private static final int BITMASK_STREAM = (int)(BITMASK_VERSION | BITMASK_LAYER | BITMASK_SAMPLE_RATE);
+
+	// lookup tables for decoding a header held in an int, see getBitrate(int), getSampleRate(int) and getLengthInBytes(int)
+	private static final int[] BITRATES = new int[256];
+	private static final int[] SAMPLE_RATES = new int[16];
+	private static final int[] LENGTHS_IN_BYTES = new int[1024];
+	private static final int[] SAMPLES_PER_FRAME = new int[16];
+
+	static {
+		for (int version = 0; version < 4; version++) {
+			for (int layer = 0; layer < 4; layer++) {
+				for (int bitrate = 0; bitrate < 16; bitrate++) {
+					for (int sampleRate = 0; sampleRate < 4; sampleRate++) {
+						MpegFrame frame = new MpegFrame();
+						try {
+							frame.setVersion(version);
+							frame.setLayer(layer);
+							frame.setBitRate(bitrate);
+							frame.setSampleRate(sampleRate);
+						} catch (InvalidDataException e) {
+							continue;
+						}
+						int key = (version << 2 | layer) << 4 | bitrate;
+						BITRATES[key] = frame.bitrate;
+						SAMPLE_RATES[version << 2 | sampleRate] = frame.sampleRate;
+						LENGTHS_IN_BYTES[key << 2 | sampleRate] = frame.getLengthInBytes();
+						SAMPLES_PER_FRAME[version << 2 | layer] = frame.getSamplesPerFrame();
+					}
+				}
+			}
+		}
+	}
 	
 	private String version;
 	private int layer;
@@ -69,6 +101,47 @@ public class MpegFrame {
 	protected MpegFrame() {
 	}
 
+	/**
+	 * Checks the same fields the constructors do, without creating a frame.
+	 */
+	public static boolean isValidHeader(int frameHeader) {
+		if ((frameHeader & BITMASK_FRAME_SYNC) != BITMASK_FRAME_SYNC) return false;
+		if ((frameHeader & BITMASK_EMPHASIS) == 2) return false;
+		return LENGTHS_IN_BYTES[lengthKey(frameHeader)] != 0;
+	}
+
+	/**
+	 * @return true if both headers have the same version, layer and sample rate
+	 */
+	public static boolean isSameStream(int frameHeader, int otherFrameHeader) {
+		return (frameHeader & BITMASK_STREAM) == (otherFrameHeader & BITMASK_STREAM);
+	}
+
+	public static int getBitrate(int frameHeader) {
+		return BITRATES[((frameHeader >>> 17) & 0xF) << 4 | (frameHeader >>> 12) & 0xF];
+	}
+
+	public static int getSampleRate(int frameHeader) {
+		return SAMPLE_RATES[(frameHeader >>> 17) & 0xC | (frameHeader >>> 10) & 0x3];
+	}
+
+	public static int getLengthInBytes(int frameHeader) {
+		int length = LENGTHS_IN_BYTES[lengthKey(frameHeader)];
+		if ((frameHeader & BITMASK_PADDING) != 0) {
+			length += (frameHeader & BITMASK_LAYER) == BITMASK_LAYER ? 4 : 1;
+		}
+		return length;
+	}
+
+	public static int getSamplesPerFrame(int frameHeader) {
+		return SAMPLES_PER_FRAME[(frameHeader >>> 17) & 0xF];
+	}
+
+	private static int lengthKey(int frameHeader) {
+		// version, layer, skip protection bit, bitrate, sample rate
+		return ((frameHeader >>> 17) & 0xF) << 6 | ((frameHeader >>> 10) & 0x3F);
+	}
+
 	private void setFields(long frameHeader) throws InvalidDataException {
 		long frameSync = extractField(frameHeader, BITMASK_FRAME_SYNC);
 		if (frameSync != FRAME_SYNC) throw new InvalidDataException("Frame sync missing");
@@ -87,13 +160,7 @@ public class MpegFrame {
 	}
 
 	protected int extractField(long frameHeader, long bitMask) {
-		int shiftBy = 0;
-		for (int i = 0; i <= 31; i++) {
-			if (((bitMask >> i) & 1) != 0) {
-				shiftBy = i;
-				break;
-			}
-		}
+		int shiftBy = Long.numberOfTrailingZeros(bitMask);
 		return (int)((frameHeader >> shiftBy) & (bitMask >> shiftBy));
 	}
 
@@ -342,6 +409,12 @@ public class MpegFrame {
 		return version;
 	}
 	
+	public int getSamplesPerFrame() {
+		if (layer == 1) return 384;
+		if (layer == 3 && ! MPEG_VERSION_1_0.equals(version)) return 576;
+		return 1152;
+	}
+
 	public int getLengthInBytes() {
 		long length;
 		int pad;
@@ -0,0 +1,49 @@
+package com.mpatric.mp3agic;
+
+public class SaveResult {
+
+	private final long tagBytes;
+	private final long audioBytes;
+	private final long elapsedNanos;
+	private final boolean inPlace;
+
+	public SaveResult(long tagBytes, long audioBytes, long elapsedNanos) {
+		this(tagBytes, audioBytes, elapsedNanos, false);
+	}
+
+	public SaveResult(long tagBytes, long audioBytes, long elapsedNanos, boolean inPlace) {
+		this.tagBytes = tagBytes;
+		this.audioBytes = audioBytes;
+		this.elapsedNanos = elapsedNanos;
+		this.inPlace = inPlace;
+	}
+
+	public long getTagBytes() {
+		return tagBytes;
+	}
+
+	public long getAudioBytes() {
+		return audioBytes;
+	}
+
+	public long getBytesWritten() {
+		return tagBytes + audioBytes;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public boolean isInPlace() {
+		return inPlace;
+	}
+
+	public double getThroughput() {
+		if (elapsedNanos == 0) return 0;
+		return getBytesWritten() * 1000000000.0 / elapsedNanos;
+	}
+
+	public String toString() {
+		return (inPlace ? "updated " : "wrote ") + getBytesWritten() + " bytes in " + (elapsedNanos / 1000000) + " ms (" + String.format("%.1f", getThroughput() / (1024 * 1024)) + " MiB/s)";
+	}
+}
@@ -7,7 +7,7 @@ import com.mpatric.mp3agic.BaseException;
 import com.mpatric.mp3agic.BufferTools;
 import com.mpatric.mp3agic.ID3Wrapper;
 import com.mpatric.mp3agic.InvalidDataException;
-import com.mpatric.mp3agic.Mp3File;
+import com.mpatric.mp3agic.Mp3TagFile;
 import com.mpatric.mp3agic.UnsupportedTagException;
 import com.mpatric.mp3agic.Version;
 
@@ -58,7 +58,7 @@ public class Mp3Rename extends BaseApp {
 	}
 
 	protected ID3Wrapper createId3Wrapper(String filename) throws IOException, UnsupportedTagException, InvalidDataException {
-		Mp3File mp3file = new Mp3File(filename, false);
+		Mp3TagFile mp3file = new Mp3TagFile(filename);
 		ID3Wrapper id3Wrapper = new ID3Wrapper(mp3file.getId3v1Tag(), mp3file.getId3v2Tag());
 		return id3Wrapper;
 	}
@@ -2,11 +2,11 @@ package ebs.music;
 
 import com.beaglebuddy.mp3.MP3;
 import com.beaglebuddy.mp3.enums.Genre;
-import com.mpatric.mp3agic.Mp3File;
+import com.beaglebuddy.mp3.id3v23.PaddingStrategy;
+import com.beaglebuddy.mp3.pojo.SaveResult;
 
 import java.io.File;
-import java.util.Calendar;
-import java.util.Date;
+import java.io.IOException;
 
 /**
  * Created by Aleksey Dubov
@@ -15,26 +15,32 @@ import java.util.Date;
  * Copyright (c) 2014
  */
 public class BeagleBuddyFileTagsEditor extends FileTagsEditor {
-	private MP3 file;
+	// every run appends to COMM, so leave at least 4K of room and keep the audio 4K aligned
+	private static final PaddingStrategy PADDING_STRATEGY = new PaddingStrategy.Block(4096, 4096);
+
+	private Mp3FileSession session;
+	private String newFileName;
 
 	protected BeagleBuddyFileTagsEditor(TagsData tagsData, String fileName, MusicFileData musicFileData) {
 		super(tagsData, fileName, musicFileData);
 
-		try {
-			file = new MP3(fileName);
-		} catch (Exception e) {
-			file = null;
-		}
+		session = new Mp3FileSession(fileName);
 	}
 
 	@Override
-	public void updateTags(boolean renameFile) {
+	public boolean updateTags(boolean renameFile) {
 		String fileNewName;
 
 		try {
+			long start = FileMetrics.start();
+			MP3 file = session.getTags();
+			metrics.stop(ScanMetrics.Stage.TAGS, start);
+			metrics.read(file.getTagSize());
+
+			file.setPaddingStrategy(PADDING_STRATEGY);
 			if (file.hasErrors()) {
 				file.displayErrors(System.out);
-				file.save();
+				save(file);
 			}
 
 			String comment = file.getComments();
@@ -45,78 +51,69 @@ public class BeagleBuddyFileTagsEditor extends FileTagsEditor {
 						(title == null ? "" : title));
 			}
 
-			String part1 = musicFileData.getPart1();
-			String part2 = musicFileData.getPart2();
-			Date date = musicFileData.getDate();
-
-			Integer part = 1;
-			if(part1 != null && !part1.isEmpty()) {
-				if (part1.length() == 1) {
-					part = Integer.parseInt(part1);
-				} else {
-					part = Integer.parseInt(part1.substring(0, 1));
-				}
-			}
-
-			if(part2 != null && !part2.isEmpty()) {
-				if (part2.length() == 1) {
-					part = Integer.parseInt(part2);
-				} else {
-					part = Integer.parseInt(part2.substring(0, 1));
-				}
-			}
-
-			String parts = MusicBase.getParts(part1, part2);
-
-			file.setTrack(part);
+			file.setTrack(getTrack());
 			file.setBand(tagsData.getBand());
-			file.setTitle(musicFileData.getName() + " - " +
-					MusicBase.TRUE_DATE_FORMAT.format(date) +
-					(parts.length() > 0 ? " - " + parts : ""));
-			file.setAlbum(MusicBase.TRUE_DATE_FORMAT.format(date));
-
-			Calendar calendar = Calendar.getInstance();
-			calendar.setTime(date);
-			file.setYear(calendar.get(Calendar.YEAR));
+			file.setTitle(getTitle());
+			file.setAlbum(getAlbum());
+
+			file.setYear(getYear());
 			file.setMusicType(Genre.valueOf(tagsData.getGenre().toUpperCase()));
 
-			file.save();
+			SaveResult saveResult = save(file);
 
 			fileNewName = getNewFileName();
-			System.out.println("->" + fileNewName);
+			System.out.println("->" + fileNewName + " (" + saveResult + ", saves in place: " + file.getNumInPlaceSaves() +
+					", rewrites: " + file.getNumRewrites() + ")");
 
-			if (renameFile && !new File(fileName).renameTo(new File(fileNewName))) {
-				System.out.println("Cannot rename file: " + fileName);
-			}
+			return !renameFile || renameFile(fileNewName);
 		} catch (Exception e) {
 			e.printStackTrace();
 			System.out.println(fileName + " is not readable!");
+			return false;
 		}
 	}
 
+	private SaveResult save(MP3 file) throws IOException {
+		long start = FileMetrics.start();
+		SaveResult saveResult = file.save();
+		metrics.stop(ScanMetrics.Stage.SAVE, start);
+		// a rewrite reads the audio back from the old file
+		metrics.read(saveResult.getAudioSize());
+		metrics.written(saveResult.getTagSize() + saveResult.getAudioSize());
+		return saveResult;
+	}
+
 	@Override
-	public String getNewFileName() {
-		String parts = MusicBase.getParts(musicFileData.getPart1(), musicFileData.getPart2());
-		return tagsData.getBand() + " - " +
-				MusicBase.TRUE_DATE_FORMAT.format(musicFileData.getDate()) + " - " +
-				musicFileData.getName() +
-				(parts.length() > 0 ? (" [" + parts + "]") : "") +
-				" [" + (file == null ? "" : getBitrate(fileName)) + "]" +
-				musicFileData.getExtension();
+	public boolean renameFile() {
+		return renameFile(getNewFileName());
 	}
 
-	private String getBitrate(String fileName) {
-		Mp3File mp3File;
-		try {
-			mp3File = new Mp3File(fileName);
-		} catch (Exception e) {
-			return "";
+	private boolean renameFile(String fileNewName) {
+		if (!new File(fileName).renameTo(new File(fileNewName))) {
+			System.out.println("Cannot rename file: " + fileName);
+			return false;
 		}
+		return true;
+	}
 
-		if (mp3File.isVbr()) {
-			return "VBR";
+	@Override
+	public String getNewFileName() {
+		if (newFileName == null) {
+			String parts = MusicBase.getParts(musicFileData.getPart1(), musicFileData.getPart2());
+			newFileName = tagsData.getBand() + " - " +
+					MusicBase.formatDate(musicFileData.getDate()) + " - " +
+					musicFileData.getName() +
+					(parts.length() > 0 ? (" [" + parts + "]") : "") +
+					" [" + getBitrate() + "]" +
+					musicFileData.getExtension();
 		}
+		return newFileName;
+	}
 
-		return Integer.toString(mp3File.getBitrate());
+	private String getBitrate() {
+		long start = FileMetrics.start();
+		String bitrate = session.getBitrate();
+		metrics.stop(ScanMetrics.Stage.PROBE, start);
+		return bitrate;
 	}
 }
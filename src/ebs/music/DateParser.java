@@ -0,0 +1,13 @@
+package ebs.music;
+
+import java.text.ParseException;
+
+/**
+ * Parses the date part of a file name. Implementations are immutable and shared between worker threads.
+ */
+public interface DateParser {
+	/**
+	 * @return the date as days since 1970-01-01 or {@link MusicBase#NO_DATE} if the text has no date
+	 */
+	int parse(String text) throws ParseException;
+}
@@ -0,0 +1,259 @@
+package ebs.music;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable replacement for the {@link java.text.SimpleDateFormat} patterns used in file names: d, M, MMM and y
+ * fields and literal characters. Parsing follows the lenient SimpleDateFormat rules the patterns were written
+ * for: out of range days and months roll over (1998-07-00 is 1998-06-30), a two digit yy year is put within
+ * 80 years before and 20 years after the time the pattern is created, abutting numeric fields take as many
+ * digits as the pattern letters and text after the date is ignored. Dates are days since 1970-01-01, so
+ * nothing is allocated while parsing.
+ */
+public class DatePattern implements DateParser {
+	private static final String[] MONTHS = {"January", "February", "March", "April", "May", "June", "July",
+			"August", "September", "October", "November", "December"};
+
+	private static final char LITERAL = 0;
+	private static final char DAY = 'd';
+	private static final char MONTH = 'M';
+	private static final char YEAR = 'y';
+
+	private final String pattern;
+	private final char[] fields;
+	private final int[] counts;
+	private final int centuryStart;
+	private final int centuryStartYear;
+
+	public DatePattern(String pattern) {
+		this.pattern = pattern;
+
+		List<char[]> elements = new ArrayList<char[]>();
+		for (int i = 0; i < pattern.length(); ) {
+			char c = pattern.charAt(i);
+			int count = 1;
+			if (c == DAY || c == MONTH || c == YEAR) {
+				while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+					count++;
+				}
+				elements.add(new char[]{c, (char) count});
+			} else if (Character.isLetter(c) || c == '\'') {
+				throw new IllegalArgumentException("Unsupported date pattern: " + pattern);
+			} else {
+				elements.add(new char[]{LITERAL, c});
+			}
+			i += count;
+		}
+
+		fields = new char[elements.size()];
+		counts = new int[elements.size()];
+		for (int i = 0; i < fields.length; i++) {
+			fields[i] = elements.get(i)[0];
+			counts[i] = elements.get(i)[1];
+		}
+
+		LocalDate start = LocalDate.now().minusYears(80);
+		centuryStart = (int) start.toEpochDay();
+		centuryStartYear = start.getYear();
+	}
+
+	public String getPattern() {
+		return pattern;
+	}
+
+	@Override
+	public int parse(String text) throws ParseException {
+		int year = 1970;
+		int month = 1;
+		int day = 1;
+		boolean ambiguousYear = false;
+
+		int position = 0;
+		for (int i = 0; i < fields.length; i++) {
+			if (fields[i] == LITERAL) {
+				if (position >= text.length() || text.charAt(position) != counts[i]) {
+					throw unparseable(text, position);
+				}
+				position++;
+				continue;
+			}
+
+			int fieldStart = position;
+			while (position < text.length() && (text.charAt(position) == ' ' || text.charAt(position) == '\t')) {
+				position++;
+			}
+
+			if (fields[i] == MONTH && counts[i] >= 3) {
+				int length = matchMonth(text, position);
+				if (length == 0) {
+					throw unparseable(text, position);
+				}
+				month = month(text, position, length);
+				position += length;
+				continue;
+			}
+
+			// a numeric field followed by another one takes exactly as many characters as the pattern letters
+			int limit = text.length();
+			if (i + 1 < fields.length && isNumeric(i + 1)) {
+				limit = fieldStart + counts[i];
+				if (limit > text.length()) {
+					throw unparseable(text, fieldStart);
+				}
+			}
+			int start = position;
+			long value = 0;
+			while (position < limit && text.charAt(position) >= '0' && text.charAt(position) <= '9') {
+				value = value * 10 + text.charAt(position++) - '0';
+				if (value > Integer.MAX_VALUE) {
+					throw unparseable(text, start);
+				}
+			}
+			if (position == start) {
+				throw unparseable(text, start);
+			}
+
+			if (fields[i] == DAY) {
+				day = (int) value;
+			} else if (fields[i] == MONTH) {
+				month = (int) value;
+			} else if (counts[i] <= 2 && position - start == 2) {
+				int twoDigitStart = centuryStartYear % 100;
+				ambiguousYear = value == twoDigitStart;
+				year = (int) value + centuryStartYear / 100 * 100 + (value < twoDigitStart ? 100 : 0);
+			} else {
+				year = (int) value;
+			}
+		}
+
+		// the century start is a moment of its day, so the whole day is before it
+		int epochDay = toEpochDay(year, month, day);
+		return ambiguousYear && epochDay <= centuryStart ? toEpochDay(year + 100, month, day) : epochDay;
+	}
+
+	public String format(int epochDay) {
+		if (epochDay == MusicBase.NO_DATE) {
+			throw new IllegalArgumentException("No date");
+		}
+
+		long civil = toCivil(epochDay);
+		int year = (int) (civil >> 16);
+		int month = (int) (civil >> 8 & 0xFF);
+		int day = (int) (civil & 0xFF);
+
+		StringBuilder builder = new StringBuilder(pattern.length() + 4);
+		for (int i = 0; i < fields.length; i++) {
+			switch (fields[i]) {
+				case LITERAL:
+					builder.append((char) counts[i]);
+					break;
+				case DAY:
+					pad(builder, day, counts[i]);
+					break;
+				case MONTH:
+					if (counts[i] >= 4) {
+						builder.append(MONTHS[month - 1]);
+					} else if (counts[i] == 3) {
+						builder.append(MONTHS[month - 1], 0, 3);
+					} else {
+						pad(builder, month, counts[i]);
+					}
+					break;
+				default:
+					pad(builder, counts[i] == 2 ? Math.abs(year) % 100 : year, counts[i]);
+			}
+		}
+		return builder.toString();
+	}
+
+	@Override
+	public String toString() {
+		return pattern;
+	}
+
+	/**
+	 * @return days since 1970-01-01 of the proleptic Gregorian date, out of range months and days roll over
+	 */
+	public static int toEpochDay(int year, int month, int day) {
+		long y = year + (long) Math.floorDiv(month - 1, 12);
+		int m = Math.floorMod(month - 1, 12) + 1;
+
+		// days from civil, March based years put the leap day at the end
+		if (m <= 2) {
+			y--;
+		}
+		long era = Math.floorDiv(y, 400);
+		long yearOfEra = y - era * 400;
+		long dayOfYear = (153 * (m > 2 ? m - 3 : m + 9) + 2) / 5;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return (int) (era * 146097 + dayOfEra - 719468 + day - 1);
+	}
+
+	public static int getYear(int epochDay) {
+		return (int) (toCivil(epochDay) >> 16);
+	}
+
+	/**
+	 * @return year, month and day packed as year << 16 | month << 8 | day
+	 */
+	private static long toCivil(int epochDay) {
+		long z = epochDay + 719468L;
+		long era = Math.floorDiv(z, 146097);
+		long dayOfEra = z - era * 146097;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		long mp = (5 * dayOfYear + 2) / 153;
+		long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+		long month = mp < 10 ? mp + 3 : mp - 9;
+		long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+		return year << 16 | month << 8 | day;
+	}
+
+	private boolean isNumeric(int element) {
+		return fields[element] != LITERAL && (fields[element] != MONTH || counts[element] < 3);
+	}
+
+	/**
+	 * @return length of the longest full or, failing that, three letter English month name at the position
+	 */
+	private static int matchMonth(String text, int position) {
+		int best = 0;
+		for (String name : MONTHS) {
+			if (name.length() > best && text.regionMatches(true, position, name, 0, name.length())) {
+				best = name.length();
+			}
+		}
+		if (best == 0) {
+			for (String name : MONTHS) {
+				if (text.regionMatches(true, position, name, 0, 3)) {
+					return 3;
+				}
+			}
+		}
+		return best;
+	}
+
+	private static int month(String text, int position, int length) {
+		for (int i = 0; i < MONTHS.length; i++) {
+			if (MONTHS[i].length() >= length && text.regionMatches(true, position, MONTHS[i], 0, length)) {
+				return i + 1;
+			}
+		}
+		throw new IllegalStateException();
+	}
+
+	private static void pad(StringBuilder builder, int value, int count) {
+		String digits = Integer.toString(value);
+		for (int i = digits.length(); i < count; i++) {
+			builder.append('0');
+		}
+		builder.append(digits);
+	}
+
+	private static ParseException unparseable(String text, int position) {
+		return new ParseException("Unparseable date: \"" + text + "\"", position);
+	}
+}
@@ -0,0 +1,459 @@
+package ebs.music;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Scans a directory tree in three stages: discovery ({@link Files#walkFileTree}) on the calling thread,
+ * file name matching and tags update on separate worker pools. Renaming is done on the calling thread
+ * in file path order, so the result does not depend on the number of workers. A relative new file name is
+ * resolved against the base directory of the scan.
+ *
+ * Files are updated in batches. With a {@link RenameJournal} every batch is recorded before its tags are
+ * written and before its files are renamed, so an interrupted scan can be resumed. With a {@link FileIndex}
+ * renamed files are recorded and files that have not changed since are skipped during discovery.
+ * {@link #update(Path, Collection)} runs the same pipeline for a few known files, see {@link DirectoryWatcher}.
+ * Every stage of every file is timed in the scanner's {@link ScanMetrics}.
+ */
+public class DirectoryScanner {
+	private static final Logger LOGGER = Logger.getLogger(DirectoryScanner.class.getName());
+
+	public static final String WORKERS_PROPERTY = "ebs.music.workers";
+	public static final String BATCH_SIZE_PROPERTY = "ebs.music.batch";
+
+	private final ScanRules rules;
+	private final int workers;
+	private final RenameJournal journal;
+	private final FileIndex index;
+	private final int batchSize = Math.max(1, Integer.getInteger(BATCH_SIZE_PROPERTY, 256));
+	private final ScanMetrics metrics = new ScanMetrics();
+
+	public DirectoryScanner(ScanRules rules, int workers) {
+		this(rules, workers, null);
+	}
+
+	public DirectoryScanner(ScanRules rules, int workers, RenameJournal journal) {
+		this(rules, workers, journal, null);
+	}
+
+	public DirectoryScanner(ScanRules rules, int workers, RenameJournal journal, FileIndex index) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("At least one worker is required");
+		}
+		this.rules = rules;
+		this.workers = workers;
+		this.journal = journal;
+		this.index = index;
+		if (Boolean.getBoolean(ScanMetrics.JMX_PROPERTY)) {
+			metrics.register();
+		}
+	}
+
+	public static int getDefaultWorkers() {
+		return Integer.getInteger(WORKERS_PROPERTY, Runtime.getRuntime().availableProcessors());
+	}
+
+	public int getWorkers() {
+		return workers;
+	}
+
+	public ScanMetrics getMetrics() {
+		return metrics;
+	}
+
+	public void scan(Path baseDirectory) throws IOException {
+		ExecutorService matchExecutor =
+				Executors.newFixedThreadPool(Math.min(workers, Runtime.getRuntime().availableProcessors()));
+		ExecutorService tagsExecutor = Executors.newFixedThreadPool(workers);
+		try {
+			if (journal != null) {
+				journal.recover();
+			}
+
+			List<ScanEntry> entries = discover(baseDirectory, matchExecutor);
+
+			// tags are written only after the walk is over, so temporary files created by saving are never discovered
+			updateAll(entries, baseDirectory.toAbsolutePath().normalize(), null, tagsExecutor);
+		} finally {
+			matchExecutor.shutdown();
+			tagsExecutor.shutdown();
+		}
+	}
+
+	/**
+	 * Same as {@link #scan(Path)} for the given files of the directory tree only. Folder data of every file is
+	 * built from the directories between the base directory and the file, files outside the tree or in skipped
+	 * directories are ignored.
+	 */
+	public void update(Path baseDirectory, Collection<Path> files) throws IOException {
+		update(baseDirectory, files, null);
+	}
+
+	/**
+	 * Updates the files of the plan, a file is skipped if its new name is not the planned one any more.
+	 */
+	public void execute(Path baseDirectory, RenamePlan plan) throws IOException {
+		Map<Path, Path> targets = plan.getTargets();
+		update(baseDirectory, targets.keySet(), targets);
+	}
+
+	/**
+	 * Matches the files of the tree and computes their new names and tags without writing anything. Tags are
+	 * not parsed, only the audio header of a file is read.
+	 */
+	public RenamePlan plan(Path baseDirectory) throws IOException {
+		ExecutorService matchExecutor =
+				Executors.newFixedThreadPool(Math.min(workers, Runtime.getRuntime().availableProcessors()));
+		ExecutorService tagsExecutor = Executors.newFixedThreadPool(workers);
+		try {
+			List<ScanEntry> entries = discover(baseDirectory, matchExecutor);
+			Collections.sort(entries);
+			Path base = baseDirectory.toAbsolutePath().normalize();
+			runAll(entries, entry -> prepare(entry, base), tagsExecutor);
+
+			RenamePlan plan = new RenamePlan();
+			for (ScanEntry entry : entries) {
+				if (entry.editor == null) {
+					continue;
+				}
+				try {
+					plan.add(RenamePlan.Entry.of(entry.file, entry.target, entry.pattern, entry.editor));
+				} catch (RuntimeException e) {
+					LOGGER.warning("File: " + entry.file + " - " + e);
+				}
+			}
+			for (ScanEntry entry : entries) {
+				entry.metrics.finish();
+			}
+			return plan;
+		} finally {
+			matchExecutor.shutdown();
+			tagsExecutor.shutdown();
+		}
+	}
+
+	/**
+	 * @param targets planned new names of the files or null
+	 */
+	private void update(Path baseDirectory, Collection<Path> files, Map<Path, Path> targets) throws IOException {
+		ExecutorService tagsExecutor = Executors.newFixedThreadPool(workers);
+		try {
+			if (journal != null) {
+				journal.recover();
+			}
+
+			Path base = baseDirectory.toAbsolutePath().normalize();
+			Map<Path, FolderData> folders = new HashMap<Path, FolderData>();
+			folders.put(base, FolderData.ROOT);
+
+			List<ScanEntry> entries = new ArrayList<ScanEntry>();
+			Set<Path> seen = new HashSet<Path>();
+			for (Path path : files) {
+				Path file = path.toAbsolutePath().normalize();
+				if (!file.startsWith(base) || file.equals(base) || isOwnFile(file) || !seen.add(file)) {
+					continue;
+				}
+
+				FolderData folder = getFolder(file.getParent(), base, folders);
+				BasicFileAttributes attrs;
+				try {
+					attrs = Files.readAttributes(file, BasicFileAttributes.class);
+				} catch (IOException e) {
+					continue;
+				}
+				if (folder != null && attrs.isRegularFile() && (index == null || !index.isUnchanged(file, attrs))) {
+					FileMetrics fileMetrics = metrics.startFile(file);
+					entries.add(new ScanEntry(file, fileMetrics,
+							CompletableFuture.completedFuture(match(file, folder, fileMetrics))));
+				}
+			}
+
+			updateAll(entries, base, targets, tagsExecutor);
+		} finally {
+			tagsExecutor.shutdown();
+		}
+	}
+
+	/**
+	 * @return folder data of the directory or null if it or one of its parents is skipped
+	 */
+	private FolderData getFolder(Path directory, Path base, Map<Path, FolderData> folders) {
+		if (folders.containsKey(directory)) {
+			return folders.get(directory);
+		}
+
+		FolderData parent = getFolder(directory.getParent(), base, folders);
+		FolderData folder = parent == null ? null : rules.enterDirectory(directory.getFileName().toString(), parent);
+		folders.put(directory, folder);
+		return folder;
+	}
+
+	/**
+	 * @param base absolute base directory, new file names are resolved against it
+	 */
+	private void updateAll(List<ScanEntry> entries, Path base, Map<Path, Path> targets, ExecutorService tagsExecutor)
+			throws IOException {
+		Collections.sort(entries);
+		for (int from = 0; from < entries.size(); from += batchSize) {
+			updateBatch(entries.subList(from, Math.min(entries.size(), from + batchSize)), base, targets,
+					tagsExecutor);
+		}
+	}
+
+	private void updateBatch(List<ScanEntry> batch, Path base, Map<Path, Path> targets, ExecutorService tagsExecutor)
+			throws IOException {
+		runAll(batch, entry -> prepare(entry, base), tagsExecutor);
+		if (targets != null) {
+			for (ScanEntry entry : batch) {
+				if (entry.editor != null && !entry.target.normalize().equals(targets.get(entry.file))) {
+					LOGGER.warning("File: " + entry.file + " - new name " + entry.target + " is not the planned " +
+							targets.get(entry.file));
+					entry.editor = null;
+				}
+			}
+		}
+		if (journal != null) {
+			for (ScanEntry entry : batch) {
+				if (entry.editor != null) {
+					journal.planned(entry.file, entry.target);
+				}
+			}
+			journal.sync();
+		}
+
+		runAll(batch, DirectoryScanner::updateTags, tagsExecutor);
+		if (journal != null) {
+			for (ScanEntry entry : batch) {
+				if (entry.editor != null && entry.tagged) {
+					journal.tagged(entry.file);
+				}
+			}
+			journal.sync();
+		}
+
+		rename(batch);
+		for (ScanEntry entry : batch) {
+			entry.metrics.finish();
+		}
+	}
+
+	private void prepare(ScanEntry entry, Path base) {
+		MusicFileData fileData = entry.fileData.join();
+		if (fileData == null) {
+			return;
+		}
+
+		entry.pattern = fileData.getPattern();
+
+		entry.editor = rules.createEditor(entry.file.toAbsolutePath().toString(), fileData);
+		entry.editor.setMetrics(entry.metrics);
+		// a relative new name is in the base directory, not in the working directory
+		entry.target = base.resolve(entry.editor.getNewFileName()).normalize();
+		if (journal != null && journal.getState(entry.file) == RenameJournal.State.TAGGED &&
+				entry.target.equals(journal.getTarget(entry.file))) {
+			// tags were written by an interrupted scan for the same new name, only the rename is left
+			entry.tagged = true;
+		}
+		LOGGER.info(entry.file.getFileName() + " -> " + entry.editor.getNewFileName());
+	}
+
+	private MusicFileData match(Path file, FolderData folder, FileMetrics fileMetrics) {
+		long start = FileMetrics.start();
+		try {
+			return rules.matchFile(file.getFileName().toString(), folder);
+		} finally {
+			fileMetrics.stop(ScanMetrics.Stage.MATCH, start);
+		}
+	}
+
+	private boolean isOwnFile(Path file) {
+		Path path = file.toAbsolutePath();
+		return journal != null && path.equals(journal.getPath()) || index != null && path.equals(index.getPath());
+	}
+
+	private static void updateTags(ScanEntry entry) {
+		if (entry.editor != null && !entry.tagged) {
+			entry.tagged = entry.editor.updateTags(false);
+		}
+	}
+
+	private void rename(List<ScanEntry> batch) throws IOException {
+		Set<Path> directories = new LinkedHashSet<Path>();
+		List<ScanEntry> renamed = new ArrayList<ScanEntry>();
+		for (ScanEntry entry : batch) {
+			if (!entry.tagged) {
+				continue;
+			}
+
+			long start = FileMetrics.start();
+			if (journal == null) {
+				if (entry.editor.renameFile()) {
+					renamed.add(entry);
+				}
+				entry.metrics.stop(ScanMetrics.Stage.RENAME, start);
+				continue;
+			}
+
+			try {
+				Files.move(entry.file, entry.target);
+				directories.add(entry.file.toAbsolutePath().getParent());
+				directories.add(entry.target.getParent());
+				renamed.add(entry);
+			} catch (IOException e) {
+				LOGGER.warning("Cannot rename file: " + entry.file + " - " + e);
+			}
+			entry.metrics.stop(ScanMetrics.Stage.RENAME, start);
+		}
+
+		if (journal != null) {
+			RenameJournal.syncDirectories(directories);
+			for (ScanEntry entry : renamed) {
+				journal.renamed(entry.file);
+			}
+			journal.sync();
+		}
+
+		if (index != null) {
+			for (ScanEntry entry : renamed) {
+				try {
+					index.put(entry.target, entry.pattern);
+				} catch (IOException e) {
+					LOGGER.warning("Cannot index file: " + entry.target + " - " + e.getMessage());
+				}
+			}
+			index.flush();
+		}
+	}
+
+	private static void runAll(List<ScanEntry> batch, Consumer<ScanEntry> action, ExecutorService executor) {
+		List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+		for (final ScanEntry entry : batch) {
+			futures.add(CompletableFuture.runAsync(() -> action.accept(entry), executor));
+		}
+
+		for (int i = 0; i < batch.size(); i++) {
+			try {
+				futures.get(i).join();
+			} catch (CompletionException e) {
+				ScanEntry entry = batch.get(i);
+				entry.editor = null;
+				entry.tagged = false;
+				LOGGER.warning("File: " + entry.file + " - " + e.getCause());
+			}
+		}
+	}
+
+	private List<ScanEntry> discover(final Path baseDirectory, final ExecutorService matchExecutor)
+			throws IOException {
+		final List<ScanEntry> entries = new ArrayList<ScanEntry>();
+		final Deque<FolderData> folders = new ArrayDeque<FolderData>();
+		// time spent by the walk itself in every open directory, the visitor's own work is not counted
+		final Deque<long[]> listNanos = new ArrayDeque<long[]>();
+
+		Files.walkFileTree(baseDirectory, new SimpleFileVisitor<Path>() {
+			private long last = System.nanoTime();
+
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+				lap();
+				try {
+					if (dir.equals(baseDirectory)) {
+						folders.push(FolderData.ROOT);
+						listNanos.push(new long[1]);
+						return FileVisitResult.CONTINUE;
+					}
+
+					FolderData folder = rules.enterDirectory(dir.getFileName().toString(), folders.peek());
+					if (folder == null) {
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+					folders.push(folder);
+					listNanos.push(new long[1]);
+					return FileVisitResult.CONTINUE;
+				} finally {
+					last = System.nanoTime();
+				}
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+				lap();
+				folders.pop();
+				metrics.record(ScanMetrics.Stage.LIST, listNanos.pop()[0]);
+				last = System.nanoTime();
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(final Path file, BasicFileAttributes attrs) {
+				lap();
+				if (attrs.isRegularFile() && !isOwnFile(file) && (index == null || !index.isUnchanged(file, attrs))) {
+					final FolderData folder = folders.peek();
+					final FileMetrics fileMetrics = metrics.startFile(file);
+					entries.add(new ScanEntry(file, fileMetrics, CompletableFuture.supplyAsync(
+							() -> match(file, folder, fileMetrics), matchExecutor)));
+				}
+				last = System.nanoTime();
+				return FileVisitResult.CONTINUE;
+			}
+
+			private void lap() {
+				long now = System.nanoTime();
+				if (!listNanos.isEmpty()) {
+					listNanos.peek()[0] += now - last;
+				}
+				last = now;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) {
+				LOGGER.warning("File: " + file + " - " + e.getMessage());
+				return FileVisitResult.CONTINUE;
+			}
+		});
+
+		return entries;
+	}
+
+	private static class ScanEntry implements Comparable<ScanEntry> {
+		private final Path file;
+		private final FileMetrics metrics;
+		private final CompletableFuture<MusicFileData> fileData;
+		private FileTagsEditor editor;
+		private Path target;
+		private int pattern;
+		private boolean tagged;
+
+		private ScanEntry(Path file, FileMetrics metrics, CompletableFuture<MusicFileData> fileData) {
+			this.file = file;
+			this.metrics = metrics;
+			this.fileData = fileData;
+		}
+
+		@Override
+		public int compareTo(ScanEntry other) {
+			return file.compareTo(other.file);
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package ebs.music;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Long running alternative to a periodic scan. Every directory of the tree is registered with a
+ * {@link WatchService}; created and modified files are kept pending until their size and modification time
+ * have not changed for the quiet period, so files that are still being downloaded are left alone, and then
+ * passed to {@link DirectoryScanner#update}. The tree is scanned once on start and again after an event
+ * overflow, use a {@link FileIndex} to make these scans cheap and to skip the files renamed by the watcher itself.
+ */
+public class DirectoryWatcher implements Closeable {
+	private static final Logger LOGGER = Logger.getLogger(DirectoryWatcher.class.getName());
+
+	public static final String WATCH_PROPERTY = "ebs.music.watch";
+	public static final String QUIET_PROPERTY = "ebs.music.quiet";
+
+	private final DirectoryScanner scanner;
+	private final Path baseDirectory;
+	private final long quietMillis;
+	private final WatchService watchService;
+	private final Map<WatchKey, Path> directories = new HashMap<WatchKey, Path>();
+	private final Map<Path, PendingFile> pending = new LinkedHashMap<Path, PendingFile>();
+
+	public DirectoryWatcher(DirectoryScanner scanner, Path baseDirectory) throws IOException {
+		this(scanner, baseDirectory, Long.getLong(QUIET_PROPERTY, 2000));
+	}
+
+	public DirectoryWatcher(DirectoryScanner scanner, Path baseDirectory, long quietMillis) throws IOException {
+		this.scanner = scanner;
+		this.baseDirectory = baseDirectory.toAbsolutePath().normalize();
+		this.quietMillis = quietMillis;
+		watchService = this.baseDirectory.getFileSystem().newWatchService();
+	}
+
+	/**
+	 * Scans the tree if the {@link #WATCH_PROPERTY} system property is not set, otherwise watches it until
+	 * the JVM is shut down.
+	 */
+	public static void scanOrWatch(DirectoryScanner scanner, Path baseDirectory) throws IOException {
+		if (!Boolean.getBoolean(WATCH_PROPERTY)) {
+			scanner.scan(baseDirectory);
+			return;
+		}
+
+		try (final DirectoryWatcher watcher = new DirectoryWatcher(scanner, baseDirectory)) {
+			final Thread thread = Thread.currentThread();
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				@Override
+				public void run() {
+					// let the current batch finish, so the journal and the index are closed properly
+					watcher.stop();
+					try {
+						thread.join();
+					} catch (InterruptedException e) {
+						// exiting anyway
+					}
+				}
+			});
+			watcher.run();
+		}
+	}
+
+	/**
+	 * Watches the tree until {@link #stop()} is called or the thread is interrupted.
+	 */
+	public void run() throws IOException {
+		register(baseDirectory, false);
+		scanner.scan(baseDirectory);
+		LOGGER.info("Watching " + directories.size() + " directories of " + baseDirectory);
+
+		try {
+			while (true) {
+				WatchKey key = pending.isEmpty() ? watchService.take() :
+						watchService.poll(Math.max(1, quietMillis / 4), TimeUnit.MILLISECONDS);
+				boolean overflow = false;
+				for (; key != null; key = watchService.poll()) {
+					overflow |= processEvents(key);
+				}
+
+				if (overflow) {
+					LOGGER.warning("Events are lost, scanning " + baseDirectory);
+					pending.clear();
+					register(baseDirectory, false);
+					scanner.scan(baseDirectory);
+				}
+
+				List<Path> files = getStableFiles(System.currentTimeMillis());
+				if (!files.isEmpty()) {
+					LOGGER.info("Updating " + files.size() + " files");
+					scanner.update(baseDirectory, files);
+				}
+			}
+		} catch (ClosedWatchServiceException e) {
+			LOGGER.info("Stopped watching " + baseDirectory);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Makes {@link #run()} return after the current batch, it may be called from any thread.
+	 */
+	public void stop() {
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			LOGGER.warning("Cannot close watch service: " + e.getMessage());
+		}
+	}
+
+	@Override
+	public void close() {
+		stop();
+	}
+
+	/**
+	 * @return true if events were lost
+	 */
+	private boolean processEvents(WatchKey key) throws IOException {
+		Path directory = directories.get(key);
+		boolean overflow = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				overflow = true;
+				continue;
+			}
+
+			Path path = directory.resolve((Path) event.context());
+			if (Files.isDirectory(path)) {
+				if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+					// files may be moved in with the directory before it is registered
+					register(path, true);
+				}
+			} else {
+				touch(path, System.currentTimeMillis());
+			}
+		}
+
+		if (!key.reset()) {
+			directories.remove(key);
+		}
+		return overflow;
+	}
+
+	private void register(Path start, final boolean addFiles) throws IOException {
+		Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				directories.put(dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_MODIFY), dir);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				if (addFiles && attrs.isRegularFile()) {
+					touch(file, System.currentTimeMillis());
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) {
+				LOGGER.warning("File: " + file + " - " + e.getMessage());
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	private void touch(Path file, long now) {
+		PendingFile pendingFile = pending.get(file);
+		if (pendingFile == null) {
+			pending.put(file, new PendingFile(now));
+		} else {
+			pendingFile.changed = now;
+		}
+	}
+
+	/**
+	 * @return pending files that have not changed for the quiet period, they are no longer pending
+	 */
+	private List<Path> getStableFiles(long now) {
+		List<Path> files = new ArrayList<Path>();
+		for (Iterator<Map.Entry<Path, PendingFile>> i = pending.entrySet().iterator(); i.hasNext(); ) {
+			Map.Entry<Path, PendingFile> entry = i.next();
+			PendingFile pendingFile = entry.getValue();
+
+			BasicFileAttributes attrs;
+			try {
+				attrs = Files.readAttributes(entry.getKey(), BasicFileAttributes.class);
+			} catch (IOException e) {
+				// deleted or renamed, e.g. a temporary file
+				i.remove();
+				continue;
+			}
+
+			long modified = attrs.lastModifiedTime().toMillis();
+			if (attrs.size() != pendingFile.size || modified != pendingFile.modified) {
+				pendingFile.size = attrs.size();
+				pendingFile.modified = modified;
+				pendingFile.changed = now;
+			} else if (now - pendingFile.changed >= quietMillis) {
+				files.add(entry.getKey());
+				i.remove();
+			}
+		}
+		return files;
+	}
+
+	private static class PendingFile {
+		private long size = -1;
+		private long modified;
+		private long changed;
+
+		private PendingFile(long changed) {
+			this.changed = changed;
+		}
+	}
+}
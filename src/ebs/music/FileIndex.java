@@ -0,0 +1,227 @@
+package ebs.music;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent index of processed files: path, size, modification time, file key (inode), hash of the ID3v2 tag
+ * and the index of the pattern that matched. It is an append-only binary log, later records replace earlier
+ * ones, and it is compacted on close when most of it is stale. A file with the same size, time and file key
+ * is skipped by the next scan without being opened; if only the time changed, the tag hash decides.
+ * A file that does not start with the index header is never overwritten, opening it fails.
+ */
+public class FileIndex implements Closeable {
+	public static final String FILE_NAME = ".file.index";
+
+	private static final int MAGIC = 0x46495831; // FIX1
+	private static final int ID3V2_HEADER_LENGTH = 10;
+
+	private final Path path;
+	private final Map<String, Entry> entries = new HashMap<String, Entry>();
+	private int records;
+	private DataOutputStream output;
+
+	public FileIndex(Path path) throws IOException {
+		this.path = path.toAbsolutePath();
+		load();
+		output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.path.toFile(), true)));
+		if (Files.size(this.path) == 0) {
+			output.writeInt(MAGIC);
+		}
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return true if the file was indexed and has not changed since
+	 */
+	public synchronized boolean isUnchanged(Path file, BasicFileAttributes attrs) {
+		Entry entry = entries.get(key(file));
+		if (entry == null || entry.size != attrs.size() || !entry.fileKey.equals(fileKey(attrs))) {
+			return false;
+		}
+		if (entry.modified == attrs.lastModifiedTime().toMillis()) {
+			return true;
+		}
+
+		// touched, but the tags may still be the same
+		try {
+			if (entry.tagHash != tagHash(file)) {
+				return false;
+			}
+			append(new Entry(entry.path, entry.size, attrs.lastModifiedTime().toMillis(), entry.fileKey,
+					entry.tagHash, entry.pattern));
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return index of the pattern recorded for the file, -1 if it is not indexed
+	 */
+	public synchronized int getPattern(Path file) {
+		Entry entry = entries.get(key(file));
+		return entry == null ? -1 : entry.pattern;
+	}
+
+	public synchronized void put(Path file, int pattern) throws IOException {
+		BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+		append(new Entry(key(file), attrs.size(), attrs.lastModifiedTime().toMillis(), fileKey(attrs), tagHash(file),
+				pattern));
+	}
+
+	public synchronized void flush() throws IOException {
+		output.flush();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		output.close();
+		if (records > 2 * entries.size() + 1024) {
+			compact();
+		}
+	}
+
+	/**
+	 * @return CRC32 of the ID3v2 tag (header included) or 0 if the file has no ID3v2 tag
+	 */
+	public static long tagHash(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(ID3V2_HEADER_LENGTH);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// read the whole header
+			}
+			if (header.hasRemaining() || header.get(0) != 'I' || header.get(1) != 'D' || header.get(2) != '3') {
+				return 0;
+			}
+
+			int size = (header.get(6) & 0x7F) << 21 | (header.get(7) & 0x7F) << 14 | (header.get(8) & 0x7F) << 7 |
+					header.get(9) & 0x7F;
+			ByteBuffer tag = ByteBuffer.allocate((int) Math.min(size, channel.size() - ID3V2_HEADER_LENGTH));
+			while (tag.hasRemaining() && channel.read(tag) >= 0) {
+				// read the whole tag
+			}
+
+			CRC32 crc = new CRC32();
+			crc.update(header.array());
+			crc.update(tag.array(), 0, tag.position());
+			return crc.getValue();
+		}
+	}
+
+	private void load() throws IOException {
+		if (!Files.exists(path)) {
+			return;
+		}
+
+		byte[] bytes = Files.readAllBytes(path);
+		ByteArrayInputStream buffer = new ByteArrayInputStream(bytes);
+		DataInputStream input = new DataInputStream(buffer);
+		if (bytes.length == 0) {
+			return;
+		}
+		if (bytes.length < 4 || input.readInt() != MAGIC) {
+			throw new IOException("Not a file index: " + path);
+		}
+
+		int length = bytes.length - buffer.available();
+		try {
+			while (buffer.available() > 0) {
+				Entry entry = new Entry(input.readUTF(), input.readLong(), input.readLong(), input.readUTF(),
+						input.readLong(), input.readInt());
+				entries.put(entry.path, entry);
+				records++;
+				length = bytes.length - buffer.available();
+			}
+		} catch (EOFException e) {
+			// the last record was cut by a crash
+		}
+
+		if (length < bytes.length) {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				channel.truncate(length);
+			}
+		}
+	}
+
+	private void append(Entry entry) {
+		entries.put(entry.path, entry);
+		records++;
+		try {
+			write(output, entry);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot write index " + path, e);
+		}
+	}
+
+	private void compact() throws IOException {
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (DataOutputStream compacted = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+			compacted.writeInt(MAGIC);
+			for (Entry entry : entries.values()) {
+				write(compacted, entry);
+			}
+		}
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		records = entries.size();
+	}
+
+	private static void write(DataOutputStream output, Entry entry) throws IOException {
+		output.writeUTF(entry.path);
+		output.writeLong(entry.size);
+		output.writeLong(entry.modified);
+		output.writeUTF(entry.fileKey);
+		output.writeLong(entry.tagHash);
+		output.writeInt(entry.pattern);
+	}
+
+	private static String fileKey(BasicFileAttributes attrs) {
+		Object fileKey = attrs.fileKey();
+		return fileKey == null ? "" : fileKey.toString();
+	}
+
+	private static String key(Path file) {
+		return file.toAbsolutePath().normalize().toString();
+	}
+
+	private static class Entry {
+		private final String path;
+		private final long size;
+		private final long modified;
+		private final String fileKey;
+		private final long tagHash;
+		private final int pattern;
+
+		private Entry(String path, long size, long modified, String fileKey, long tagHash, int pattern) {
+			this.path = path;
+			this.size = size;
+			this.modified = modified;
+			this.fileKey = fileKey;
+			this.tagHash = tagHash;
+			this.pattern = pattern;
+		}
+	}
+}
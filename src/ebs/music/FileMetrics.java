@@ -0,0 +1,100 @@
+package ebs.music;
+
+/**
+ * Stage times and bytes of one file, see {@link ScanMetrics}. The stages of a file run one after another, but
+ * on different threads.
+ */
+public class FileMetrics {
+	/**
+	 * Metrics that are not recorded anywhere, for editors used outside of a scan.
+	 */
+	public static final FileMetrics NONE = new FileMetrics(null, null);
+
+	private final ScanMetrics metrics;
+	private final Object file;
+	private final long[] nanos = new long[ScanMetrics.Stage.values().length];
+	private long bytesRead;
+	private long bytesWritten;
+
+	FileMetrics(ScanMetrics metrics, Object file) {
+		this.metrics = metrics;
+		this.file = file;
+	}
+
+	public static long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records the time since start for the stage.
+	 */
+	public void stop(ScanMetrics.Stage stage, long start) {
+		if (metrics == null) {
+			return;
+		}
+		long elapsed = System.nanoTime() - start;
+		synchronized (nanos) {
+			nanos[stage.ordinal()] += elapsed;
+		}
+		metrics.record(stage, elapsed);
+	}
+
+	public synchronized void read(long bytes) {
+		if (metrics != null) {
+			bytesRead += bytes;
+		}
+	}
+
+	public synchronized void written(long bytes) {
+		if (metrics != null) {
+			bytesWritten += bytes;
+		}
+	}
+
+	public synchronized long getBytesRead() {
+		return bytesRead;
+	}
+
+	public synchronized long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	public long getNanos(ScanMetrics.Stage stage) {
+		synchronized (nanos) {
+			return nanos[stage.ordinal()];
+		}
+	}
+
+	/**
+	 * Adds the file to the totals of the scan.
+	 */
+	public void finish() {
+		if (metrics != null) {
+			metrics.finish(this, getTotalNanos());
+		}
+	}
+
+	public long getTotalNanos() {
+		long total = 0;
+		synchronized (nanos) {
+			for (long stageNanos : nanos) {
+				total += stageNanos;
+			}
+		}
+		return total;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(String.valueOf(file)).append(" - ")
+				.append(ScanMetrics.formatNanos(getTotalNanos()));
+		for (ScanMetrics.Stage stage : ScanMetrics.Stage.values()) {
+			long stageNanos = getNanos(stage);
+			if (stageNanos > 0) {
+				builder.append(", ").append(stage.name().toLowerCase()).append(' ')
+						.append(ScanMetrics.formatNanos(stageNanos));
+			}
+		}
+		return builder.toString();
+	}
+}
@@ -10,6 +10,7 @@ public abstract class FileTagsEditor {
 	protected TagsData tagsData;
 	protected String fileName;
 	protected MusicFileData musicFileData;
+	protected FileMetrics metrics = FileMetrics.NONE;
 
 	protected FileTagsEditor(TagsData tagsData, String fileName, MusicFileData musicFileData) {
 		this.tagsData = tagsData;
@@ -29,7 +30,46 @@ public abstract class FileTagsEditor {
 		return musicFileData;
 	}
 
-	public abstract void updateTags(boolean renameFile);
+	/**
+	 * @param metrics where the stages of the file are timed
+	 */
+	public void setMetrics(FileMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @return track number, the first digit of the last part or 1
+	 */
+	public int getTrack() {
+		int track = 1;
+		for (String part : new String[]{musicFileData.getPart1(), musicFileData.getPart2()}) {
+			if (part != null && !part.isEmpty()) {
+				track = Integer.parseInt(part.substring(0, 1));
+			}
+		}
+		return track;
+	}
+
+	public String getTitle() {
+		String parts = MusicBase.getParts(musicFileData.getPart1(), musicFileData.getPart2());
+		return musicFileData.getName() + " - " + MusicBase.formatDate(musicFileData.getDate()) +
+				(parts.length() > 0 ? " - " + parts : "");
+	}
+
+	public String getAlbum() {
+		return MusicBase.formatDate(musicFileData.getDate());
+	}
+
+	public int getYear() {
+		return MusicBase.getYear(musicFileData.getDate());
+	}
+
+	/**
+	 * @return true if tags were saved and, when requested, the file was renamed
+	 */
+	public abstract boolean updateTags(boolean renameFile);
+
+	public abstract boolean renameFile();
 
 	public abstract String getNewFileName();
 }
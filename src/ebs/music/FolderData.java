@@ -0,0 +1,21 @@
+package ebs.music;
+
+public class FolderData {
+	public static final FolderData ROOT = new FolderData(MusicBase.NO_DATE, null);
+
+	private int date;
+	private String name;
+
+	public FolderData(int date, String name) {
+		this.date = date;
+		this.name = name;
+	}
+
+	public int getDate() {
+		return date;
+	}
+
+	public String getName() {
+		return name;
+	}
+}
@@ -0,0 +1,86 @@
+package ebs.music;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of nanosecond latencies in the HdrHistogram layout: every power of two range is split into
+ * 32 linear sub-buckets, so any recorded value is reported within about 3% of its true value from nanoseconds up
+ * to hours with a fixed array of counters.
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(index(value));
+		count.incrementAndGet();
+		total.addAndGet(value);
+		for (long current = max.get(); value > current && !max.compareAndSet(current, value); current = max.get()) {
+			// retry
+		}
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getTotal() {
+		return total.get();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		long n = count.get();
+		return n == 0 ? 0 : (double) total.get() / n;
+	}
+
+	/**
+	 * @param percentile 0..100
+	 * @return highest value of the bucket that holds the percentile, 0 if nothing is recorded
+	 */
+	public long getPercentile(double percentile) {
+		long n = count.get();
+		if (n == 0) {
+			return 0;
+		}
+
+		long target = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= target) {
+				return Math.min(highestValue(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	private static int index(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		return SUB_BUCKETS + shift * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	private static long highestValue(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+		long mantissa = SUB_BUCKETS + (index - SUB_BUCKETS) % SUB_BUCKETS;
+		return ((mantissa + 1) << shift) - 1;
+	}
+}
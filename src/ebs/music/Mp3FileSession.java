@@ -0,0 +1,71 @@
+package ebs.music;
+
+import com.beaglebuddy.mp3.MP3;
+import com.mpatric.mp3agic.Mp3File;
+
+import java.io.File;
+
+/**
+ * Everything the editor needs from one mp3 file: tags are read once on first use, audio stream info is probed
+ * once on first use (Xing/VBRI header or a few frames, without parsing the tags) and cached. So the new file name
+ * can be computed, e.g. for a {@link RenamePlan}, without reading the tags at all. Tag frames are parsed lazily:
+ * pictures and other frames the editor never looks at are written back as they were read.
+ */
+public class Mp3FileSession {
+	private final String fileName;
+	private MP3 tags;
+	private boolean tagsRead;
+	private String bitrate;
+
+	public Mp3FileSession(String fileName) {
+		this.fileName = fileName;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public boolean isReadable() {
+		return getTags() != null;
+	}
+
+	/**
+	 * @return parsed tags or null if the file cannot be read
+	 */
+	public synchronized MP3 getTags() {
+		if (!tagsRead) {
+			tagsRead = true;
+			try {
+				tags = new MP3(new File(fileName), true);
+			} catch (Exception e) {
+				tags = null;
+			}
+		}
+		return tags;
+	}
+
+	/**
+	 * @return "VBR", bitrate in kbps or empty string if the audio stream cannot be read
+	 */
+	public synchronized String getBitrate() {
+		if (bitrate == null) {
+			bitrate = scanBitrate();
+		}
+		return bitrate;
+	}
+
+	private String scanBitrate() {
+		Mp3File mp3File;
+		try {
+			mp3File = new Mp3File(fileName, Mp3File.DEFAULT_BUFFER_LENGTH, true, false, true, false);
+		} catch (Exception e) {
+			return "";
+		}
+
+		if (mp3File.isVbr()) {
+			return "VBR";
+		}
+
+		return Integer.toString(mp3File.getBitrate());
+	}
+}
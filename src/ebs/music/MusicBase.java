@@ -1,7 +1,5 @@
 package ebs.music;
 
-import java.text.SimpleDateFormat;
-
 /**
  * Created by Aleksey Dubov
  * Date: 3/7/13
@@ -9,7 +7,21 @@ import java.text.SimpleDateFormat;
  * Copyright (c) 2013
  */
 public class MusicBase {
-	public static final SimpleDateFormat TRUE_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
+	public static final DatePattern TRUE_DATE_FORMAT = new DatePattern("yyyy-MM-dd");
+
+	// dates are days since 1970-01-01, see DatePattern
+	public static final int NO_DATE = Integer.MIN_VALUE;
+
+	public static String formatDate(int date) {
+		return TRUE_DATE_FORMAT.format(date);
+	}
+
+	public static int getYear(int date) {
+		if (date == NO_DATE) {
+			throw new IllegalArgumentException("No date");
+		}
+		return DatePattern.getYear(date);
+	}
 
 	public static String getParts(String part1, String part2) {
 		return (part1.isEmpty() ? "" : "part " + part1) + (part2.isEmpty() ? "" : " & " + part2);
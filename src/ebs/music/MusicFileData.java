@@ -1,7 +1,5 @@
 package ebs.music;
 
-import java.util.Date;
-
 /**
  * Created by Aleksey Dubov
  * Date: 14/02/20
@@ -9,21 +7,31 @@ import java.util.Date;
  * Copyright (c) 2014
  */
 public class MusicFileData {
-	private Date date;
+	private int date;
 	private String name;
 	private String part1;
 	private String part2;
 	private String extension;
+	private int pattern;
+
+	public MusicFileData(int date, String name, String part1, String part2, String extension) {
+		this(date, name, part1, part2, extension, -1);
+	}
 
-	public MusicFileData(Date date, String name, String part1, String part2, String extension) {
+	/**
+	 * @param date days since 1970-01-01 or {@link MusicBase#NO_DATE}
+	 * @param pattern index of the file name pattern that matched, -1 if unknown
+	 */
+	public MusicFileData(int date, String name, String part1, String part2, String extension, int pattern) {
 		this.date = date;
 		this.name = name;
 		this.part1 = part1;
 		this.part2 = part2;
 		this.extension = extension;
+		this.pattern = pattern;
 	}
 
-	public Date getDate() {
+	public int getDate() {
 		return date;
 	}
 
@@ -42,4 +50,8 @@ public class MusicFileData {
 	public String getExtension() {
 		return extension;
 	}
+
+	public int getPattern() {
+		return pattern;
+	}
 }
@@ -1,6 +1,5 @@
 package ebs.music;
 
-import java.text.SimpleDateFormat;
 import java.util.regex.Pattern;
 
 /**
@@ -11,17 +10,17 @@ import java.util.regex.Pattern;
 */
 public class MusicFileNamePattern {
 	private Pattern pattern;
-	private SimpleDateFormat dateFormat;
+	private DateParser dateParser;
 	private Integer date;
 	private Integer name;
 	private Integer part1;
 	private Integer part2;
 	private Integer extension;
 
-	public MusicFileNamePattern(Pattern pattern, SimpleDateFormat dateFormat, Integer date, Integer name,
+	public MusicFileNamePattern(Pattern pattern, DateParser dateParser, Integer date, Integer name,
 								Integer part1, Integer part2, Integer extension) {
 		this.pattern = pattern;
-		this.dateFormat = dateFormat;
+		this.dateParser = dateParser;
 		this.date = date;
 		this.name = name;
 		this.part1 = part1;
@@ -33,8 +32,8 @@ public class MusicFileNamePattern {
 		return pattern;
 	}
 
-	public SimpleDateFormat getDateFormat() {
-		return dateFormat;
+	public DateParser getDateParser() {
+		return dateParser;
 	}
 
 	public Integer getDate() {
@@ -0,0 +1,508 @@
+package ebs.music;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An ordered set of file name patterns compiled for matching. Every pattern gets the literal strings any match
+ * of it must contain (e.g. " - " and " Part "), taken from the regular expression. A file name missing one of
+ * them is rejected by a plain substring check, so the regular expression, with all of its {@code .+}
+ * backtracking, only runs for the few patterns that can match. The result is the same as trying every pattern
+ * in order.
+ *
+ * Hits, misses, prefilter rejections and regular expression time are counted per pattern. In adaptive mode
+ * ({@link #ADAPTIVE_PROPERTY}) patterns are tried in order of their recent hits, but a pattern declared to
+ * precede another one is always tried first. Every pair of patterns that can match the same file name with a
+ * different result has to be declared, then the order only changes where it does not matter. Without any
+ * declaration nothing is reordered. Patterns are found anywhere in the name, so two of them can only be left
+ * undeclared if their anchors or literals rule out a common match; ".+" on both sides of a date matches a name
+ * with another date spliced in.
+ */
+public class MusicFileNamePatternSet {
+	public static final String ADAPTIVE_PROPERTY = "ebs.music.adaptive";
+
+	// (?i) and the like change how the literals after them match
+	private static final Pattern INLINE_FLAGS = Pattern.compile("\\(\\?-?[a-zA-Z]");
+
+	// matches between two reorderings, recent hits are halved on every reordering
+	private static final int REORDER_INTERVAL = 1024;
+
+	private final MusicFileNamePattern[] patterns;
+	private final String[][] literals;
+	private final boolean[][] precedes;
+	private final AtomicLongArray hits;
+	private final AtomicLongArray misses;
+	private final AtomicLongArray skips;
+	private final AtomicLongArray nanos;
+	private final AtomicLongArray recentHits;
+	private final AtomicInteger matches = new AtomicInteger();
+	private final int[] sourceOrder;
+	private volatile int[] order;
+	private volatile boolean adaptive = Boolean.getBoolean(ADAPTIVE_PROPERTY);
+
+	public MusicFileNamePatternSet(MusicFileNamePattern[] patterns) {
+		this(patterns, null);
+	}
+
+	/**
+	 * @param precedence rows of pattern indexes, the first pattern of a row is tried before the others;
+	 *                   null keeps the source order in adaptive mode too
+	 */
+	public MusicFileNamePatternSet(MusicFileNamePattern[] patterns, int[][] precedence) {
+		this(patterns, precedence, literals(patterns));
+	}
+
+	/**
+	 * @param literals literals of every pattern computed before, see {@link #requiredLiterals(String)}
+	 */
+	MusicFileNamePatternSet(MusicFileNamePattern[] patterns, int[][] precedence, String[][] literals) {
+		if (literals.length != patterns.length) {
+			throw new IllegalArgumentException("Literals do not match patterns");
+		}
+		this.patterns = patterns.clone();
+		this.literals = literals.clone();
+
+		precedes = new boolean[patterns.length][patterns.length];
+		sourceOrder = new int[patterns.length];
+		for (int i = 0; i < patterns.length; i++) {
+			sourceOrder[i] = i;
+			for (int j = i + 1; j < patterns.length; j++) {
+				precedes[i][j] = precedence == null;
+			}
+		}
+		if (precedence != null) {
+			for (int[] row : precedence) {
+				for (int k = 1; k < row.length; k++) {
+					// the source order always has to be valid
+					if (row[0] >= row[k]) {
+						throw new IllegalArgumentException("Pattern " + row[0] + " cannot precede " + row[k]);
+					}
+					precedes[row[0]][row[k]] = true;
+				}
+			}
+		}
+		hits = new AtomicLongArray(patterns.length);
+		misses = new AtomicLongArray(patterns.length);
+		skips = new AtomicLongArray(patterns.length);
+		nanos = new AtomicLongArray(patterns.length);
+		recentHits = new AtomicLongArray(patterns.length);
+		order = sourceOrder;
+	}
+
+	public int size() {
+		return patterns.length;
+	}
+
+	public MusicFileNamePattern get(int index) {
+		return patterns[index];
+	}
+
+	/**
+	 * @return literals every match of the pattern contains
+	 */
+	public String[] getLiterals(int index) {
+		return literals[index].clone();
+	}
+
+	public boolean isAdaptive() {
+		return adaptive;
+	}
+
+	public void setAdaptive(boolean adaptive) {
+		this.adaptive = adaptive;
+		if (!adaptive) {
+			order = sourceOrder;
+		}
+	}
+
+	/**
+	 * @return the first pattern from the given index on, in source order, that finds something in the file name,
+	 * or null
+	 */
+	public Match match(String fileName, int from) {
+		return match(fileName, sourceOrder, from);
+	}
+
+	/**
+	 * Tries the patterns in the current order.
+	 *
+	 * @param previous match the caller could not use or null to start from the first pattern
+	 * @return the next pattern that finds something in the file name, or null
+	 */
+	public Match match(String fileName, Match previous) {
+		if (previous != null) {
+			return match(fileName, previous.order, previous.position + 1);
+		}
+
+		if (adaptive && matches.incrementAndGet() % REORDER_INTERVAL == 0) {
+			reorder();
+		}
+		return match(fileName, order, 0);
+	}
+
+	private Match match(String fileName, int[] order, int from) {
+		for (int position = from; position < order.length; position++) {
+			int i = order[position];
+			if (!containsAll(fileName, literals[i])) {
+				skips.incrementAndGet(i);
+				continue;
+			}
+
+			long start = System.nanoTime();
+			Matcher matcher = patterns[i].getPattern().matcher(fileName);
+			List<MatchResult> results = null;
+			while (matcher.find()) {
+				if (results == null) {
+					results = new ArrayList<MatchResult>(1);
+				}
+				results.add(matcher.toMatchResult());
+			}
+			nanos.addAndGet(i, System.nanoTime() - start);
+
+			if (results != null) {
+				hits.incrementAndGet(i);
+				recentHits.incrementAndGet(i);
+				return new Match(i, patterns[i], results, order, position);
+			}
+			misses.incrementAndGet(i);
+		}
+		return null;
+	}
+
+	/**
+	 * @return pattern indexes in the order they are tried now
+	 */
+	public int[] getOrder() {
+		return order.clone();
+	}
+
+	/**
+	 * Orders the patterns by hits since the last reordering, the patterns that have to precede a pattern are put
+	 * just before it.
+	 */
+	public void reorder() {
+		final long[] recent = new long[patterns.length];
+		Integer[] byHits = new Integer[patterns.length];
+		for (int i = 0; i < patterns.length; i++) {
+			recent[i] = recentHits.get(i);
+			recentHits.addAndGet(i, -recent[i] / 2);
+			byHits[i] = i;
+		}
+		Arrays.sort(byHits, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer first, Integer second) {
+				return recent[first] != recent[second] ? Long.compare(recent[second], recent[first]) :
+						Integer.compare(first, second);
+			}
+		});
+
+		List<Integer> newOrder = new ArrayList<Integer>(patterns.length);
+		boolean[] placed = new boolean[patterns.length];
+		for (int i : byHits) {
+			place(i, placed, newOrder);
+		}
+		if (adaptive) {
+			int[] array = new int[patterns.length];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = newOrder.get(i);
+			}
+			order = array;
+		}
+	}
+
+	private void place(int pattern, boolean[] placed, List<Integer> newOrder) {
+		if (placed[pattern]) {
+			return;
+		}
+		for (int i = 0; i < pattern; i++) {
+			if (precedes[i][pattern]) {
+				place(i, placed, newOrder);
+			}
+		}
+		placed[pattern] = true;
+		newOrder.add(pattern);
+	}
+
+	public long getHits(int index) {
+		return hits.get(index);
+	}
+
+	/**
+	 * @return times the regular expression ran and found nothing
+	 */
+	public long getMisses(int index) {
+		return misses.get(index);
+	}
+
+	/**
+	 * @return times the pattern was rejected by its literals without running the regular expression
+	 */
+	public long getSkips(int index) {
+		return skips.get(index);
+	}
+
+	public long getNanos(int index) {
+		return nanos.get(index);
+	}
+
+	/**
+	 * @return indexes of the patterns that never matched
+	 */
+	public List<Integer> getDeadPatterns() {
+		List<Integer> dead = new ArrayList<Integer>();
+		for (int i = 0; i < patterns.length; i++) {
+			if (hits.get(i) == 0) {
+				dead.add(i);
+			}
+		}
+		return dead;
+	}
+
+	/**
+	 * @return one line per pattern with its counters, followed by the patterns that never matched
+	 */
+	public String report() {
+		StringBuilder report = new StringBuilder();
+		long attempts = 0;
+		long files = 0;
+		for (int i = 0; i < patterns.length; i++) {
+			attempts += hits.get(i) + misses.get(i);
+			files += hits.get(i);
+			report.append(String.format("%3d: hits %d, misses %d, skipped %d, %.3f ms  %s%n", i, hits.get(i),
+					misses.get(i), skips.get(i), nanos.get(i) / 1e6, patterns[i].getPattern().pattern()));
+		}
+		report.append(String.format("Regular expressions per match: %.2f%n",
+				files == 0 ? 0.0 : (double) attempts / files));
+		report.append("Never matched: ").append(getDeadPatterns());
+		return report.toString();
+	}
+
+	private static String[][] literals(MusicFileNamePattern[] patterns) {
+		String[][] literals = new String[patterns.length][];
+		for (int i = 0; i < patterns.length; i++) {
+			List<String> required = patterns[i].getPattern().flags() == 0 ?
+					requiredLiterals(patterns[i].getPattern().pattern()) : Collections.<String>emptyList();
+			literals[i] = required.toArray(new String[required.size()]);
+		}
+		return literals;
+	}
+
+	private static boolean containsAll(String fileName, String[] literals) {
+		for (String literal : literals) {
+			if (!fileName.contains(literal)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Collects runs of literal characters that are not optional. Anything not understood (alternation, quoting,
+	 * lookaround) is treated as matching any text, so the result may be incomplete but is never wrong.
+	 */
+	static List<String> requiredLiterals(String regex) {
+		List<String> literals = new ArrayList<String>();
+		if (INLINE_FLAGS.matcher(regex).find() || !collectLiterals(regex, 0, regex.length(), literals)) {
+			literals.clear();
+		}
+		return literals;
+	}
+
+	private static boolean collectLiterals(String regex, int start, int end, List<String> literals) {
+		StringBuilder run = new StringBuilder();
+		int i = start;
+		while (i < end) {
+			char c = regex.charAt(i);
+			int atomEnd;
+			Character literal = null;
+			List<String> groupLiterals = null;
+
+			if (c == '\\') {
+				if (i + 1 >= end) {
+					return false;
+				}
+				char escaped = regex.charAt(i + 1);
+				if (escaped == 'Q' || escaped == 'E') {
+					return false;
+				}
+				if (!Character.isLetterOrDigit(escaped)) {
+					literal = escaped;
+				}
+				atomEnd = i + 2;
+			} else if (c == '(') {
+				int close = closingParenthesis(regex, i, end);
+				if (close < 0) {
+					return false;
+				}
+				if (regex.charAt(i + 1) != '?') {
+					groupLiterals = new ArrayList<String>();
+					if (!collectLiterals(regex, i + 1, close, groupLiterals)) {
+						groupLiterals = null;
+					}
+				}
+				atomEnd = close + 1;
+			} else if (c == '[') {
+				atomEnd = closingBracket(regex, i, end);
+				if (atomEnd < 0) {
+					return false;
+				}
+			} else if (c == '|') {
+				return false;
+			} else if (c == '.' || c == '^' || c == '$') {
+				atomEnd = i + 1;
+			} else if (c == '*' || c == '+' || c == '?' || c == '{' || c == ')') {
+				return false;
+			} else {
+				literal = c;
+				atomEnd = i + 1;
+			}
+
+			int quantifierEnd = quantifierEnd(regex, atomEnd, end);
+			if (quantifierEnd < 0) {
+				return false;
+			}
+			boolean quantified = quantifierEnd > atomEnd;
+			boolean optional = quantified && minimum(regex, atomEnd) == 0;
+
+			if (literal != null && !optional) {
+				run.append(literal.charValue());
+			}
+			if (literal == null || quantified) {
+				flush(run, literals);
+			}
+			if (groupLiterals != null && !optional) {
+				literals.addAll(groupLiterals);
+			}
+			i = quantifierEnd;
+		}
+		flush(run, literals);
+		return true;
+	}
+
+	private static void flush(StringBuilder run, List<String> literals) {
+		if (run.length() > 0) {
+			literals.add(run.toString());
+			run.setLength(0);
+		}
+	}
+
+	private static int closingParenthesis(String regex, int open, int end) {
+		int depth = 0;
+		for (int i = open; i < end; i++) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '[') {
+				i = closingBracket(regex, i, end) - 1;
+				if (i < 0) {
+					return -1;
+				}
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')' && --depth == 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int closingBracket(String regex, int open, int end) {
+		int i = open + 1;
+		if (i < end && regex.charAt(i) == '^') {
+			i++;
+		}
+		if (i < end && regex.charAt(i) == ']') {
+			i++;
+		}
+		for (; i < end; i++) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '[') {
+				return -1;
+			} else if (c == ']') {
+				return i + 1;
+			}
+		}
+		return -1;
+	}
+
+	private static int quantifierEnd(String regex, int i, int end) {
+		if (i >= end) {
+			return i;
+		}
+		char c = regex.charAt(i);
+		if (c == '{') {
+			int close = regex.indexOf('}', i);
+			if (close < 0 || close >= end) {
+				return -1;
+			}
+			i = close + 1;
+		} else if (c == '*' || c == '+' || c == '?') {
+			i++;
+		} else {
+			return i;
+		}
+		if (i < end && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+			i++;
+		}
+		return i;
+	}
+
+	private static int minimum(String regex, int i) {
+		char c = regex.charAt(i);
+		if (c == '+') {
+			return 1;
+		}
+		if (c == '{') {
+			int stop = i + 1;
+			while (Character.isDigit(regex.charAt(stop))) {
+				stop++;
+			}
+			return stop == i + 1 ? 0 : Integer.parseInt(regex.substring(i + 1, stop));
+		}
+		return 0;
+	}
+
+	public static class Match {
+		private final int index;
+		private final MusicFileNamePattern pattern;
+		private final List<MatchResult> results;
+		private final int[] order;
+		private final int position;
+
+		private Match(int index, MusicFileNamePattern pattern, List<MatchResult> results, int[] order, int position) {
+			this.index = index;
+			this.pattern = pattern;
+			this.results = results;
+			this.order = order;
+			this.position = position;
+		}
+
+		/**
+		 * @return index of the pattern in the set
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		public MusicFileNamePattern getPattern() {
+			return pattern;
+		}
+
+		/**
+		 * @return every match found in the file name, in order
+		 */
+		public List<MatchResult> getResults() {
+			return results;
+		}
+	}
+}
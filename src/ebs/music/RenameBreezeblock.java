@@ -1,9 +1,10 @@
 package ebs.music;
 
 import java.io.File;
+import java.io.IOException;
 import java.text.ParseException;
-import java.util.Date;
 import java.util.logging.Logger;
+import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -41,93 +42,106 @@ public class RenameBreezeblock {
 					MusicBase.TRUE_DATE_FORMAT, 0, 2, 1, 0, 3),
 	};
 
-	public static final Pattern BREEZEBLOCK_FOLDER_PATTERN = Pattern.compile("(\\d\\d\\d\\d-\\d\\d-\\d\\d) .+ - (.+)");
-
-	public static void main(String[] args) {
-		String basePath = new File(".").getAbsolutePath();
-
-		if (args.length == 0) {
-			LOGGER.warning("No basePath specified! Working with current.");
-		}
-
-		LOGGER.info("Current basePath: " + basePath);
-
-		File baseDirectory = new File(basePath);
-		if (!baseDirectory.isDirectory()) {
-			LOGGER.warning("Base directory is not a directory! Quiting...");
-			return;
-		}
+	// no precedence: the patterns are not anchored, so every pair of them matches some name (e.g. "02 mix" (7)
+	// in front of "1999-01-18 Breezeblock - Bentley Rhythm Ace 1.mp3" (8)) and only the source order gives
+	// the same result in adaptive mode
+	public static final MusicFileNamePatternSet BREEZEBLOCK_PATTERN_SET =
+			new MusicFileNamePatternSet(BREEZEBLOCK_PATTERNS);
 
-		scanDirectory(baseDirectory, null, null);
-	}
-
-	private static void scanDirectory(File baseDirectory, Date bDate, String bName) {
-		File[] subFiles = baseDirectory.listFiles();
-		if (subFiles == null) {
-			LOGGER.warning("Given directory is invalid! Nothing to check!");
-			return;
-		}
-
-		for (File subFile : subFiles) {
-			if (subFile.isDirectory()) {
-				String ssDate = null;
-				String ssName = null;
+	public static final Pattern BREEZEBLOCK_FOLDER_PATTERN = Pattern.compile("(\\d\\d\\d\\d-\\d\\d-\\d\\d) .+ - (.+)");
 
-				Matcher matcher = BREEZEBLOCK_FOLDER_PATTERN.matcher(subFile.getName());
-				while (matcher.find()) {
-					ssDate = matcher.group(1);
-					ssName = matcher.group(2);
-				}
+	public static final ScanRules BREEZEBLOCK_RULES = new ScanRules() {
+		@Override
+		public FolderData enterDirectory(String directoryName, FolderData parent) {
+			String ssDate = null;
+			String ssName = null;
 
-				try {
-					scanDirectory(subFile, MusicBase.TRUE_DATE_FORMAT.parse(ssDate), ssName);
-				} catch (ParseException e) {
-					LOGGER.warning(e.getMessage());
-				}
-				continue;
+			Matcher matcher = BREEZEBLOCK_FOLDER_PATTERN.matcher(directoryName);
+			while (matcher.find()) {
+				ssDate = matcher.group(1);
+				ssName = matcher.group(2);
 			}
 
-			TagsData tagsData = new TagsData("Breezeblock", MusicBase.TRUE_DATE_FORMAT, "Electronic");
-
-			BeagleBuddyFileTagsEditor editor = null;
+			try {
+				return new FolderData(ssDate == null ? MusicBase.NO_DATE : MusicBase.TRUE_DATE_FORMAT.parse(ssDate),
+						ssName);
+			} catch (ParseException e) {
+				LOGGER.warning(e.getMessage());
+				return null;
+			}
+		}
 
+		@Override
+		public MusicFileData matchFile(String fileName, FolderData folder) {
+			int bDate = folder.getDate();
+			String bName = folder.getName();
+			MusicFileData fileData = null;
 
-			for (MusicFileNamePattern pattern : BREEZEBLOCK_PATTERNS) {
+			for (MusicFileNamePatternSet.Match match = BREEZEBLOCK_PATTERN_SET.match(fileName, null); match != null;
+				 match = BREEZEBLOCK_PATTERN_SET.match(fileName, match)) {
+				MusicFileNamePattern pattern = match.getPattern();
 				try {
-
-					Matcher matcher = pattern.getPattern().matcher(subFile.getName());
-					while (matcher.find()) {
-						Date date = pattern.getDate() != 0 ?
-								pattern.getDateFormat().parse(matcher.group(pattern.getDate())) : bDate;
-						if (date == null) {
+					for (MatchResult matcher : match.getResults()) {
+						int date = pattern.getDate() != 0 ?
+								pattern.getDateParser().parse(matcher.group(pattern.getDate())) : bDate;
+						if (date == MusicBase.NO_DATE) {
 							continue;
 						}
 						String name = matcher.group(pattern.getName());
 						String part1 = pattern.getPart1() == 0 ? "" : matcher.group(pattern.getPart1());
 						String part2 = pattern.getPart2() == 0 ? "" : matcher.group(pattern.getPart2());
 
-						MusicFileData fileData =
+						fileData =
 								new MusicFileData(
 										date,
 										bName == null ? name : (bName.equals(name) ? name : bName + " - " + name),
 										part1,
 										part2,
-										matcher.group(pattern.getExtension()));
-						editor = new BeagleBuddyFileTagsEditor(tagsData, subFile.getAbsolutePath(), fileData);
+										matcher.group(pattern.getExtension()),
+										match.getIndex());
 					}
-					if (editor != null) {
+					if (fileData != null) {
 						break;
 					}
 				} catch (ParseException e) {
-					LOGGER.warning("File: " + subFile.getName() + " - " + e.getMessage());
+					LOGGER.warning("File: " + fileName + " - " + e.getMessage());
 				}
 			}
 
+			return fileData;
+		}
 
-			if (editor != null) {
-				LOGGER.info(subFile.getName() + " -> " + editor.getNewFileName());
-				editor.updateTags(true);
-			}
+		@Override
+		public FileTagsEditor createEditor(String fileName, MusicFileData musicFileData) {
+			TagsData tagsData = new TagsData("Breezeblock", MusicBase.TRUE_DATE_FORMAT, "Electronic");
+			return new BeagleBuddyFileTagsEditor(tagsData, fileName, musicFileData);
+		}
+	};
+
+	public static void main(String[] args) {
+		String basePath = new File(".").getAbsolutePath();
+
+		if (args.length == 0) {
+			LOGGER.warning("No basePath specified! Working with current.");
+		}
+
+		LOGGER.info("Current basePath: " + basePath);
+
+		File baseDirectory = new File(basePath);
+		if (!baseDirectory.isDirectory()) {
+			LOGGER.warning("Base directory is not a directory! Quiting...");
+			return;
+		}
+
+		try (RenameJournal journal = new RenameJournal(baseDirectory.toPath().resolve(RenameJournal.FILE_NAME));
+			 FileIndex index = new FileIndex(baseDirectory.toPath().resolve(FileIndex.FILE_NAME))) {
+			DirectoryScanner scanner =
+					new DirectoryScanner(BREEZEBLOCK_RULES, DirectoryScanner.getDefaultWorkers(), journal, index);
+			RenamePlan.planOrRun(scanner, baseDirectory.toPath());
+			LOGGER.info("File name patterns:\n" + BREEZEBLOCK_PATTERN_SET.report());
+			LOGGER.info("Stages:\n" + scanner.getMetrics().report());
+		} catch (IOException e) {
+			LOGGER.warning("Given directory is invalid! " + e.getMessage());
 		}
 	}
 }
@@ -0,0 +1,333 @@
+package ebs.music;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Write-ahead journal of tag updates and renames. Every file goes through PLANNED (new name is known) -> TAGGED
+ * (tags are written) -> DONE (file is renamed). Records are buffered and written to disk by {@link #sync()},
+ * so a whole batch of files costs one fsync per step. When a run is interrupted, the next run with the same
+ * journal renames TAGGED files whose new name is still the same without writing their tags again.
+ * {@link #rollback()} moves renamed files back to their old names (UNDONE), tags are not restored. The journal is
+ * compacted on close when no file is left TAGGED and most of it is stale: only the renames that can still be
+ * rolled back are kept.
+ */
+public class RenameJournal implements Closeable {
+	private static final Logger LOGGER = Logger.getLogger(RenameJournal.class.getName());
+
+	public static final String FILE_NAME = ".rename.journal";
+
+	private static final char PLANNED = 'P';
+	private static final char TAGGED = 'T';
+	private static final char RENAMED = 'R';
+	private static final char UNDONE = 'U';
+
+	public enum State {
+		NEW, PLANNED, TAGGED, DONE, UNDONE
+	}
+
+	private final Path path;
+	private final FileChannel channel;
+	private final Map<String, State> states = new HashMap<String, State>();
+	private final Map<String, Path> targets = new HashMap<String, Path>();
+	private final List<String[]> renames = new ArrayList<String[]>();
+	private final StringBuilder pending = new StringBuilder();
+	private int records;
+
+	public RenameJournal(Path path) throws IOException {
+		this.path = path.toAbsolutePath();
+		channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		load();
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	public synchronized State getState(Path file) {
+		State state = states.get(key(file));
+		return state == null ? State.NEW : state;
+	}
+
+	/**
+	 * @return new name planned for the file or null if there is none
+	 */
+	public synchronized Path getTarget(Path file) {
+		return targets.get(key(file));
+	}
+
+	public synchronized void planned(Path file, Path target) {
+		append(PLANNED, key(file), target.toAbsolutePath().normalize().toString());
+	}
+
+	public synchronized void tagged(Path file) {
+		append(TAGGED, key(file), null);
+	}
+
+	public synchronized void renamed(Path file) {
+		append(RENAMED, key(file), null);
+	}
+
+	/**
+	 * Writes all records appended since the last call and forces them to disk.
+	 */
+	public synchronized void sync() throws IOException {
+		if (pending.length() == 0) {
+			return;
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(pending.toString().getBytes(StandardCharsets.UTF_8));
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, channel.size());
+		}
+		channel.force(false);
+		pending.setLength(0);
+	}
+
+	/**
+	 * Marks TAGGED files that were renamed just before a crash (the old file is gone and the new one exists)
+	 * as DONE, since they will not be found by the next scan.
+	 */
+	public synchronized void recover() throws IOException {
+		for (Map.Entry<String, State> entry : new ArrayList<Map.Entry<String, State>>(states.entrySet())) {
+			if (entry.getValue() == State.TAGGED) {
+				Path file = Paths.get(entry.getKey());
+				if (!Files.exists(file) && Files.exists(targets.get(entry.getKey()))) {
+					append(RENAMED, entry.getKey(), null);
+				}
+			}
+		}
+		sync();
+	}
+
+	/**
+	 * Moves renamed files back to their old names, newest first.
+	 *
+	 * @return number of files moved back
+	 */
+	public synchronized int rollback() throws IOException {
+		int count = 0;
+		List<Path> directories = new ArrayList<Path>();
+		for (int i = renames.size() - 1; i >= 0; i--) {
+			String[] rename = renames.get(i);
+			Path file = Paths.get(rename[0]);
+			Path target = Paths.get(rename[1]);
+			if (states.get(rename[0]) != State.DONE || !target.equals(targets.get(rename[0]))) {
+				continue;
+			}
+			if (Files.exists(file) || !Files.exists(target)) {
+				LOGGER.warning("Cannot roll back: " + target + " -> " + file);
+				continue;
+			}
+
+			Files.move(target, file);
+			directories.add(file.getParent());
+			directories.add(target.getParent());
+			append(UNDONE, rename[0], null);
+			count++;
+		}
+		syncDirectories(directories);
+		sync();
+		return count;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			sync();
+		} finally {
+			channel.close();
+		}
+
+		// PLANNED files are not resumed, their tags are written again by the next scan
+		Map<String, Path> done = getDone();
+		int compacted = 2 * done.size();
+		if (!states.containsValue(State.TAGGED) && records > 2 * compacted + 1024) {
+			compact(done);
+		}
+	}
+
+	/**
+	 * Forces directory entries (renames) to disk, once per directory. Not every platform can open
+	 * a directory for that, in which case nothing is done.
+	 */
+	public static void syncDirectories(Collection<Path> directories) {
+		for (Path directory : new LinkedHashSet<Path>(directories)) {
+			try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+				directoryChannel.force(true);
+			} catch (IOException e) {
+				// not supported on this platform
+			}
+		}
+	}
+
+	private void load() throws IOException {
+		// not closed, it would close the channel
+		InputStream input = new BufferedInputStream(Channels.newInputStream(channel));
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		long position = 0;
+		long length = 0;
+		for (int b = input.read(); b >= 0; b = input.read()) {
+			position++;
+			if (b != '\n') {
+				line.write(b);
+				continue;
+			}
+			if (line.size() > 0) {
+				apply(new String(line.toByteArray(), StandardCharsets.UTF_8));
+				line.reset();
+			}
+			length = position;
+		}
+
+		// the last line may have been cut by a crash, drop it
+		if (length < position) {
+			channel.truncate(length);
+		}
+	}
+
+	/**
+	 * @return old and new names of the files that are renamed, in the order of their last rename
+	 */
+	private Map<String, Path> getDone() {
+		Map<String, Path> done = new LinkedHashMap<String, Path>();
+		for (String[] rename : renames) {
+			done.remove(rename[0]);
+			if (states.get(rename[0]) == State.DONE && Paths.get(rename[1]).equals(targets.get(rename[0]))) {
+				done.put(rename[0], targets.get(rename[0]));
+			}
+		}
+		return done;
+	}
+
+	/**
+	 * Rewrites the journal with a PLANNED and a RENAMED record for every renamed file, so they can still be
+	 * rolled back. Files that were rolled back or only planned are dropped.
+	 */
+	private void compact(Map<String, Path> done) throws IOException {
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+			for (Map.Entry<String, Path> entry : done.entrySet()) {
+				String file = escape(entry.getKey());
+				writer.write(PLANNED + "\t" + file + "\t" + escape(entry.getValue().toString()) + "\n");
+				writer.write(RENAMED + "\t" + file + "\n");
+			}
+		}
+		try (FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+			tempChannel.force(false);
+		}
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		syncDirectories(Collections.singleton(path.getParent()));
+		records = 2 * done.size();
+	}
+
+	private void append(char type, String file, String target) {
+		String line = type + "\t" + escape(file) + (target == null ? "" : "\t" + escape(target));
+		apply(line);
+		pending.append(line).append('\n');
+	}
+
+	private void apply(String line) {
+		String[] fields = line.split("\t");
+		String file = unescape(fields[1]);
+		records++;
+		switch (line.charAt(0)) {
+			case PLANNED:
+				states.put(file, State.PLANNED);
+				targets.put(file, Paths.get(unescape(fields[2])));
+				break;
+			case TAGGED:
+				states.put(file, State.TAGGED);
+				break;
+			case RENAMED:
+				states.put(file, State.DONE);
+				renames.add(new String[]{file, targets.get(file).toString()});
+				break;
+			case UNDONE:
+				// the file is back under its old name: it is not resumed, only a new scan may rename it again
+				states.put(file, State.UNDONE);
+				targets.remove(file);
+				break;
+			default:
+				LOGGER.warning("Unknown journal record: " + line);
+		}
+	}
+
+	/**
+	 * Records are tab separated lines, so tabs, line breaks and backslashes in paths (legal on most file systems)
+	 * are written as \t, \n, \r and \\.
+	 */
+	private static String escape(String value) {
+		StringBuilder escaped = null;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			String replacement = c == '\\' ? "\\\\" : c == '\t' ? "\\t" : c == '\n' ? "\\n" : c == '\r' ? "\\r" : null;
+			if (replacement != null && escaped == null) {
+				escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+			}
+			if (escaped != null) {
+				if (replacement != null) {
+					escaped.append(replacement);
+				} else {
+					escaped.append(c);
+				}
+			}
+		}
+		return escaped == null ? value : escaped.toString();
+	}
+
+	private static String unescape(String value) {
+		if (value.indexOf('\\') < 0) {
+			return value;
+		}
+
+		StringBuilder unescaped = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\' && i + 1 < value.length()) {
+				char next = value.charAt(++i);
+				c = next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next;
+			}
+			unescaped.append(c);
+		}
+		return unescaped.toString();
+	}
+
+	private static String key(Path file) {
+		return file.toAbsolutePath().normalize().toString();
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			LOGGER.warning("Usage: RenameJournal <journal file> - moves renamed files back to their old names");
+			return;
+		}
+
+		try (RenameJournal journal = new RenameJournal(Paths.get(args[0]))) {
+			LOGGER.info("Rolled back: " + journal.rollback());
+		}
+	}
+}
@@ -0,0 +1,288 @@
+package ebs.music;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Renames and tags a scan would write, computed from file names and the audio header only (see
+ * {@link DirectoryScanner#plan}), so a large change can be reviewed as a CSV file before anything is touched.
+ * {@link DirectoryScanner#execute} then updates the planned files only, and skips a file whose new name is no
+ * longer the planned one. Rows can be removed from the file to leave files alone.
+ */
+public class RenamePlan {
+	private static final Logger LOGGER = Logger.getLogger(RenamePlan.class.getName());
+
+	public static final String PLAN_PROPERTY = "ebs.music.plan";
+	public static final String EXECUTE_PROPERTY = "ebs.music.execute";
+
+	private static final String HEADER = "file,target,pattern,band,title,album,year,genre,track";
+
+	private final List<Entry> entries = new ArrayList<Entry>();
+
+	public List<Entry> getEntries() {
+		return Collections.unmodifiableList(entries);
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public void add(Entry entry) {
+		entries.add(entry);
+	}
+
+	/**
+	 * @return planned new name of every file
+	 */
+	public Map<Path, Path> getTargets() {
+		Map<Path, Path> targets = new LinkedHashMap<Path, Path>();
+		for (Entry entry : entries) {
+			targets.put(entry.file, entry.target);
+		}
+		return targets;
+	}
+
+	/**
+	 * Writes the plan to the file given by the {@link #PLAN_PROPERTY} system property, or executes the plan
+	 * read from the file given by {@link #EXECUTE_PROPERTY}, otherwise see {@link DirectoryWatcher#scanOrWatch}.
+	 */
+	public static void planOrRun(DirectoryScanner scanner, Path baseDirectory) throws IOException {
+		String planFile = System.getProperty(PLAN_PROPERTY);
+		String executeFile = System.getProperty(EXECUTE_PROPERTY);
+		if (planFile != null) {
+			RenamePlan plan = scanner.plan(baseDirectory);
+			plan.write(Paths.get(planFile));
+			LOGGER.info("Planned " + plan.size() + " files to " + planFile);
+		} else if (executeFile != null) {
+			RenamePlan plan = read(Paths.get(executeFile));
+			LOGGER.info("Executing " + plan.size() + " files from " + executeFile);
+			scanner.execute(baseDirectory, plan);
+		} else {
+			DirectoryWatcher.scanOrWatch(scanner, baseDirectory);
+		}
+	}
+
+	public void write(Path path) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			writer.write(HEADER);
+			writer.newLine();
+			StringBuilder line = new StringBuilder();
+			for (Entry entry : entries) {
+				line.setLength(0);
+				appendField(line, entry.file.toString()).append(',');
+				appendField(line, entry.target.toString()).append(',');
+				line.append(entry.pattern).append(',');
+				appendField(line, entry.band).append(',');
+				appendField(line, entry.title).append(',');
+				appendField(line, entry.album).append(',');
+				line.append(entry.year).append(',');
+				appendField(line, entry.genre).append(',');
+				line.append(entry.track);
+				writer.append(line);
+				writer.newLine();
+			}
+		}
+	}
+
+	public static RenamePlan read(Path path) throws IOException {
+		RenamePlan plan = new RenamePlan();
+		try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			String line = reader.readLine();
+			if (!HEADER.equals(line)) {
+				throw new IOException(path + ": not a rename plan");
+			}
+
+			int number = 1;
+			while ((line = readRecord(reader)) != null) {
+				number++;
+				int start = number;
+				// a quoted field may go on over several lines
+				number += countLineBreaks(line);
+				if (line.isEmpty()) {
+					continue;
+				}
+
+				List<String> fields = parseFields(line);
+				if (fields.size() != 9) {
+					throw new IOException(path + ":" + start + ": expected 9 fields, found " + fields.size());
+				}
+				try {
+					plan.add(new Entry(Paths.get(fields.get(0)), Paths.get(fields.get(1)),
+							Integer.parseInt(fields.get(2)), fields.get(3), fields.get(4), fields.get(5),
+							Integer.parseInt(fields.get(6)), fields.get(7), Integer.parseInt(fields.get(8))));
+				} catch (NumberFormatException e) {
+					throw new IOException(path + ":" + start + ": " + e.getMessage());
+				}
+			}
+		}
+		return plan;
+	}
+
+	private static StringBuilder appendField(StringBuilder line, String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 &&
+				value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return line.append(value);
+		}
+		return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+	}
+
+	/**
+	 * @return the next record without its line break, line breaks inside quoted fields are kept; null at the end
+	 */
+	private static String readRecord(BufferedReader reader) throws IOException {
+		StringBuilder record = new StringBuilder();
+		boolean quoted = false;
+		int c;
+		while ((c = reader.read()) >= 0) {
+			if (!quoted && (c == '\n' || c == '\r')) {
+				if (c == '\r') {
+					reader.mark(1);
+					if (reader.read() != '\n') {
+						reader.reset();
+					}
+				}
+				return record.toString();
+			}
+			// a doubled quote inside a quoted field toggles twice
+			if (c == '"') {
+				quoted = !quoted;
+			}
+			record.append((char) c);
+		}
+		return record.length() == 0 ? null : record.toString();
+	}
+
+	private static int countLineBreaks(String record) {
+		int count = 0;
+		for (int i = 0; i < record.length(); i++) {
+			char c = record.charAt(i);
+			if (c == '\n' || c == '\r' && (i + 1 == record.length() || record.charAt(i + 1) != '\n')) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static List<String> parseFields(String line) throws IOException {
+		List<String> fields = new ArrayList<String>();
+		StringBuilder field = new StringBuilder();
+		int i = 0;
+		while (true) {
+			field.setLength(0);
+			if (i < line.length() && line.charAt(i) == '"') {
+				for (i++; ; i++) {
+					if (i >= line.length()) {
+						throw new IOException("Unterminated quote: " + line);
+					}
+					char c = line.charAt(i);
+					if (c == '"') {
+						if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+							i++;
+						} else {
+							i++;
+							break;
+						}
+					}
+					field.append(c);
+				}
+			} else {
+				while (i < line.length() && line.charAt(i) != ',') {
+					field.append(line.charAt(i++));
+				}
+			}
+			fields.add(field.toString());
+
+			if (i >= line.length()) {
+				return fields;
+			}
+			if (line.charAt(i) != ',') {
+				throw new IOException("Unexpected character after a quoted field: " + line);
+			}
+			i++;
+		}
+	}
+
+	public static class Entry {
+		private final Path file;
+		private final Path target;
+		private final int pattern;
+		private final String band;
+		private final String title;
+		private final String album;
+		private final int year;
+		private final String genre;
+		private final int track;
+
+		public Entry(Path file, Path target, int pattern, String band, String title, String album, int year,
+					 String genre, int track) {
+			this.file = file.toAbsolutePath().normalize();
+			this.target = target.toAbsolutePath().normalize();
+			this.pattern = pattern;
+			this.band = band;
+			this.title = title;
+			this.album = album;
+			this.year = year;
+			this.genre = genre;
+			this.track = track;
+		}
+
+		/**
+		 * @param target  new name of the file, see {@link FileTagsEditor#getNewFileName()}
+		 * @param pattern index of the file name pattern, -1 if unknown
+		 */
+		public static Entry of(Path file, Path target, int pattern, FileTagsEditor editor) {
+			TagsData tagsData = editor.getTagsData();
+			String genre = tagsData.getGenre() != null ? tagsData.getGenre() :
+					tagsData.getGenreNumber() != null ? tagsData.getGenreNumber().toString() : "";
+			return new Entry(file, target, pattern, tagsData.getBand(), editor.getTitle(),
+					editor.getAlbum(), editor.getYear(), genre, editor.getTrack());
+		}
+
+		public Path getFile() {
+			return file;
+		}
+
+		public Path getTarget() {
+			return target;
+		}
+
+		public int getPattern() {
+			return pattern;
+		}
+
+		public String getBand() {
+			return band;
+		}
+
+		public String getTitle() {
+			return title;
+		}
+
+		public String getAlbum() {
+			return album;
+		}
+
+		public int getYear() {
+			return year;
+		}
+
+		public String getGenre() {
+			return genre;
+		}
+
+		public int getTrack() {
+			return track;
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package ebs.music;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.logging.Logger;
+
+/**
+ * Renames the shows of a rule file, see {@link ShowRules}: RenameShow rules-file [base-path]
+ *
+ * With a directory of rule files instead, every top level directory of the base path is the show of the same
+ * name, see {@link ShowRulesDirectory}.
+ */
+public class RenameShow {
+	private static final Logger LOGGER = Logger.getLogger(RenameShow.class.getName());
+
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			LOGGER.warning("No rule file specified! Quiting...");
+			return;
+		}
+
+		String basePath = new File(args.length > 1 ? args[1] : ".").getAbsolutePath();
+		LOGGER.info("Current basePath: " + basePath);
+
+		File baseDirectory = new File(basePath);
+		if (!baseDirectory.isDirectory()) {
+			LOGGER.warning("Base directory is not a directory! Quiting...");
+			return;
+		}
+
+		Path rulesPath = Paths.get(args[0]);
+		ShowRulesDirectory rulesDirectory = null;
+		ScanRules rules;
+		try {
+			if (Files.isDirectory(rulesPath)) {
+				rulesDirectory = new ShowRulesDirectory(rulesPath);
+				rules = rulesDirectory;
+				LOGGER.info("Shows: " + rulesDirectory.getRules());
+			} else {
+				rules = ShowRules.load(rulesPath);
+				LOGGER.info("Show: " + rules);
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			LOGGER.warning("Cannot load rules " + args[0] + " - " + e.getMessage());
+			return;
+		}
+
+		try (RenameJournal journal = new RenameJournal(baseDirectory.toPath().resolve(RenameJournal.FILE_NAME));
+			 FileIndex index = new FileIndex(baseDirectory.toPath().resolve(FileIndex.FILE_NAME))) {
+			DirectoryScanner scanner =
+					new DirectoryScanner(rules, DirectoryScanner.getDefaultWorkers(), journal, index);
+			RenamePlan.planOrRun(scanner, baseDirectory.toPath());
+			for (ShowRules showRules : rulesDirectory != null ? rulesDirectory.getRules() :
+					Collections.singletonList((ShowRules) rules)) {
+				LOGGER.info(showRules.getShow() + " file name patterns:\n" + showRules.getPatternSet().report());
+			}
+			LOGGER.info("Stages:\n" + scanner.getMetrics().report());
+		} catch (IOException e) {
+			LOGGER.warning("Given directory is invalid! " + e.getMessage());
+		}
+	}
+}
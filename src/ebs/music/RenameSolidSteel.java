@@ -1,11 +1,10 @@
 package ebs.music;
 
 import java.io.File;
+import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
 import java.util.logging.Logger;
+import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -18,15 +17,15 @@ import java.util.regex.Pattern;
 public class RenameSolidSteel {
 	private static final Logger LOGGER = Logger.getLogger(RenameSolidSteel.class.getName());
 
-	private static final SimpleDateFormat SRC1_DATE_FORMAT = new SimpleDateFormat("dd.MM.yy");
-	private static final SimpleDateFormat SRC4_DATE_FORMAT = new SimpleDateFormat("dd_MM_yyyy");
-	private static final SimpleDateFormat SRC6_DATE_FORMAT = new SimpleDateFormat("dd-MMM-yy", Locale.ENGLISH);
-	private static final SimpleDateFormat SRC8_DATE_FORMAT = new SimpleDateFormat("dd-MM-yy");
-	private static final SimpleDateFormat SRC11_DATE_FORMAT = new SimpleDateFormat("dd-MM-yyyy");
-	private static final SimpleDateFormat SRC12_DATE_FORMAT = new SimpleDateFormat("yyyy MMM dd", Locale.ENGLISH);
-	private static final SimpleDateFormat SRC16_DATE_FORMAT = new SimpleDateFormat("dMyyyy");
-	private static final SimpleDateFormat SRC17_DATE_FORMAT = new SimpleDateFormat("ddMMyyyy");
-	private static final SimpleDateFormat SRC18_DATE_FORMAT = new SimpleDateFormat("dMMyyyy");
+	private static final DatePattern SRC1_DATE_FORMAT = new DatePattern("dd.MM.yy");
+	private static final DatePattern SRC4_DATE_FORMAT = new DatePattern("dd_MM_yyyy");
+	private static final DatePattern SRC6_DATE_FORMAT = new DatePattern("dd-MMM-yy");
+	private static final DatePattern SRC8_DATE_FORMAT = new DatePattern("dd-MM-yy");
+	private static final DatePattern SRC11_DATE_FORMAT = new DatePattern("dd-MM-yyyy");
+	private static final DatePattern SRC12_DATE_FORMAT = new DatePattern("yyyy MMM dd");
+	private static final DatePattern SRC16_DATE_FORMAT = new DatePattern("dMyyyy");
+	private static final DatePattern SRC17_DATE_FORMAT = new DatePattern("ddMMyyyy");
+	private static final DatePattern SRC18_DATE_FORMAT = new DatePattern("dMMyyyy");
 	private static final Pattern SRC12_DATE_PATTERN = Pattern.compile("(..._\\d\\d\\))-2cd[r]-(\\d\\d\\d\\d)");
 
 	public static final MusicFileNamePattern[] SOLID_STEEL_PATTERNS = new MusicFileNamePattern[]{
@@ -56,15 +55,15 @@ public class RenameSolidSteel {
 					SRC11_DATE_FORMAT, 1, 3, 2, 0, 4),
 			new MusicFileNamePattern(
 					Pattern.compile("0(\\d)..+.-.(.+)..(..._\\d\\d\\)-2[cC][dD]?-\\d\\d\\d\\d)(.+)?(\\....)"), //12
-					new SimpleDateFormat() {
+					new DateParser() {
 						@Override
-						public Date parse(String text) throws ParseException {
+						public int parse(String text) throws ParseException {
 							Matcher matcher = SRC12_DATE_PATTERN.matcher(text);
 							if (matcher.find()) {
 								return SRC12_DATE_FORMAT.parse(matcher.group(2) + " " +
 										matcher.group(1).replace("_", " "));
 							}
-							return null;
+							return MusicBase.NO_DATE;
 						}
 					}, 3, 2, 1, 0, 5
 			),
@@ -88,77 +87,87 @@ public class RenameSolidSteel {
 					SRC18_DATE_FORMAT, 1, 4, 2, 3, 5),
 	};
 
-	private static final Pattern SOLID_STEEL_FOLDER_PATTERN = Pattern.compile("\\d\\d.\\d\\d.\\d\\d - (.+)");
-
-	public static void main(String[] args) {
+	// no precedence: the patterns are not anchored, so every pair of them matches a name with two date forms
+	// (e.g. "04.10.13 - Solid Steel Radio Show 4-10-2013 Part 1 + 2 - DJ Food.mp3") and only the source order
+	// gives the same result in adaptive mode
+	public static final MusicFileNamePatternSet SOLID_STEEL_PATTERN_SET =
+			new MusicFileNamePatternSet(SOLID_STEEL_PATTERNS);
 
-		String basePath = new File(".").getAbsolutePath();
-
-		if (args.length == 0) {
-			LOGGER.warning("No basePath specified! Working with current.");
-		}
-
-		LOGGER.info("Current basePath: " + basePath);
-
-		File baseDirectory = new File(basePath);
-		if (!baseDirectory.isDirectory()) {
-			LOGGER.warning("Base directory is not a directory! Quiting...");
-			return;
-		}
-
-		scanDirectory(baseDirectory, null);
-	}
-
-	private static void scanDirectory(File baseDirectory, String name) {
-		File[] subFiles = baseDirectory.listFiles();
-		if (subFiles == null) {
-			LOGGER.warning("Given directory is invalid! Nothing to check!");
-			return;
-		}
-
-		for (File subFile : subFiles) {
-			if (subFile.isDirectory()) {
-				String ssName = null;
+	private static final Pattern SOLID_STEEL_FOLDER_PATTERN = Pattern.compile("\\d\\d.\\d\\d.\\d\\d - (.+)");
 
-				Matcher matcher = SOLID_STEEL_FOLDER_PATTERN.matcher(subFile.getName());
-				while (matcher.find()) {
-					ssName = matcher.group(1);
-				}
+	public static final ScanRules SOLID_STEEL_RULES = new ScanRules() {
+		@Override
+		public FolderData enterDirectory(String directoryName, FolderData parent) {
+			String ssName = null;
 
-				scanDirectory(subFile, ssName);
-				continue;
+			Matcher matcher = SOLID_STEEL_FOLDER_PATTERN.matcher(directoryName);
+			while (matcher.find()) {
+				ssName = matcher.group(1);
 			}
 
-			TagsData tagsData = new TagsData("Solid Steel", MusicBase.TRUE_DATE_FORMAT, "Electronic");
+			return new FolderData(MusicBase.NO_DATE, ssName);
+		}
 
-			BeagleBuddyFileTagsEditor editor = null;
+		@Override
+		public MusicFileData matchFile(String fileName, FolderData folder) {
+			String name = folder.getName();
+			MusicFileData fileData = null;
 
-			for (MusicFileNamePattern pattern : SOLID_STEEL_PATTERNS) {
+			for (MusicFileNamePatternSet.Match match = SOLID_STEEL_PATTERN_SET.match(fileName, null); match != null;
+				 match = SOLID_STEEL_PATTERN_SET.match(fileName, match)) {
+				MusicFileNamePattern pattern = match.getPattern();
 				try {
-
-					Matcher matcher = pattern.getPattern().matcher(subFile.getName());
-					while (matcher.find()) {
-						Date date = pattern.getDateFormat().parse(matcher.group(pattern.getDate()));
+					for (MatchResult matcher : match.getResults()) {
+						int date = pattern.getDateParser().parse(matcher.group(pattern.getDate()));
 						String part1 = pattern.getPart1() == 0 ? "" : matcher.group(pattern.getPart1());
 						String part2 = pattern.getPart2() == 0 ? "" : matcher.group(pattern.getPart2());
 
-						MusicFileData fileData =
-								new MusicFileData(date, name == null ? matcher.group(pattern.getName()) : name, part1,
-										part2, matcher.group(pattern.getExtension()));
-						editor = new BeagleBuddyFileTagsEditor(tagsData, subFile.getAbsolutePath(), fileData);
+						fileData = new MusicFileData(date, name == null ? matcher.group(pattern.getName()) : name, part1,
+								part2, matcher.group(pattern.getExtension()), match.getIndex());
 					}
-					if (editor != null) {
+					if (fileData != null) {
 						break;
 					}
 				} catch (ParseException e) {
-					LOGGER.warning("File: " + subFile.getName() + " - " + e.getMessage());
+					LOGGER.warning("File: " + fileName + " - " + e.getMessage());
 				}
 			}
 
-			if (editor != null) {
-				LOGGER.info(subFile.getName() + " -> " + editor.getNewFileName());
-				editor.updateTags(true);
-			}
+			return fileData;
+		}
+
+		@Override
+		public FileTagsEditor createEditor(String fileName, MusicFileData musicFileData) {
+			TagsData tagsData = new TagsData("Solid Steel", MusicBase.TRUE_DATE_FORMAT, "Electronic");
+			return new BeagleBuddyFileTagsEditor(tagsData, fileName, musicFileData);
+		}
+	};
+
+	public static void main(String[] args) {
+
+		String basePath = new File(".").getAbsolutePath();
+
+		if (args.length == 0) {
+			LOGGER.warning("No basePath specified! Working with current.");
+		}
+
+		LOGGER.info("Current basePath: " + basePath);
+
+		File baseDirectory = new File(basePath);
+		if (!baseDirectory.isDirectory()) {
+			LOGGER.warning("Base directory is not a directory! Quiting...");
+			return;
+		}
+
+		try (RenameJournal journal = new RenameJournal(baseDirectory.toPath().resolve(RenameJournal.FILE_NAME));
+			 FileIndex index = new FileIndex(baseDirectory.toPath().resolve(FileIndex.FILE_NAME))) {
+			DirectoryScanner scanner =
+					new DirectoryScanner(SOLID_STEEL_RULES, DirectoryScanner.getDefaultWorkers(), journal, index);
+			RenamePlan.planOrRun(scanner, baseDirectory.toPath());
+			LOGGER.info("File name patterns:\n" + SOLID_STEEL_PATTERN_SET.report());
+			LOGGER.info("Stages:\n" + scanner.getMetrics().report());
+		} catch (IOException e) {
+			LOGGER.warning("Given directory is invalid! " + e.getMessage());
 		}
 	}
 }
@@ -0,0 +1,153 @@
+package ebs.music;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Where the time of a scan goes: a latency histogram per {@link Stage}, files done and bytes read and written by
+ * tags updates. Every file is timed through its own {@link FileMetrics}, a file that took longer than the
+ * {@link #SLOW_PROPERTY} milliseconds is logged with its stage breakdown. {@link #report()} is logged at the end
+ * of a run; with the {@link #JMX_PROPERTY} system property set the metrics of the last scanner are also available
+ * as the {@link #OBJECT_NAME} MBean.
+ */
+public class ScanMetrics implements ScanMetricsMBean {
+	private static final Logger LOGGER = Logger.getLogger(ScanMetrics.class.getName());
+
+	public static final String SLOW_PROPERTY = "ebs.music.slow";
+	public static final String JMX_PROPERTY = "ebs.music.jmx";
+	public static final String OBJECT_NAME = "ebs.music:type=ScanMetrics";
+
+	public enum Stage {
+		/** walking a directory */
+		LIST,
+		/** matching a file name */
+		MATCH,
+		/** probing the audio stream for the bitrate */
+		PROBE,
+		/** parsing the tags */
+		TAGS,
+		/** saving the tags */
+		SAVE,
+		/** renaming the file */
+		RENAME
+	}
+
+	private static final Stage[] STAGES = Stage.values();
+
+	private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+	private final LatencyHistogram files = new LatencyHistogram();
+	private final AtomicLong bytesRead = new AtomicLong();
+	private final AtomicLong bytesWritten = new AtomicLong();
+	private final AtomicLong slowFiles = new AtomicLong();
+	private final long slowNanos = Long.getLong(SLOW_PROPERTY, 5000) * 1000000;
+
+	public ScanMetrics() {
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+	public FileMetrics startFile(Object file) {
+		return new FileMetrics(this, file);
+	}
+
+	public void record(Stage stage, long nanos) {
+		histograms[stage.ordinal()].record(nanos);
+	}
+
+	public LatencyHistogram getHistogram(Stage stage) {
+		return histograms[stage.ordinal()];
+	}
+
+	void finish(FileMetrics file, long nanos) {
+		files.record(nanos);
+		bytesRead.addAndGet(file.getBytesRead());
+		bytesWritten.addAndGet(file.getBytesWritten());
+		if (nanos >= slowNanos) {
+			slowFiles.incrementAndGet();
+			LOGGER.warning("Slow file: " + file);
+		}
+	}
+
+	@Override
+	public long getFiles() {
+		return files.getCount();
+	}
+
+	@Override
+	public long getBytesRead() {
+		return bytesRead.get();
+	}
+
+	@Override
+	public long getBytesWritten() {
+		return bytesWritten.get();
+	}
+
+	@Override
+	public long getSlowFiles() {
+		return slowFiles.get();
+	}
+
+	@Override
+	public long getPercentile(String stage, double percentile) {
+		return getHistogram(Stage.valueOf(stage.toUpperCase(Locale.ROOT))).getPercentile(percentile);
+	}
+
+	/**
+	 * @return one line per stage with count, mean, p50, p90, p99 and max, then files, bytes and slow files
+	 */
+	@Override
+	public String getReport() {
+		return report();
+	}
+
+	public String report() {
+		StringBuilder builder = new StringBuilder();
+		for (Stage stage : STAGES) {
+			appendLine(builder, stage.name(), histograms[stage.ordinal()]);
+		}
+		appendLine(builder, "FILE", files);
+		builder.append(String.format(Locale.ROOT, "read %.1f MiB, written %.1f MiB, slow files %d",
+				getBytesRead() / 1048576.0, getBytesWritten() / 1048576.0, getSlowFiles()));
+		return builder.toString();
+	}
+
+	/**
+	 * Registers the metrics as the {@link #OBJECT_NAME} MBean, replacing the metrics registered before.
+	 */
+	public void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(this, name);
+		} catch (JMException e) {
+			LOGGER.warning("Cannot register metrics: " + e.getMessage());
+		}
+	}
+
+	private static void appendLine(StringBuilder builder, String name, LatencyHistogram histogram) {
+		builder.append(String.format(Locale.ROOT, "%-6s %8d  mean %9s  p50 %9s  p90 %9s  p99 %9s  max %9s%n", name,
+				histogram.getCount(), formatNanos(histogram.getMean()), formatNanos(histogram.getPercentile(50)),
+				formatNanos(histogram.getPercentile(90)), formatNanos(histogram.getPercentile(99)),
+				formatNanos(histogram.getMax())));
+	}
+
+	static String formatNanos(double nanos) {
+		if (nanos < 1000000) {
+			return String.format(Locale.ROOT, "%.1f us", nanos / 1000);
+		}
+		if (nanos < 1000000000) {
+			return String.format(Locale.ROOT, "%.1f ms", nanos / 1000000);
+		}
+		return String.format(Locale.ROOT, "%.2f s", nanos / 1000000000);
+	}
+}
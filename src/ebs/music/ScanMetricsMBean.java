@@ -0,0 +1,21 @@
+package ebs.music;
+
+/**
+ * JMX view of {@link ScanMetrics}.
+ */
+public interface ScanMetricsMBean {
+	long getFiles();
+
+	long getBytesRead();
+
+	long getBytesWritten();
+
+	long getSlowFiles();
+
+	String getReport();
+
+	/**
+	 * @return nanoseconds of the percentile (0..100) of the stage
+	 */
+	long getPercentile(String stage, double percentile);
+}
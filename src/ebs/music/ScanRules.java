@@ -0,0 +1,19 @@
+package ebs.music;
+
+/**
+ * Show specific rules used by {@link DirectoryScanner}. Implementations are shared between worker threads
+ * and must not keep any per file state.
+ */
+public interface ScanRules {
+	/**
+	 * @return folder data for the files of the directory or null if the directory has to be skipped
+	 */
+	FolderData enterDirectory(String directoryName, FolderData parent);
+
+	/**
+	 * @return parsed file name or null if no pattern matches the file name
+	 */
+	MusicFileData matchFile(String fileName, FolderData folder);
+
+	FileTagsEditor createEditor(String fileName, MusicFileData musicFileData);
+}
@@ -0,0 +1,398 @@
+package ebs.music;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scan rules of a show read from a rule file, so a new show needs no code. The file has one "key = value" per
+ * line and # comments; values are taken as they are, regular expressions need no escaping:
+ *
+ * <pre>
+ * show = Breezeblock
+ * genre = Electronic
+ * folder.pattern = (\d\d\d\d-\d\d-\d\d) .+ - (.+)
+ * folder.groups = 1 2                          # date, name
+ * folder.name = prefix                         # prefix or replace the file name part
+ * date.format = yyyy-MM-dd                     # default for folder and files
+ * file.0.pattern = (\d\d\d\d-\d\d-\d\d) .+ - (.+)(\..+)
+ * file.0.groups = 1 2 0 0 3                    # date, name, part 1, part 2, extension
+ * file.0.date.format = yyyy-MM-dd              # optional
+ * precedence = 0 1 2; 4 8                      # see MusicFileNamePatternSet
+ * </pre>
+ *
+ * A # after whitespace starts a comment.
+ *
+ * The compiled form is cached in a binary file next to the rule file and used as long as the rule file has
+ * the same size and modification time.
+ */
+public class ShowRules implements ScanRules {
+	private static final Logger LOGGER = Logger.getLogger(ShowRules.class.getName());
+
+	public static final String EXTENSION = ".rules";
+	public static final String CACHE_EXTENSION = ".cache";
+
+	private static final int MAGIC = 0x52554C31; // RUL1
+
+	private final Path source;
+	private final String show;
+	private final String genre;
+	private final Pattern folderPattern;
+	private final int folderDate;
+	private final int folderName;
+	private final DatePattern folderDateFormat;
+	private final boolean replaceName;
+	private final MusicFileNamePatternSet patternSet;
+
+	private ShowRules(Path source, String show, String genre, Pattern folderPattern, int folderDate, int folderName,
+					  DatePattern folderDateFormat, boolean replaceName, MusicFileNamePatternSet patternSet) {
+		this.source = source;
+		this.show = show;
+		this.genre = genre;
+		this.folderPattern = folderPattern;
+		this.folderDate = folderDate;
+		this.folderName = folderName;
+		this.folderDateFormat = folderDateFormat;
+		this.replaceName = replaceName;
+		this.patternSet = patternSet;
+	}
+
+	/**
+	 * Loads the rules from the cache if it is up to date, otherwise from the rule file, writing a new cache.
+	 */
+	public static ShowRules load(Path file) throws IOException {
+		file = file.toAbsolutePath();
+		BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+		Path cache = file.resolveSibling(file.getFileName() + CACHE_EXTENSION);
+
+		if (Files.exists(cache)) {
+			try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cache)))) {
+				if (input.readInt() == MAGIC && input.readLong() == attrs.size() &&
+						input.readLong() == attrs.lastModifiedTime().toMillis()) {
+					return read(file, input);
+				}
+			} catch (IOException | RuntimeException e) {
+				LOGGER.warning("Cannot read cache " + cache + " - " + e);
+			}
+		}
+
+		Definition definition = parse(file, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+		try {
+			Path temp = cache.resolveSibling(cache.getFileName() + ".tmp");
+			try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				output.writeInt(MAGIC);
+				output.writeLong(attrs.size());
+				output.writeLong(attrs.lastModifiedTime().toMillis());
+				definition.write(output);
+			}
+			Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOGGER.warning("Cannot write cache " + cache + " - " + e.getMessage());
+		}
+		return definition.compile(file);
+	}
+
+	/**
+	 * Parses and compiles a rule file without touching the cache.
+	 */
+	public static ShowRules parse(Path file) throws IOException {
+		file = file.toAbsolutePath();
+		return parse(file, new String(Files.readAllBytes(file), StandardCharsets.UTF_8)).compile(file);
+	}
+
+	public Path getSource() {
+		return source;
+	}
+
+	public String getShow() {
+		return show;
+	}
+
+	public String getGenre() {
+		return genre;
+	}
+
+	public MusicFileNamePatternSet getPatternSet() {
+		return patternSet;
+	}
+
+	@Override
+	public FolderData enterDirectory(String directoryName, FolderData parent) {
+		String date = null;
+		String name = null;
+
+		if (folderPattern != null) {
+			Matcher matcher = folderPattern.matcher(directoryName);
+			while (matcher.find()) {
+				date = folderDate == 0 ? null : matcher.group(folderDate);
+				name = folderName == 0 ? null : matcher.group(folderName);
+			}
+		}
+
+		try {
+			return new FolderData(date == null ? MusicBase.NO_DATE : folderDateFormat.parse(date), name);
+		} catch (ParseException e) {
+			LOGGER.warning(e.getMessage());
+			return null;
+		}
+	}
+
+	@Override
+	public MusicFileData matchFile(String fileName, FolderData folder) {
+		String folderName = folder.getName();
+		MusicFileData fileData = null;
+
+		for (MusicFileNamePatternSet.Match match = patternSet.match(fileName, null); match != null;
+			 match = patternSet.match(fileName, match)) {
+			MusicFileNamePattern pattern = match.getPattern();
+			try {
+				for (MatchResult matcher : match.getResults()) {
+					int date = pattern.getDate() != 0 ?
+							pattern.getDateParser().parse(matcher.group(pattern.getDate())) : folder.getDate();
+					if (date == MusicBase.NO_DATE) {
+						continue;
+					}
+					String name = matcher.group(pattern.getName());
+					if (folderName != null && !folderName.equals(name)) {
+						name = replaceName ? folderName : folderName + " - " + name;
+					}
+					String part1 = pattern.getPart1() == 0 ? "" : matcher.group(pattern.getPart1());
+					String part2 = pattern.getPart2() == 0 ? "" : matcher.group(pattern.getPart2());
+
+					fileData = new MusicFileData(date, name, part1, part2, matcher.group(pattern.getExtension()),
+							match.getIndex());
+				}
+				if (fileData != null) {
+					break;
+				}
+			} catch (ParseException e) {
+				LOGGER.warning("File: " + fileName + " - " + e.getMessage());
+			}
+		}
+
+		return fileData;
+	}
+
+	@Override
+	public FileTagsEditor createEditor(String fileName, MusicFileData musicFileData) {
+		TagsData tagsData = new TagsData(show, MusicBase.TRUE_DATE_FORMAT, genre);
+		return new BeagleBuddyFileTagsEditor(tagsData, fileName, musicFileData);
+	}
+
+	@Override
+	public String toString() {
+		return show + " (" + source + ")";
+	}
+
+	private static Definition parse(Path file, String text) {
+		Map<String, String> values = new HashMap<String, String>();
+		String[] lines = text.split("\r?\n");
+		for (int i = 0; i < lines.length; i++) {
+			String line = lines[i].trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			int equals = line.indexOf('=');
+			if (equals < 0) {
+				throw new IllegalArgumentException(file + ":" + (i + 1) + ": key = value expected");
+			}
+			String value = line.substring(equals + 1);
+			// a comment has to be separated by whitespace, # is common in regular expressions
+			int comment = value.indexOf(" #");
+			values.put(line.substring(0, equals).trim(), (comment < 0 ? value : value.substring(0, comment)).trim());
+		}
+
+		Definition definition = new Definition();
+		definition.show = required(file, values, "show");
+		definition.genre = values.containsKey("genre") ? values.get("genre") : "Other";
+		String dateFormat = values.containsKey("date.format") ? values.get("date.format") : "yyyy-MM-dd";
+		definition.folderPattern = values.containsKey("folder.pattern") ? values.get("folder.pattern") : "";
+		int[] folderGroups = groups(file, values, "folder.groups", 2);
+		definition.folderDate = folderGroups[0];
+		definition.folderName = folderGroups[1];
+		definition.folderDateFormat = values.containsKey("folder.date.format") ?
+				values.get("folder.date.format") : dateFormat;
+		String nameMode = values.containsKey("folder.name") ? values.get("folder.name") : "prefix";
+		if (!nameMode.equals("prefix") && !nameMode.equals("replace")) {
+			throw new IllegalArgumentException(file + ": folder.name is prefix or replace, not " + nameMode);
+		}
+		definition.replaceName = nameMode.equals("replace");
+
+		for (int i = 0; values.containsKey("file." + i + ".pattern"); i++) {
+			String prefix = "file." + i + ".";
+			String regex = values.get(prefix + "pattern");
+			definition.patterns.add(regex);
+			definition.dateFormats.add(values.containsKey(prefix + "date.format") ?
+					values.get(prefix + "date.format") : dateFormat);
+			definition.groups.add(groups(file, values, prefix + "groups", 5));
+			definition.literals.add(MusicFileNamePatternSet.requiredLiterals(regex).toArray(new String[0]));
+		}
+		if (definition.patterns.isEmpty()) {
+			throw new IllegalArgumentException(file + ": no file.0.pattern");
+		}
+
+		if (values.containsKey("precedence")) {
+			for (String row : values.get("precedence").split(";")) {
+				definition.precedence.add(numbers(file, "precedence", row));
+			}
+		}
+		return definition;
+	}
+
+	private static ShowRules read(Path file, DataInputStream input) throws IOException {
+		Definition definition = new Definition();
+		definition.show = input.readUTF();
+		definition.genre = input.readUTF();
+		definition.folderPattern = input.readUTF();
+		definition.folderDate = input.readInt();
+		definition.folderName = input.readInt();
+		definition.folderDateFormat = input.readUTF();
+		definition.replaceName = input.readBoolean();
+		int patterns = input.readInt();
+		for (int i = 0; i < patterns; i++) {
+			definition.patterns.add(input.readUTF());
+			definition.dateFormats.add(input.readUTF());
+			definition.groups.add(readInts(input));
+			String[] literals = new String[input.readInt()];
+			for (int j = 0; j < literals.length; j++) {
+				literals[j] = input.readUTF();
+			}
+			definition.literals.add(literals);
+		}
+		int rows = input.readInt();
+		for (int i = 0; i < rows; i++) {
+			definition.precedence.add(readInts(input));
+		}
+		return definition.compile(file);
+	}
+
+	private static String required(Path file, Map<String, String> values, String key) {
+		String value = values.get(key);
+		if (value == null || value.isEmpty()) {
+			throw new IllegalArgumentException(file + ": " + key + " is missing");
+		}
+		return value;
+	}
+
+	private static int[] groups(Path file, Map<String, String> values, String key, int count) {
+		if (!values.containsKey(key)) {
+			if (key.startsWith("folder")) {
+				return new int[count];
+			}
+			throw new IllegalArgumentException(file + ": " + key + " is missing");
+		}
+		int[] groups = numbers(file, key, values.get(key));
+		if (groups.length != count) {
+			throw new IllegalArgumentException(file + ": " + key + " needs " + count + " group numbers");
+		}
+		return groups;
+	}
+
+	private static int[] numbers(Path file, String key, String value) {
+		String[] parts = value.trim().split("[\\s,]+");
+		int[] numbers = new int[parts.length];
+		try {
+			for (int i = 0; i < parts.length; i++) {
+				numbers[i] = Integer.parseInt(parts[i]);
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(file + ": " + key + " - " + e.getMessage());
+		}
+		return numbers;
+	}
+
+	private static int[] readInts(DataInputStream input) throws IOException {
+		int[] ints = new int[input.readInt()];
+		for (int i = 0; i < ints.length; i++) {
+			ints[i] = input.readInt();
+		}
+		return ints;
+	}
+
+	private static void writeInts(DataOutputStream output, int[] ints) throws IOException {
+		output.writeInt(ints.length);
+		for (int i : ints) {
+			output.writeInt(i);
+		}
+	}
+
+	/**
+	 * Parsed rule file, the part of the rules that is cached.
+	 */
+	private static class Definition {
+		private String show;
+		private String genre;
+		private String folderPattern;
+		private int folderDate;
+		private int folderName;
+		private String folderDateFormat;
+		private boolean replaceName;
+		private final List<String> patterns = new ArrayList<String>();
+		private final List<String> dateFormats = new ArrayList<String>();
+		private final List<int[]> groups = new ArrayList<int[]>();
+		private final List<String[]> literals = new ArrayList<String[]>();
+		private final List<int[]> precedence = new ArrayList<int[]>();
+
+		private ShowRules compile(Path file) {
+			// formats are immutable, patterns with the same format share it
+			Map<String, DatePattern> formats = new HashMap<String, DatePattern>();
+			MusicFileNamePattern[] compiled = new MusicFileNamePattern[patterns.size()];
+			for (int i = 0; i < compiled.length; i++) {
+				DatePattern format = formats.get(dateFormats.get(i));
+				if (format == null) {
+					format = new DatePattern(dateFormats.get(i));
+					formats.put(dateFormats.get(i), format);
+				}
+				int[] group = groups.get(i);
+				compiled[i] = new MusicFileNamePattern(Pattern.compile(patterns.get(i)), format, group[0], group[1],
+						group[2], group[3], group[4]);
+			}
+
+			MusicFileNamePatternSet patternSet = new MusicFileNamePatternSet(compiled,
+					precedence.isEmpty() ? null : precedence.toArray(new int[precedence.size()][]),
+					literals.toArray(new String[literals.size()][]));
+			return new ShowRules(file, show, genre, folderPattern.isEmpty() ? null : Pattern.compile(folderPattern),
+					folderDate, folderName, new DatePattern(folderDateFormat), replaceName, patternSet);
+		}
+
+		private void write(DataOutputStream output) throws IOException {
+			output.writeUTF(show);
+			output.writeUTF(genre);
+			output.writeUTF(folderPattern);
+			output.writeInt(folderDate);
+			output.writeInt(folderName);
+			output.writeUTF(folderDateFormat);
+			output.writeBoolean(replaceName);
+			output.writeInt(patterns.size());
+			for (int i = 0; i < patterns.size(); i++) {
+				output.writeUTF(patterns.get(i));
+				output.writeUTF(dateFormats.get(i));
+				writeInts(output, groups.get(i));
+				output.writeInt(literals.get(i).length);
+				for (String literal : literals.get(i)) {
+					output.writeUTF(literal);
+				}
+			}
+			output.writeInt(precedence.size());
+			for (int[] row : precedence) {
+				writeInts(output, row);
+			}
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package ebs.music;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * The rule files of a directory, one per show. {@link #refresh()} loads new and changed files and drops deleted
+ * ones. A file that cannot be loaded keeps its last good rules.
+ *
+ * As scan rules, every top level directory of the tree is a show: its files are matched by the rules of the show
+ * with the same name, directories of unknown shows are skipped. The rule files are refreshed whenever a show
+ * directory is entered, so a running {@link DirectoryWatcher} picks up a new or changed show without a restart.
+ * Files renamed before a change are not renamed again.
+ */
+public class ShowRulesDirectory implements ScanRules {
+	private static final Logger LOGGER = Logger.getLogger(ShowRulesDirectory.class.getName());
+
+	private final Path directory;
+	// modification time of every rule file seen by the last refresh, loaded or not
+	private final Map<Path, FileTime> loaded = new HashMap<Path, FileTime>();
+	// last good rules of every rule file, including files whose show is defined by another file too
+	private final Map<Path, ShowRules> sources = new HashMap<Path, ShowRules>();
+	private volatile Map<String, ShowRules> rules = Collections.emptyMap();
+
+	public ShowRulesDirectory(Path directory) throws IOException {
+		this.directory = directory.toAbsolutePath();
+		refresh();
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @return rules of the show or null
+	 */
+	public ShowRules get(String show) {
+		return rules.get(show);
+	}
+
+	public Collection<ShowRules> getRules() {
+		return rules.values();
+	}
+
+	@Override
+	public FolderData enterDirectory(String directoryName, FolderData parent) {
+		ShowRules showRules;
+		if (parent instanceof ShowFolder) {
+			showRules = ((ShowFolder) parent).rules;
+		} else {
+			try {
+				refresh();
+			} catch (IOException e) {
+				LOGGER.warning("Cannot refresh rules " + directory + " - " + e.getMessage());
+			}
+			showRules = get(directoryName);
+			if (showRules == null) {
+				return null;
+			}
+		}
+
+		FolderData folder = showRules.enterDirectory(directoryName, parent);
+		return folder == null ? null : new ShowFolder(showRules, folder);
+	}
+
+	@Override
+	public MusicFileData matchFile(String fileName, FolderData folder) {
+		if (!(folder instanceof ShowFolder)) {
+			// a file at the top of the tree belongs to no show
+			return null;
+		}
+
+		ShowRules showRules = ((ShowFolder) folder).rules;
+		MusicFileData fileData = showRules.matchFile(fileName, folder);
+		return fileData == null ? null : new ShowFileData(showRules, fileData);
+	}
+
+	@Override
+	public FileTagsEditor createEditor(String fileName, MusicFileData musicFileData) {
+		return ((ShowFileData) musicFileData).rules.createEditor(fileName, musicFileData);
+	}
+
+	/**
+	 * Loads only the rule files whose modification time changed since the last refresh, a file that failed to
+	 * load is not tried again until it changes.
+	 *
+	 * @return shows that were added, changed or removed
+	 */
+	public synchronized List<String> refresh() throws IOException {
+		Map<Path, ShowRules> refreshedSources = new HashMap<Path, ShowRules>();
+		List<String> changed = new ArrayList<String>();
+		Map<Path, FileTime> seen = new HashMap<Path, FileTime>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + ShowRules.EXTENSION)) {
+			for (Path file : files) {
+				FileTime modified = Files.getLastModifiedTime(file);
+				seen.put(file, modified);
+				ShowRules showRules = sources.get(file);
+				if (!modified.equals(loaded.get(file))) {
+					try {
+						showRules = ShowRules.load(file);
+						changed.add(showRules.getShow());
+					} catch (IOException | RuntimeException e) {
+						LOGGER.warning("Cannot load rules " + file + " - " + e.getMessage());
+					}
+				}
+				if (showRules != null) {
+					refreshedSources.put(file, showRules);
+				}
+			}
+		}
+
+		Map<String, ShowRules> refreshed = new HashMap<String, ShowRules>();
+		for (ShowRules showRules : refreshedSources.values()) {
+			ShowRules other = refreshed.put(showRules.getShow(), showRules);
+			// reported again only when a file changes
+			if (other != null && !changed.isEmpty()) {
+				LOGGER.warning("Show " + showRules.getShow() + " is defined by " + other.getSource() + " and " +
+						showRules.getSource());
+			}
+		}
+
+		for (ShowRules showRules : rules.values()) {
+			if (!refreshed.containsKey(showRules.getShow())) {
+				changed.add(showRules.getShow());
+			}
+		}
+
+		loaded.clear();
+		loaded.putAll(seen);
+		sources.clear();
+		sources.putAll(refreshedSources);
+		rules = Collections.unmodifiableMap(refreshed);
+		return changed;
+	}
+
+	private static class ShowFolder extends FolderData {
+		private final ShowRules rules;
+
+		private ShowFolder(ShowRules rules, FolderData folder) {
+			super(folder.getDate(), folder.getName());
+			this.rules = rules;
+		}
+	}
+
+	private static class ShowFileData extends MusicFileData {
+		private final ShowRules rules;
+
+		private ShowFileData(ShowRules rules, MusicFileData fileData) {
+			super(fileData.getDate(), fileData.getName(), fileData.getPart1(), fileData.getPart2(),
+					fileData.getExtension(), fileData.getPattern());
+			this.rules = rules;
+		}
+	}
+}
@@ -6,8 +6,6 @@ import com.mpatric.mp3agic.Mp3File;
 import ebs.music.MusicBase;
 
 import java.io.File;
-import java.util.Calendar;
-import java.util.Date;
 
 /**
  * Created by Aleksey Dubov
@@ -19,7 +17,7 @@ public class SolidSteelFileTagsMp3agic {
 	private String fileName;
 	private Mp3File file;
 
-	private Date date;
+	private int date;
 	private String name;
 	private String part1;
 	private String part2;
@@ -36,7 +34,7 @@ public class SolidSteelFileTagsMp3agic {
 		}
 	}
 
-	public SolidSteelFileTagsMp3agic(String fileName, Date date, String name, String part1, String part2,
+	public SolidSteelFileTagsMp3agic(String fileName, int date, String name, String part1, String part2,
 									 String extension) {
 		this(fileName);
 
@@ -70,22 +68,20 @@ public class SolidSteelFileTagsMp3agic {
 
 			id3.setTrack(part2 == null || part2.isEmpty() ? part1 : (Integer.parseInt(part1) == 1 ? part1 : "2"));
 			id3.setArtist("Solid Steel");
-			id3.setTitle(name + " - " + MusicBase.TRUE_DATE_FORMAT.format(date) + " - " + MusicBase
+			id3.setTitle(name + " - " + MusicBase.formatDate(date) + " - " + MusicBase
 					.getParts(part1, part2));
-			id3.setAlbum(MusicBase.TRUE_DATE_FORMAT.format(date));
+			id3.setAlbum(MusicBase.formatDate(date));
 
-			Calendar calendar = Calendar.getInstance();
-			calendar.setTime(date);
-			id3.setYear(Integer.toString(calendar.get(Calendar.YEAR)));
+			id3.setYear(Integer.toString(MusicBase.getYear(date)));
 			id3.setGenre(52);
 
 			fileNewName = getNewSolidSteelFileName();
 			System.out.println("->" + fileNewName);
 
-			file.save(fileNewName);
+			System.out.println(file.update());
 
-			if(!new File(fileName).delete()) {
-				System.out.println("Cannot delete original file: " + fileName);
+			if(!new File(fileName).renameTo(new File(fileNewName))) {
+				System.out.println("Cannot rename file: " + fileName);
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -105,7 +101,7 @@ public class SolidSteelFileTagsMp3agic {
 		String bitrate = file == null ? "" : getBitrate(file);
 
 		return "Solid Steel - " +
-				MusicBase.TRUE_DATE_FORMAT.format(date) + " - " +
+				MusicBase.formatDate(date) + " - " +
 				name +
 				" [" + MusicBase.getParts(part1, part2) + "]" +
 				" [" + bitrate + "]" +
@@ -1,7 +1,5 @@
 package ebs.music;
 
-import java.text.SimpleDateFormat;
-
 /**
  * Created by Aleksey Dubov
  * Date: 14/02/20
@@ -10,17 +8,17 @@ import java.text.SimpleDateFormat;
  */
 public class TagsData {
 	private String band;
-	private SimpleDateFormat dateFormat;
+	private DatePattern dateFormat;
 	private String genre;
 	private Integer genreNumber;
 
-	public TagsData(String band, SimpleDateFormat dateFormat, String genre) {
+	public TagsData(String band, DatePattern dateFormat, String genre) {
 		this.band = band;
 		this.dateFormat = dateFormat;
 		this.genre = genre;
 	}
 
-	public TagsData(String band, SimpleDateFormat dateFormat, Integer genreNumber) {
+	public TagsData(String band, DatePattern dateFormat, Integer genreNumber) {
 		this.band = band;
 		this.dateFormat = dateFormat;
 		this.genreNumber = genreNumber;
@@ -30,7 +28,7 @@ public class TagsData {
 		return band;
 	}
 
-	public SimpleDateFormat getDateFormat() {
+	public DatePattern getDateFormat() {
 		return dateFormat;
 	}
 
@@ -0,0 +1,176 @@
+package ebs.music.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal benchmark runner: every case is warmed up for a while and then measured over a few timed iterations,
+ * the score is the average time of one operation. An optional setup runs before every operation and is not
+ * measured, e.g. to copy a file that the operation rewrites. Results are written as JSON, one object per case,
+ * for regression tracking.
+ */
+public class Benchmark {
+	private static final Logger LOGGER = Logger.getLogger(Benchmark.class.getName());
+
+	public static final String WARMUP_PROPERTY = "ebs.music.bench.warmup";
+	public static final String ITERATIONS_PROPERTY = "ebs.music.bench.iterations";
+	public static final String TIME_PROPERTY = "ebs.music.bench.time";
+	public static final String FILTER_PROPERTY = "ebs.music.bench.filter";
+
+	public interface Operation {
+		/**
+		 * @return any result of the operation, it is consumed so that the work cannot be optimized away
+		 */
+		Object run() throws Exception;
+	}
+
+	private static volatile int sink;
+
+	private final long warmupNanos = Long.getLong(WARMUP_PROPERTY, 1000) * 1000000;
+	private final int iterations = Integer.getInteger(ITERATIONS_PROPERTY, 5);
+	private final long iterationNanos = Long.getLong(TIME_PROPERTY, 1000) * 1000000;
+	private final Pattern filter = Pattern.compile(System.getProperty(FILTER_PROPERTY, ".*"));
+	private final List<Result> results = new ArrayList<Result>();
+
+	public List<Result> getResults() {
+		return results;
+	}
+
+	public Result run(String name, Operation operation) throws Exception {
+		return run(name, null, operation);
+	}
+
+	/**
+	 * @return result of the case or null if it is filtered out
+	 */
+	public Result run(String name, Operation setup, Operation operation) throws Exception {
+		if (!filter.matcher(name).find()) {
+			return null;
+		}
+
+		measure(setup, operation, warmupNanos);
+
+		double[] scores = new double[iterations];
+		long operations = 0;
+		for (int i = 0; i < iterations; i++) {
+			long[] measured = measure(setup, operation, iterationNanos);
+			scores[i] = (double) measured[0] / measured[1];
+			operations += measured[1];
+		}
+
+		Result result = new Result(name, scores, operations);
+		results.add(result);
+		LOGGER.info(result.toString());
+		return result;
+	}
+
+	/**
+	 * @return measured nanoseconds and number of operations
+	 */
+	private static long[] measure(Operation setup, Operation operation, long nanos) throws Exception {
+		long measured = 0;
+		long count = 0;
+		long start = System.nanoTime();
+		do {
+			if (setup != null) {
+				consume(setup.run());
+			}
+			long operationStart = System.nanoTime();
+			consume(operation.run());
+			measured += System.nanoTime() - operationStart;
+			count++;
+		} while (System.nanoTime() - start < nanos);
+		return new long[]{measured, count};
+	}
+
+	private static void consume(Object value) {
+		if (value != null) {
+			sink += System.identityHashCode(value);
+		}
+	}
+
+	public void writeJson(Path path) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			writer.write("[");
+			for (int i = 0; i < results.size(); i++) {
+				writer.write(i == 0 ? "\n" : ",\n");
+				writer.write(results.get(i).toJson());
+			}
+			writer.write("\n]\n");
+		}
+	}
+
+	public static class Result {
+		private final String name;
+		private final double[] scores;
+		private final long operations;
+
+		private Result(String name, double[] scores, long operations) {
+			this.name = name;
+			this.scores = scores;
+			this.operations = operations;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return average nanoseconds per operation
+		 */
+		public double getScore() {
+			double sum = 0;
+			for (double score : scores) {
+				sum += score;
+			}
+			return sum / scores.length;
+		}
+
+		/**
+		 * @return standard deviation of the iteration scores
+		 */
+		public double getError() {
+			double mean = getScore();
+			double sum = 0;
+			for (double score : scores) {
+				sum += (score - mean) * (score - mean);
+			}
+			return scores.length > 1 ? Math.sqrt(sum / (scores.length - 1)) : 0;
+		}
+
+		public long getOperations() {
+			return operations;
+		}
+
+		public String toJson() {
+			StringBuilder builder = new StringBuilder();
+			builder.append("  {\"benchmark\": \"").append(name.replace("\\", "\\\\").replace("\"", "\\\""))
+					.append("\", \"mode\": \"avgt\", \"unit\": \"ns/op\", \"operations\": ").append(operations)
+					.append(", \"score\": ").append(format(getScore()))
+					.append(", \"error\": ").append(format(getError()))
+					.append(", \"iterations\": [");
+			for (int i = 0; i < scores.length; i++) {
+				builder.append(i == 0 ? "" : ", ").append(format(scores[i]));
+			}
+			return builder.append("]}").toString();
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%-40s %14.1f +- %10.1f ns/op (%d ops)", name, getScore(), getError(),
+					operations);
+		}
+
+		private static String format(double value) {
+			return String.format(Locale.ROOT, "%.1f", value);
+		}
+	}
+}
@@ -0,0 +1,199 @@
+package ebs.music.bench;
+
+import com.beaglebuddy.mp3.MP3;
+import com.beaglebuddy.mp3.enums.Currency;
+import com.beaglebuddy.mp3.enums.FrameType;
+import com.beaglebuddy.mp3.enums.Genre;
+import com.beaglebuddy.mp3.enums.Language;
+import com.beaglebuddy.mp3.id3v23.ID3v23Frame;
+import com.beaglebuddy.mp3.id3v23.ID3v23Tag;
+import com.beaglebuddy.mp3.id3v23.frame_body.ID3v23FrameBody;
+import com.beaglebuddy.mp3.id3v23.frame_body.ID3v23FrameBodyFactory;
+import com.mpatric.mp3agic.ID3v2TagFactory;
+import com.mpatric.mp3agic.Mp3File;
+import com.mpatric.mp3agic.Mp3TagFile;
+import ebs.music.FolderData;
+import ebs.music.RenameSolidSteel;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of the hot paths over a synthetic {@link Mp3Corpus}: Mp3File construction with and without scanning,
+ * tag only reading, ID3v2 tag parsing, opening and saving a file with beaglebuddy, creating beaglebuddy frame bodies,
+ * beaglebuddy enum lookups, getting and setting beaglebuddy tags and file name matching:
+ * Mp3Benchmarks [result.json], see {@link Benchmark} for the system properties.
+ */
+public class Mp3Benchmarks {
+	private static final Logger LOGGER = Logger.getLogger(Mp3Benchmarks.class.getName());
+
+	public static final String FRAMES_PROPERTY = "ebs.music.bench.frames";
+
+	private static final String[] SOLID_STEEL_NAMES = {
+			"12.05.01 - Coldcut (pt.1).mp3",
+			"12.05.01 - Coldcut (pt.1 & 2).mp3",
+			"Solid Steel 2008-05-16.01 DJ Food).mp3",
+			"14-Mar-03.01 Hexstatic).mp3",
+			"01 - Solid Steel - 12.05.01 - Coldcut.mp3",
+			"Solid Steel Radio Show 1-11-2013 Part 1 - Four Tet.mp3",
+			"Solid Steel Radio Show 29-11-2013 - Part 1 + 2 - Toddla T.mp3",
+			"Solid Steel Radio Show 312014 Part 1 + 2 - Mr Scruff + Illum Sphere.mp3",
+			"readme.txt",
+			"cover.jpg"
+	};
+
+	public static void main(String[] args) throws Exception {
+		Path result = Paths.get(args.length > 0 ? args[0] : "benchmark.json");
+		Path directory = Files.createTempDirectory("mp3bench");
+		try {
+			Benchmark benchmark = new Benchmark();
+			run(benchmark, new Mp3Corpus(Integer.getInteger(FRAMES_PROPERTY, 1000), 512 * 1024).generate(directory),
+					directory);
+			benchmark.writeJson(result);
+			LOGGER.info("Results are written to " + result.toAbsolutePath());
+		} finally {
+			try (Stream<Path> files = Files.list(directory)) {
+				for (Path file : (Iterable<Path>) files::iterator) {
+					Files.delete(file);
+				}
+			}
+			Files.delete(directory);
+		}
+	}
+
+	private static void run(Benchmark benchmark, Map<String, Path> files, Path directory) throws Exception {
+		for (Map.Entry<String, Path> entry : files.entrySet()) {
+			final String name = entry.getValue().toString();
+			benchmark.run("mp3file.scan." + entry.getKey(), () -> new Mp3File(name));
+			benchmark.run("mp3file.noscan." + entry.getKey(), () -> new Mp3File(name, false));
+			benchmark.run("mp3file.probe." + entry.getKey(),
+					() -> new Mp3File(name, Mp3File.DEFAULT_BUFFER_LENGTH, true, false, true, true));
+			benchmark.run("mp3tagfile." + entry.getKey(), () -> new Mp3TagFile(name));
+		}
+
+		for (String variant : new String[]{Mp3Corpus.ID3V22, Mp3Corpus.ID3V23, Mp3Corpus.ID3V24, Mp3Corpus.APIC}) {
+			final byte[] tag = tagBytes(Files.readAllBytes(files.get(variant)));
+			benchmark.run("id3v2.createTag." + variant, () -> ID3v2TagFactory.createTag(tag));
+		}
+
+		for (String variant : new String[]{Mp3Corpus.CBR, Mp3Corpus.ID3V23, Mp3Corpus.APIC, Mp3Corpus.ID3V1}) {
+			final String name = files.get(variant).toString();
+			benchmark.run("beaglebuddy.open." + variant, () -> new MP3(name));
+			benchmark.run("beaglebuddy.open.lazy." + variant, () -> new MP3(new File(name), true));
+		}
+
+		// the frame bodies of a text only tag, created directly and through the reflective constructor lookup used before
+		List<ID3v23Frame> frames = new ID3v23Tag(new ByteArrayInputStream(
+				tagBytes(Files.readAllBytes(files.get(Mp3Corpus.ID3V23))))).getFrames();
+		final FrameType[] frameTypes = new FrameType[frames.size()];
+		final byte[][] frameBodies = new byte[frames.size()][];
+		for (int i = 0; i < frameTypes.length; i++) {
+			frameTypes[i] = frames.get(i).getHeader().getFrameType();
+			frameBodies[i] = frames.get(i).getBody().getBuffer();
+		}
+		benchmark.run("beaglebuddy.frameBody.factory", () -> {
+			ID3v23FrameBody body = null;
+			for (int i = 0; i < frameTypes.length; i++) {
+				body = ID3v23FrameBodyFactory.createFrameBody(new ByteArrayInputStream(frameBodies[i]), frameTypes[i],
+						frameBodies[i].length);
+			}
+			return body;
+		});
+		benchmark.run("beaglebuddy.frameBody.reflection", () -> {
+			Object body = null;
+			for (int i = 0; i < frameTypes.length; i++) {
+				Constructor<?> constructor = frameTypes[i].getFrameBodyConstructor();
+				InputStream input = new ByteArrayInputStream(frameBodies[i]);
+				body = constructor.getParameterTypes().length == 2
+						? constructor.newInstance(input, frameBodies[i].length)
+						: constructor.newInstance(input, frameTypes[i], frameBodies[i].length);
+			}
+			return body;
+		});
+
+		// enum lookups, which take the same time for the first and the last enum
+		for (FrameType frameType : new FrameType[]{FrameType.AUDIO_ENCRYPTION, FrameType.USER_DEFINED_URL_LINK_FRAME}) {
+			final String id = frameType.getId();
+			benchmark.run("beaglebuddy.enums.frameType." + id, () -> FrameType.getFrameType(id));
+		}
+		for (Language language : new Language[]{Language.AAR, Language.ZZA}) {
+			final String code = language.getCode();
+			benchmark.run("beaglebuddy.enums.language." + code, () -> Language.getLanguage(code));
+		}
+		for (Currency currency : new Currency[]{Currency.AED, Currency.ZWD}) {
+			final String code = currency.getCode();
+			benchmark.run("beaglebuddy.enums.currency." + code, () -> Currency.getCurrency(code));
+		}
+		for (Genre genre : new Genre[]{Genre.BLUES, Genre.COVER}) {
+			final byte value = (byte) genre.ordinal();
+			benchmark.run("beaglebuddy.enums.genre." + genre.ordinal(), () -> Genre.getGenre(value));
+		}
+
+		// the getters and setters of BeagleBuddyFileTagsEditor.updateTags on a loaded tag
+		for (String variant : new String[]{Mp3Corpus.ID3V23, Mp3Corpus.APIC}) {
+			final MP3 mp3 = new MP3(files.get(variant).toFile());
+			benchmark.run("beaglebuddy.tags." + variant, () -> {
+				String comments = mp3.getComments();
+				mp3.setComments(comments == null ? "comments" : comments);
+				mp3.setTrack(1);
+				mp3.setBand(mp3.getBand() == null ? "DJ Food" : mp3.getBand());
+				mp3.setTitle(mp3.getTitle() == null ? "Solid Steel" : mp3.getTitle());
+				mp3.setAlbum("Solid Steel");
+				mp3.setYear(2013);
+				mp3.setMusicType(Genre.ELECTRONIC);
+				return mp3;
+			});
+		}
+
+		// the first save makes room for the tag, the following ones fit in it
+		final MP3 inPlace = new MP3(copy(files.get(Mp3Corpus.ID3V23), directory.resolve("in-place.mp3")).toFile());
+		inPlace.save();
+		final String[] titles = {"DJ Food - 2013-10-04 - part 1", "DJ Food - 2013-10-04 - part 2"};
+		final int[] saves = {0};
+		benchmark.run("beaglebuddy.save.inPlace", () -> {
+			inPlace.setTitle(titles[saves[0]++ & 1]);
+			return inPlace.save();
+		});
+
+		// every save outgrows the tag of a fresh copy, so the whole file is rewritten
+		final Path original = files.get(Mp3Corpus.ID3V23);
+		final Path rewritten = directory.resolve("rewrite.mp3");
+		final char[] longTitle = new char[4096];
+		Arrays.fill(longTitle, 'x');
+		final MP3[] rewrite = new MP3[1];
+		benchmark.run("beaglebuddy.save.rewrite", () -> {
+			copy(original, rewritten);
+			rewrite[0] = new MP3(rewritten.toFile());
+			rewrite[0].setTitle(new String(longTitle));
+			return rewrite[0];
+		}, () -> rewrite[0].save());
+
+		final int[] next = {0};
+		benchmark.run("rename.solidSteel.match", () -> RenameSolidSteel.SOLID_STEEL_RULES.matchFile(
+				SOLID_STEEL_NAMES[next[0]++ % SOLID_STEEL_NAMES.length], FolderData.ROOT));
+	}
+
+	private static Path copy(Path source, Path target) throws IOException {
+		return Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * @return ID3v2 tag at the start of the file
+	 */
+	private static byte[] tagBytes(byte[] file) {
+		int size = (file[6] & 0x7F) << 21 | (file[7] & 0x7F) << 14 | (file[8] & 0x7F) << 7 | file[9] & 0x7F;
+		return Arrays.copyOf(file, 10 + size);
+	}
+}
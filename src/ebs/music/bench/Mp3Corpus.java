@@ -0,0 +1,199 @@
+package ebs.music.bench;
+
+import com.mpatric.mp3agic.AbstractID3v2Tag;
+import com.mpatric.mp3agic.ID3v1Tag;
+import com.mpatric.mp3agic.ID3v22Tag;
+import com.mpatric.mp3agic.ID3v23Tag;
+import com.mpatric.mp3agic.ID3v24Tag;
+import com.mpatric.mp3agic.NotSupportedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic mp3 files for benchmarks and tests. The audio is a stream of silent MPEG-1 layer III frames at
+ * 44.1 kHz, 128 kbps for CBR files and cycling through 96..320 kbps with a Xing or VBRI header in the first frame
+ * for VBR files. Files are generated from a fixed seed, so every run sees the same bytes.
+ */
+public class Mp3Corpus {
+	public static final String CBR = "cbr";
+	public static final String VBR_XING = "vbr-xing";
+	public static final String VBR_VBRI = "vbr-vbri";
+	public static final String JUNK = "junk";
+	public static final String APIC = "apic";
+	public static final String ID3V22 = "id3v22";
+	public static final String ID3V23 = "id3v23";
+	public static final String ID3V24 = "id3v24";
+	public static final String ID3V1 = "id3v1";
+
+	public static final String[] VARIANTS = {CBR, VBR_XING, VBR_VBRI, JUNK, APIC, ID3V22, ID3V23, ID3V24, ID3V1};
+
+	private static final int SAMPLE_RATE = 44100;
+	private static final int CBR_BITRATE = 128;
+	private static final int[] VBR_BITRATES = {96, 128, 160, 192, 256, 320};
+	private static final int[] BITRATE_INDEXES = {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320};
+	// MPEG-1 layer III, no CRC, 44.1 kHz, joint stereo
+	private static final int FRAME_HEADER = 0xFFFB0040;
+	// header and side information of a stereo MPEG-1 frame
+	private static final int XING_OFFSET = 36;
+	// the VBRI header is always 32 bytes after the frame header
+	private static final int VBRI_OFFSET = 36;
+	private static final short VBRI_VERSION = 1;
+
+	private final int frames;
+	private final int imageSize;
+
+	/**
+	 * @param frames    number of audio frames of every file, 1000 frames are 26 seconds
+	 * @param imageSize size of the cover picture of the {@link #APIC} file
+	 */
+	public Mp3Corpus(int frames, int imageSize) {
+		this.frames = frames;
+		this.imageSize = imageSize;
+	}
+
+	/**
+	 * Writes every variant to the directory as variant.mp3.
+	 *
+	 * @return file of every variant
+	 */
+	public Map<String, Path> generate(Path directory) throws IOException {
+		Map<String, Path> files = new LinkedHashMap<String, Path>();
+		for (String variant : VARIANTS) {
+			Path file = directory.resolve(variant + ".mp3");
+			Files.write(file, create(variant));
+			files.put(variant, file);
+		}
+		return files;
+	}
+
+	public byte[] create(String variant) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		switch (variant) {
+			case CBR:
+				writeCbr(output);
+				break;
+			case VBR_XING:
+				writeVbr(output, false);
+				break;
+			case VBR_VBRI:
+				writeVbr(output, true);
+				break;
+			case JUNK:
+				byte[] junk = new byte[3000];
+				new Random(17).nextBytes(junk);
+				// no sync word in the junk
+				for (int i = 0; i < junk.length; i++) {
+					if (junk[i] == (byte) 0xFF) {
+						junk[i] = 0x7F;
+					}
+				}
+				output.write(junk);
+				writeCbr(output);
+				break;
+			case APIC:
+				ID3v23Tag pictureTag = new ID3v23Tag();
+				setText(pictureTag);
+				byte[] image = new byte[imageSize];
+				new Random(42).nextBytes(image);
+				pictureTag.setAlbumImage(image, "image/jpeg");
+				output.write(toBytes(pictureTag));
+				writeCbr(output);
+				break;
+			case ID3V22:
+				output.write(toBytes(setText(new ID3v22Tag())));
+				writeCbr(output);
+				break;
+			case ID3V23:
+				output.write(toBytes(setText(new ID3v23Tag())));
+				writeCbr(output);
+				break;
+			case ID3V24:
+				output.write(toBytes(setText(new ID3v24Tag())));
+				writeCbr(output);
+				break;
+			case ID3V1:
+				writeCbr(output);
+				ID3v1Tag id3v1Tag = new ID3v1Tag();
+				id3v1Tag.setArtist("Solid Steel");
+				id3v1Tag.setTitle("DJ Food - 2013-10-04");
+				id3v1Tag.setAlbum("2013-10-04");
+				id3v1Tag.setYear("2013");
+				id3v1Tag.setGenre(52);
+				output.write(id3v1Tag.toBytes());
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown variant: " + variant);
+		}
+		return output.toByteArray();
+	}
+
+	private static AbstractID3v2Tag setText(AbstractID3v2Tag tag) {
+		tag.setArtist("Solid Steel");
+		tag.setTitle("DJ Food - 2013-10-04 - part 1 & 2");
+		tag.setAlbum("2013-10-04");
+		tag.setYear("2013");
+		tag.setTrack("1");
+		tag.setComment("Ninja Tune - Solid Steel Radio Show 4-10-2013 Part 1 + 2 - DJ Food");
+		return tag;
+	}
+
+	private static byte[] toBytes(AbstractID3v2Tag tag) throws IOException {
+		try {
+			return tag.toBytes();
+		} catch (NotSupportedException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private void writeCbr(ByteArrayOutputStream output) {
+		for (int i = 0; i < frames; i++) {
+			output.write(frame(CBR_BITRATE), 0, frameLength(CBR_BITRATE));
+		}
+	}
+
+	private void writeVbr(ByteArrayOutputStream output, boolean vbri) {
+		int bytes = 0;
+		for (int i = 0; i < frames; i++) {
+			bytes += frameLength(VBR_BITRATES[i % VBR_BITRATES.length]);
+		}
+
+		// the Xing frame itself is not counted in the frames but is part of the stream bytes
+		byte[] xing = frame(CBR_BITRATE);
+		bytes += frameLength(CBR_BITRATE);
+		ByteBuffer buffer = ByteBuffer.wrap(xing);
+		if (vbri) {
+			// version, delay and quality, then the same counts as Xing
+			buffer.position(VBRI_OFFSET);
+			buffer.put(new byte[]{'V', 'B', 'R', 'I'}).putShort(VBRI_VERSION).putShort((short) 0).putShort((short) 75)
+					.putInt(bytes).putInt(frames);
+		} else {
+			buffer.position(XING_OFFSET);
+			buffer.put(new byte[]{'X', 'i', 'n', 'g'}).putInt(0x3).putInt(frames).putInt(bytes);
+		}
+		output.write(xing, 0, frameLength(CBR_BITRATE));
+
+		for (int i = 0; i < frames; i++) {
+			int bitrate = VBR_BITRATES[i % VBR_BITRATES.length];
+			output.write(frame(bitrate), 0, frameLength(bitrate));
+		}
+	}
+
+	private static byte[] frame(int bitrate) {
+		byte[] frame = new byte[frameLength(bitrate)];
+		int header = FRAME_HEADER | Arrays.binarySearch(BITRATE_INDEXES, bitrate) << 12;
+		ByteBuffer.wrap(frame).putInt(header);
+		return frame;
+	}
+
+	private static int frameLength(int bitrate) {
+		return 144 * bitrate * 1000 / SAMPLE_RATE;
+	}
+}
@@ -0,0 +1,55 @@
+package ebs.music.tests;
+
+import ebs.music.DatePattern;
+import ebs.music.MusicBase;
+import junit.framework.TestCase;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+
+public class DatePatternTest extends TestCase {
+	public void testParse() throws ParseException {
+		assertDate("1998-06-30", "yyyy-MM-dd", "1998-07-00");
+		assertDate("1999-01-31", "yyyy-MM-dd", "1998-13-31");
+		assertDate("2013-09-06", "dd-MM-yyyy", "6-9-2013");
+		assertDate("2014-01-03", "dMyyyy", "312014");
+		assertDate("2014-12-03", "dMMyyyy", "3122014");
+		assertDate("1999-06-12", "dd-MMM-yy", "12-jun-99");
+		assertDate("2001-01-13", "yyyy MMM dd", "2001 Jan 13)");
+		assertDate("2001-09-13", "yyyy MMM dd", "2001 September 13");
+
+		int year = LocalDate.now().getYear();
+		assertEquals(year - 1, LocalDate.ofEpochDay(new DatePattern("yy").parse(twoDigits(year - 1))).getYear());
+		assertEquals(year - 79, LocalDate.ofEpochDay(new DatePattern("yy").parse(twoDigits(year - 79))).getYear());
+		assertEquals(year + 19, LocalDate.ofEpochDay(new DatePattern("yy").parse(twoDigits(year + 19))).getYear());
+
+		assertUnparseable("dd.MM.yy", "12-03-10");
+		assertUnparseable("dMyyyy", "1 2014");
+		assertUnparseable("dd-MMM-yy", "12-Xyz-99");
+	}
+
+	public void testFormat() {
+		for (int day = -700000; day < 800000; day += 17) {
+			assertEquals(LocalDate.ofEpochDay(day).toString(), MusicBase.formatDate(day));
+			assertEquals(LocalDate.ofEpochDay(day).getYear(), MusicBase.getYear(day));
+		}
+		assertEquals("05-Mar-98", new DatePattern("dd-MMM-yy").format((int) LocalDate.of(1998, 3, 5).toEpochDay()));
+	}
+
+	private static void assertDate(String expected, String pattern, String text) throws ParseException {
+		assertEquals(text, expected, LocalDate.ofEpochDay(new DatePattern(pattern).parse(text)).toString());
+	}
+
+	private static void assertUnparseable(String pattern, String text) {
+		try {
+			new DatePattern(pattern).parse(text);
+			fail(text);
+		} catch (ParseException e) {
+			// expected
+		}
+	}
+
+	private static String twoDigits(int year) {
+		return String.format("%02d", year % 100);
+	}
+}
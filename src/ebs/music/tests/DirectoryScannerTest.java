@@ -0,0 +1,92 @@
+package ebs.music.tests;
+
+import ebs.music.DirectoryScanner;
+import ebs.music.FileTagsEditor;
+import ebs.music.FolderData;
+import ebs.music.MusicBase;
+import ebs.music.MusicFileData;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class DirectoryScannerTest extends TestCase {
+	private Path baseDirectory;
+
+	@Override
+	protected void setUp() throws IOException {
+		baseDirectory = Files.createTempDirectory("scanner");
+		Files.createDirectories(baseDirectory.resolve("b show"));
+		Files.createDirectories(baseDirectory.resolve("a show"));
+		Files.createDirectories(baseDirectory.resolve("skip"));
+		for (String name : new String[]{"3.mp3", "1.mp3", "2.mp3", "readme.txt"}) {
+			Files.createFile(baseDirectory.resolve("a show").resolve(name));
+			Files.createFile(baseDirectory.resolve("b show").resolve(name));
+		}
+		Files.createFile(baseDirectory.resolve("skip").resolve("1.mp3"));
+		Files.createFile(baseDirectory.resolve("0.mp3"));
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		ScanFixtures.deleteTree(baseDirectory);
+	}
+
+	public void testRenameOrder() throws IOException {
+		for (int workers : new int[]{1, 4}) {
+			RecordingRules rules = new RecordingRules();
+			new DirectoryScanner(rules, workers).scan(baseDirectory);
+
+			assertEquals(String.valueOf(workers), Arrays.asList(
+					"0.mp3 ()",
+					"1.mp3 (a show)", "2.mp3 (a show)", "3.mp3 (a show)",
+					"1.mp3 (b show)", "2.mp3 (b show)", "3.mp3 (b show)"), rules.renamed);
+		}
+	}
+
+	public void testUpdate() throws IOException {
+		RecordingRules rules = new RecordingRules();
+		new DirectoryScanner(rules, 2).update(baseDirectory, Arrays.asList(
+				baseDirectory.resolve("b show").resolve("2.mp3"),
+				baseDirectory.resolve("a show").resolve("3.mp3"),
+				baseDirectory.resolve("a show").resolve("3.mp3"),
+				baseDirectory.resolve("a show").resolve("missing.mp3"),
+				baseDirectory.resolve("skip").resolve("1.mp3"),
+				baseDirectory.resolve("0.mp3"),
+				baseDirectory.getParent().resolve("0.mp3")));
+
+		assertEquals(Arrays.asList("0.mp3 ()", "3.mp3 (a show)", "2.mp3 (b show)"), rules.renamed);
+	}
+
+	public void testInvalidWorkers() {
+		try {
+			new DirectoryScanner(new RecordingRules(), 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	private static class RecordingRules extends ScanFixtures.RecordingRules {
+		@Override
+		public FolderData enterDirectory(String directoryName, FolderData parent) {
+			return "skip".equals(directoryName) ? null : super.enterDirectory(directoryName, parent);
+		}
+
+		@Override
+		public MusicFileData matchFile(String fileName, FolderData folder) {
+			if (!fileName.endsWith(".mp3")) {
+				return null;
+			}
+			return new MusicFileData(MusicBase.NO_DATE, folder.getName() == null ? "" : folder.getName(), "", "", ".mp3");
+		}
+
+		@Override
+		protected String getNewFileName(FileTagsEditor editor) {
+			return new File(editor.getFileName()).getName() + " (" + editor.getMusicFileData().getName() + ")";
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package ebs.music.tests;
+
+import ebs.music.DirectoryScanner;
+import ebs.music.DirectoryWatcher;
+import ebs.music.FileTagsEditor;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class DirectoryWatcherTest extends TestCase {
+	private static final long QUIET_MILLIS = 300;
+
+	private Path baseDirectory;
+
+	@Override
+	protected void setUp() throws IOException {
+		baseDirectory = Files.createTempDirectory("watcher");
+		Files.createFile(baseDirectory.resolve("old.mp3"));
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		ScanFixtures.deleteTree(baseDirectory);
+	}
+
+	public void testWatch() throws Exception {
+		final RecordingRules rules = new RecordingRules();
+		final DirectoryWatcher watcher =
+				new DirectoryWatcher(new DirectoryScanner(rules, 1), baseDirectory, QUIET_MILLIS);
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				try {
+					watcher.run();
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		};
+		thread.start();
+
+		try {
+			waitFor(rules, 1);
+			assertEquals(Collections.singletonList("old.mp3"), rules.renamed);
+
+			// a file that keeps growing is not updated until it is complete
+			try (OutputStream output = Files.newOutputStream(baseDirectory.resolve("new.mp3"))) {
+				for (int i = 0; i < 5; i++) {
+					output.write(new byte[1024]);
+					output.flush();
+					Thread.sleep(QUIET_MILLIS / 2);
+					assertEquals(1, rules.renamed.size());
+				}
+			}
+
+			Path show = baseDirectory.resolve("show");
+			Files.createDirectory(show);
+			Files.createFile(show.resolve("1.mp3"));
+			waitFor(rules, 3);
+
+			Collections.sort(rules.renamed);
+			assertEquals(Arrays.asList("1.mp3", "new.mp3", "old.mp3"), rules.renamed);
+		} finally {
+			watcher.stop();
+			thread.join(10000);
+		}
+		assertFalse(thread.isAlive());
+	}
+
+	private static void waitFor(RecordingRules rules, int count) throws InterruptedException {
+		for (int i = 0; i < 200 && rules.renamed.size() < count; i++) {
+			Thread.sleep(50);
+		}
+	}
+
+	private static class RecordingRules extends ScanFixtures.RecordingRules {
+		@Override
+		protected String getNewFileName(FileTagsEditor editor) {
+			return editor.getMusicFileData().getName();
+		}
+	}
+}
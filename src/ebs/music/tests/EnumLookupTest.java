@@ -0,0 +1,82 @@
+package ebs.music.tests;
+
+import com.beaglebuddy.mp3.enums.Currency;
+import com.beaglebuddy.mp3.enums.Encoding;
+import com.beaglebuddy.mp3.enums.EventType;
+import com.beaglebuddy.mp3.enums.FrameType;
+import com.beaglebuddy.mp3.enums.Genre;
+import com.beaglebuddy.mp3.enums.Language;
+import com.beaglebuddy.mp3.enums.PictureType;
+import com.beaglebuddy.mp3.enums.TimeStampFormat;
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class EnumLookupTest extends TestCase {
+	public void testCodes() {
+		for (FrameType frameType : FrameType.values()) {
+			assertSame(frameType, FrameType.getFrameType(frameType.getId()));
+			int id = ByteBuffer.wrap(frameType.getId().getBytes(StandardCharsets.ISO_8859_1)).getInt();
+			assertSame(frameType, FrameType.getFrameType(id));
+		}
+		for (Language language : Language.values()) {
+			assertSame(language, Language.getLanguage(language.getCode()));
+		}
+		for (Currency currency : Currency.values()) {
+			assertSame(currency, Currency.getCurrency(currency.getCode()));
+		}
+
+		for (String id : new String[]{null, "", "TIT", "TIT2 ", "tit2", "XXXX", "\u0000TIT", "TI\u0100T"}) {
+			try {
+				FrameType.getFrameType(id);
+				fail(id);
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		for (String code : new String[]{null, "en", "ENG", "eng ", "xqz", "\u0000en"}) {
+			try {
+				Language.getLanguage(code);
+				fail(code);
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		try {
+			Currency.getCurrency("USD");
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testOrdinals() {
+		for (Genre genre : Genre.values()) {
+			assertSame(genre, Genre.getGenre((byte) genre.ordinal()));
+		}
+		for (EventType eventType : EventType.values()) {
+			assertSame(eventType, EventType.getEventType((byte) eventType.ordinal()));
+		}
+		for (PictureType pictureType : PictureType.values()) {
+			assertSame(pictureType, PictureType.getPictureType((byte) pictureType.ordinal()));
+		}
+		assertSame(Encoding.UTF_16, Encoding.getEncoding((byte) 1));
+		assertSame(TimeStampFormat.MS, TimeStampFormat.getTimeStampFormat((byte) 2));
+
+		for (byte value : new byte[]{(byte) Genre.values().length, -1}) {
+			try {
+				Genre.getGenre(value);
+				fail(String.valueOf(value));
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		try {
+			TimeStampFormat.getTimeStampFormat((byte) 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package ebs.music.tests;
+
+import ebs.music.FileIndex;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+public class FileIndexTest extends TestCase {
+	private Path baseDirectory;
+	private Path indexFile;
+	private Path file;
+
+	@Override
+	protected void setUp() throws IOException {
+		baseDirectory = Files.createTempDirectory("index");
+		indexFile = baseDirectory.resolve(FileIndex.FILE_NAME);
+		file = Files.write(baseDirectory.resolve("show.mp3"),
+				"ID3\u0003\u0000\u0000\u0000\u0000\u0000\u0004TAGSaudio".getBytes(StandardCharsets.ISO_8859_1));
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(indexFile);
+		Files.delete(baseDirectory);
+	}
+
+	public void testUnchanged() throws IOException {
+		try (FileIndex index = new FileIndex(indexFile)) {
+			assertFalse(index.isUnchanged(file, attributes()));
+			index.put(file, 7);
+		}
+		// a record cut by a crash
+		Files.write(indexFile, new byte[]{0, 42, 'x'}, StandardOpenOption.APPEND);
+
+		try (FileIndex index = new FileIndex(indexFile)) {
+			assertEquals(1, index.size());
+			assertEquals(7, index.getPattern(file));
+			assertTrue(index.isUnchanged(file, attributes()));
+
+			// touched only: the tag hash is the same
+			Files.setLastModifiedTime(file, FileTime.fromMillis(attributes().lastModifiedTime().toMillis() + 5000));
+			assertTrue(index.isUnchanged(file, attributes()));
+
+			// same size, different tags
+			Files.write(file, "ID3\u0003\u0000\u0000\u0000\u0000\u0000\u0004TAGZaudio".getBytes(StandardCharsets.ISO_8859_1));
+			Files.setLastModifiedTime(file, FileTime.fromMillis(attributes().lastModifiedTime().toMillis() + 5000));
+			assertFalse(index.isUnchanged(file, attributes()));
+		}
+	}
+
+	public void testForeignFile() throws IOException {
+		byte[] bytes = "not an index".getBytes(StandardCharsets.ISO_8859_1);
+		Files.write(indexFile, bytes);
+		try {
+			new FileIndex(indexFile).close();
+			fail("A file that is not an index must not be opened");
+		} catch (IOException e) {
+			// expected
+		}
+		assertEquals(bytes.length, Files.size(indexFile));
+	}
+
+	private BasicFileAttributes attributes() throws IOException {
+		return Files.readAttributes(file, BasicFileAttributes.class);
+	}
+}
@@ -0,0 +1,86 @@
+package ebs.music.tests;
+
+import com.beaglebuddy.mp3.MP3;
+import com.beaglebuddy.mp3.enums.FrameType;
+import com.beaglebuddy.mp3.id3v23.ID3v23Frame;
+import com.beaglebuddy.mp3.id3v23.ID3v23FrameHeader;
+import com.beaglebuddy.mp3.id3v23.frame_body.ID3v23FrameBody;
+import com.beaglebuddy.mp3.id3v23.frame_body.ID3v23FrameBodyFactory;
+import com.mpatric.mp3agic.Mp3File;
+import ebs.music.bench.Mp3Corpus;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class ID3v23FrameTest extends TestCase {
+	private Path directory;
+	private Map<String, Path> files;
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("lazy");
+		files = new Mp3Corpus(50, 32 * 1024).generate(directory);
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		try (Stream<Path> paths = Files.list(directory)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				Files.delete(path);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	public void testLazyTagSave() throws Exception {
+		Path file = files.get(Mp3Corpus.APIC);
+		byte[] image = new Mp3File(file.toString()).getId3v2Tag().getAlbumImage();
+
+		MP3 mp3 = new MP3(file.toFile(), true);
+		assertEquals("Solid Steel", mp3.getBand());
+		mp3.setTitle("DJ Food - 2013-10-04");
+		mp3.save();
+
+		assertEquals("DJ Food - 2013-10-04", new MP3(file.toString()).getTitle());
+		assertTrue(Arrays.equals(image, new Mp3File(file.toString()).getId3v2Tag().getAlbumImage()));
+	}
+
+	public void testFrameBodyFactory() throws Exception {
+		for (FrameType frameType : FrameType.values()) {
+			try {
+				assertEquals(frameType.getFrameBodyClass(), ID3v23FrameBodyFactory.createFrameBody(frameType).getClass());
+			} catch (IllegalArgumentException e) {
+				// some frame bodies have no valid default values, e.g. an empty owner id
+			}
+			ID3v23FrameBody body = ID3v23FrameBodyFactory.createFrameBody(new ByteArrayInputStream(new byte[3]),
+					frameType, 3);
+			assertEquals(frameType.getFrameBodyClass(), body.getClass());
+			assertEquals(3, body.getSize());
+		}
+	}
+
+	public void testInvalidBodySavedAsRead() throws Exception {
+		// a play counter frame must have 4 bytes
+		byte[] bytes = {'P', 'C', 'N', 'T', 0, 0, 0, 5, 0, 0, 1, 2, 3, 4, 5};
+		InputStream input = new ByteArrayInputStream(bytes);
+		ID3v23Frame frame = new ID3v23Frame(new ID3v23FrameHeader(input), input, true);
+		assertTrue(frame.isValid());
+
+		frame.getBody();
+		assertFalse(frame.isValid());
+		assertFalse(frame.isDirty());
+
+		frame.setBuffer();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		frame.save(output);
+		assertTrue(Arrays.equals(bytes, output.toByteArray()));
+	}
+}
@@ -0,0 +1,103 @@
+package ebs.music.tests;
+
+import com.beaglebuddy.mp3.enums.FrameType;
+import com.beaglebuddy.mp3.id3v23.ID3v23Frame;
+import com.beaglebuddy.mp3.id3v23.ID3v23Tag;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+public class ID3v23TagTest extends TestCase {
+	private byte[] tagBytes;
+
+	@Override
+	protected void setUp() throws Exception {
+		com.mpatric.mp3agic.ID3v23Tag tag = new com.mpatric.mp3agic.ID3v23Tag();
+		tag.setArtist("Solid Steel");
+		tag.setTitle("DJ Food - 2013-10-04 - part 1 & 2");
+		tag.setAlbum("2013-10-04");
+		tag.setTrack("1");
+		tag.setComment("Ninja Tune - Solid Steel Radio Show 4-10-2013 Part 1 + 2 - DJ Food");
+		tag.setPadding(true);
+		tagBytes = tag.toBytes();
+	}
+
+	public void testBulkRead() throws Exception {
+		CountingInputStream input = new CountingInputStream(new ByteArrayInputStream(tagBytes));
+		ID3v23Tag tag = new ID3v23Tag(input);
+
+		assertEquals(5, tag.getFrames().size());
+		assertEquals(tagBytes.length, tag.getSize());
+		assertTrue(String.valueOf(input.reads), input.reads <= 2);
+	}
+
+	public void testTruncatedPadding() throws Exception {
+		ID3v23Tag tag = new ID3v23Tag(new ByteArrayInputStream(Arrays.copyOf(tagBytes, tagBytes.length - 100)));
+		assertEquals(5, tag.getFrames().size());
+	}
+
+	public void testFrameIndex() throws Exception {
+		ID3v23Tag tag = new ID3v23Tag(new ByteArrayInputStream(tagBytes));
+		List<ID3v23Frame> frames = tag.getFrames();
+		ID3v23Frame title = tag.getFrame(FrameType.SONG_TITLE);
+		assertNotNull(title);
+		assertEquals(Arrays.asList(title), tag.getFrames(FrameType.SONG_TITLE));
+		assertNull(tag.getFrame(FrameType.ATTACHED_PICTURE));
+		assertTrue(tag.getFrames(FrameType.ATTACHED_PICTURE).isEmpty());
+
+		ID3v23Frame first = new ID3v23Frame(FrameType.SONG_TITLE);
+		ID3v23Frame last = new ID3v23Frame(FrameType.SONG_TITLE);
+		frames.add(0, first);
+		frames.add(last);
+		assertEquals(Arrays.asList(first, title, last), tag.getFrames(FrameType.SONG_TITLE));
+
+		for (Iterator<ID3v23Frame> iterator = frames.iterator(); iterator.hasNext(); ) {
+			if (iterator.next() == title) {
+				iterator.remove();
+			}
+		}
+		frames.remove(first);
+		assertSame(last, tag.getFrame(FrameType.SONG_TITLE));
+
+		ID3v23Frame picture = new ID3v23Frame(FrameType.ATTACHED_PICTURE);
+		frames.set(frames.indexOf(last), picture);
+		assertNull(tag.getFrame(FrameType.SONG_TITLE));
+		assertSame(picture, tag.getFrame(FrameType.ATTACHED_PICTURE));
+
+		tag.setFrames(Arrays.asList(title, picture));
+		assertEquals(2, tag.getFrames().size());
+		assertSame(title, tag.getFrame(FrameType.SONG_TITLE));
+		try {
+			tag.getFrames(FrameType.SONG_TITLE).clear();
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	private static class CountingInputStream extends FilterInputStream {
+		private int reads;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			reads++;
+			return super.read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			reads++;
+			return super.read(b, off, len);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package ebs.music.tests;
+
+import com.mpatric.mp3agic.AbstractID3v2Tag;
+import com.mpatric.mp3agic.ID3v2;
+import com.mpatric.mp3agic.ID3v23Tag;
+import com.mpatric.mp3agic.ID3v2Frame;
+import com.mpatric.mp3agic.ID3v2TagFactory;
+import com.mpatric.mp3agic.InvalidDataException;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class ID3v2FrameTest extends TestCase {
+	private byte[] image;
+	private byte[] tagBytes;
+
+	@Override
+	protected void setUp() throws Exception {
+		ID3v23Tag tag = new ID3v23Tag();
+		tag.setArtist("Solid Steel");
+		tag.setTitle("DJ Food - 2013-10-04 - part 1 & 2");
+		tag.setTrack("1");
+		image = new byte[64 * 1024];
+		new Random(42).nextBytes(image);
+		tag.setAlbumImage(image, "image/jpeg");
+		tagBytes = tag.toBytes();
+	}
+
+	public void testUntouchedFramesWrittenVerbatim() throws Exception {
+		ID3v2 tag = ID3v2TagFactory.createTag(tagBytes.clone());
+		assertEquals("Solid Steel", tag.getArtist());
+		assertTrue(Arrays.equals(tagBytes, tag.toBytes()));
+
+		tag.setTitle("DJ Food - 2013-10-04");
+		ID3v2 saved = ID3v2TagFactory.createTag(tag.toBytes());
+		assertEquals("DJ Food - 2013-10-04", saved.getTitle());
+		assertEquals("1", saved.getTrack());
+		assertTrue(Arrays.equals(image, saved.getAlbumImage()));
+	}
+
+	public void testFrameData() throws Exception {
+		byte[] bytes = {'T', 'I', 'T', '2', 0, 0, 0, 3, 0, 0, 0, 'D', 'J', 'X'};
+		ID3v2Frame frame = new ID3v2Frame(bytes, 0);
+		assertEquals(3, frame.getDataLength());
+		assertTrue(Arrays.equals(new byte[]{0, 'D', 'J'}, frame.getData()));
+		assertEquals(frame, new ID3v2Frame("TIT2", new byte[]{0, 'D', 'J'}));
+		assertTrue(Arrays.equals(Arrays.copyOf(bytes, 13), frame.toBytes()));
+	}
+
+	public void testFrameBeyondEndOfTag() throws Exception {
+		byte[] bytes = tagBytes.clone();
+		int offset = new String(bytes, "ISO-8859-1").indexOf(AbstractID3v2Tag.ID_IMAGE);
+		bytes[offset + 4] = 0x7F;
+		try {
+			ID3v2TagFactory.createTag(bytes);
+			fail();
+		} catch (InvalidDataException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package ebs.music.tests;
+
+import com.beaglebuddy.mp3.MP3;
+import com.mpatric.mp3agic.Mp3File;
+import ebs.music.bench.Mp3Corpus;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class Mp3CorpusTest extends TestCase {
+	private Path directory;
+	private Map<String, Path> files;
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("corpus");
+		files = new Mp3Corpus(200, 64 * 1024).generate(directory);
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		try (Stream<Path> paths = Files.list(directory)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				Files.delete(path);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	public void testVariants() throws Exception {
+		Mp3File cbr = mp3File(Mp3Corpus.CBR);
+		assertFalse(cbr.isVbr());
+		assertEquals(128, cbr.getBitrate());
+		assertEquals(200, cbr.getFrameCount());
+		assertEquals(0, cbr.getStartOffset());
+		assertFalse(cbr.hasId3v1Tag());
+		assertFalse(cbr.hasId3v2Tag());
+
+		Mp3File vbr = new Mp3File(file(Mp3Corpus.VBR_XING), Mp3File.DEFAULT_BUFFER_LENGTH, true, false, true);
+		assertTrue(vbr.isVbr());
+		assertEquals(200, vbr.getFrameCount());
+		assertTrue(mp3File(Mp3Corpus.VBR_XING).isVbr());
+
+		assertEquals(3000, mp3File(Mp3Corpus.JUNK).getStartOffset());
+		assertEquals(64 * 1024, mp3File(Mp3Corpus.APIC).getId3v2Tag().getAlbumImage().length);
+		assertEquals("2.0", mp3File(Mp3Corpus.ID3V22).getId3v2Tag().getVersion());
+		assertEquals("3.0", mp3File(Mp3Corpus.ID3V23).getId3v2Tag().getVersion());
+		assertEquals("4.0", mp3File(Mp3Corpus.ID3V24).getId3v2Tag().getVersion());
+		assertEquals("Solid Steel", mp3File(Mp3Corpus.ID3V22).getId3v2Tag().getArtist());
+		assertEquals("Solid Steel", mp3File(Mp3Corpus.ID3V1).getId3v1Tag().getArtist());
+
+		MP3 mp3 = new MP3(file(Mp3Corpus.ID3V23));
+		assertEquals("DJ Food - 2013-10-04 - part 1 & 2", mp3.getTitle());
+	}
+
+	private Mp3File mp3File(String variant) throws Exception {
+		return new Mp3File(file(variant));
+	}
+
+	private String file(String variant) {
+		return files.get(variant).toString();
+	}
+}
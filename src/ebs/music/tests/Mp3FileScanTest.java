@@ -0,0 +1,78 @@
+package ebs.music.tests;
+
+import com.mpatric.mp3agic.Mp3File;
+import ebs.music.bench.Mp3Corpus;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+public class Mp3FileScanTest extends TestCase {
+	// more than MAXIMUM_PROBE_FRAMES, so frames without a Xing/VBRI header are estimated
+	private static final int FRAMES = 1000;
+
+	private Path directory;
+	private Map<String, Path> files;
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("scan");
+		files = new Mp3Corpus(FRAMES, 1024).generate(directory);
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		ScanFixtures.deleteTree(directory);
+	}
+
+	public void testProbe() throws Exception {
+		for (String variant : new String[]{Mp3Corpus.CBR, Mp3Corpus.VBR_XING, Mp3Corpus.VBR_VBRI, Mp3Corpus.JUNK}) {
+			Mp3File scanned = mp3File(variant, false, false);
+			Mp3File probed = mp3File(variant, true, false);
+			assertTrue(probed.isProbed());
+
+			assertEquals(variant, FRAMES, scanned.getFrameCount());
+			assertEquals(variant, scanned.getFrameCount(), probed.getFrameCount());
+			assertEquals(variant, scanned.isVbr(), probed.isVbr());
+			assertEquals(variant, scanned.getBitrate(), probed.getBitrate());
+			assertEquals(variant, scanned.getStartOffset(), probed.getStartOffset());
+			assertEquals(variant, scanned.getXingOffset(), probed.getXingOffset());
+			assertEquals(variant, scanned.getEndOffset(), probed.getEndOffset());
+			assertEquals(variant, scanned.getXingType(), probed.getXingType());
+			if (scanned.isVbr()) {
+				// the scan divides the bytes by the average bitrate, the probe counts the samples of the frames
+				assertEquals(variant, scanned.getLengthInMilliseconds(), probed.getLengthInMilliseconds(),
+						scanned.getLengthInMilliseconds() / 500);
+			} else {
+				assertEquals(variant, scanned.getLengthInMilliseconds(), probed.getLengthInMilliseconds());
+			}
+		}
+
+		assertEquals("Xing", mp3File(Mp3Corpus.VBR_XING, true, false).getXingType());
+		assertEquals("VBRI", mp3File(Mp3Corpus.VBR_VBRI, true, false).getXingType());
+		assertEquals(3000, mp3File(Mp3Corpus.JUNK, true, false).getStartOffset());
+	}
+
+	public void testMapFile() throws Exception {
+		for (String variant : Mp3Corpus.VARIANTS) {
+			// a small heap buffer, so the heap path reads many blocks
+			Mp3File scanned = new Mp3File(files.get(variant).toString(), 1024, true, true, false, false);
+			Mp3File mapped = mp3File(variant, false, true);
+
+			assertEquals(variant, FRAMES, mapped.getFrameCount());
+			assertEquals(variant, scanned.getFrameCount(), mapped.getFrameCount());
+			assertEquals(variant, scanned.getStartOffset(), mapped.getStartOffset());
+			assertEquals(variant, scanned.getXingOffset(), mapped.getXingOffset());
+			assertEquals(variant, scanned.getEndOffset(), mapped.getEndOffset());
+			assertEquals(variant, scanned.getBitrates(), mapped.getBitrates());
+			assertEquals(variant, scanned.getBitrate(), mapped.getBitrate());
+			assertEquals(variant, scanned.isVbr(), mapped.isVbr());
+		}
+	}
+
+	private Mp3File mp3File(String variant, boolean probe, boolean mapFile) throws Exception {
+		return new Mp3File(files.get(variant).toString(), Mp3File.DEFAULT_BUFFER_LENGTH, true, false, probe, mapFile);
+	}
+}
@@ -0,0 +1,148 @@
+package ebs.music.tests;
+
+import com.mpatric.mp3agic.ID3v23Tag;
+import com.mpatric.mp3agic.Mp3File;
+import com.mpatric.mp3agic.SaveResult;
+import ebs.music.bench.Mp3Corpus;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+
+public class Mp3FileUpdateTest extends TestCase {
+	private Path directory;
+	private Map<String, Path> files;
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("update");
+		files = new Mp3Corpus(200, 1024).generate(directory);
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		ScanFixtures.deleteTree(directory);
+	}
+
+	public void testInPlace() throws Exception {
+		Mp3File mp3File = new Mp3File(file(Mp3Corpus.ID3V23));
+		long length = Files.size(files.get(Mp3Corpus.ID3V23));
+		long startOffset = mp3File.getStartOffset();
+		long endOffset = mp3File.getEndOffset();
+		byte[] audio = audio(mp3File);
+
+		// shorter than the old tag, the rest of the space up to the first frame is padding
+		mp3File.getId3v2Tag().setTitle("DJ Food");
+		SaveResult result = mp3File.update();
+		assertTrue(result.isInPlace());
+		assertEquals(0, result.getAudioBytes());
+		assertEquals(startOffset, result.getTagBytes());
+
+		assertEquals(length, Files.size(files.get(Mp3Corpus.ID3V23)));
+		Mp3File updated = new Mp3File(file(Mp3Corpus.ID3V23));
+		assertEquals("DJ Food", updated.getId3v2Tag().getTitle());
+		assertEquals("Solid Steel", updated.getId3v2Tag().getArtist());
+		assertEquals(startOffset, updated.getStartOffset());
+		assertEquals(endOffset, updated.getEndOffset());
+		assertTrue(Arrays.equals(audio, audio(updated)));
+	}
+
+	public void testRewrite() throws Exception {
+		Mp3File mp3File = new Mp3File(file(Mp3Corpus.VBR_XING));
+		assertEquals(0, mp3File.getXingOffset());
+		long startOffset = mp3File.getStartOffset();
+		long endOffset = mp3File.getEndOffset();
+		byte[] audio = audio(mp3File);
+
+		ID3v23Tag tag = new ID3v23Tag();
+		tag.setArtist("Solid Steel");
+		tag.setTitle("DJ Food - 2013-10-04");
+		mp3File.setId3v2Tag(tag);
+		SaveResult result = mp3File.update();
+		assertFalse(result.isInPlace());
+		assertEquals(audio.length, result.getAudioBytes());
+
+		// the tag is padded for later updates and every offset moves by its length
+		long tagLength = result.getTagBytes();
+		assertTrue(tagLength >= Mp3File.UPDATE_PADDING_LENGTH);
+		assertEquals(tagLength, mp3File.getXingOffset());
+		assertEquals(startOffset + tagLength, mp3File.getStartOffset());
+		assertEquals(endOffset + tagLength, mp3File.getEndOffset());
+		assertTrue(Arrays.equals(audio, audio(mp3File)));
+
+		Mp3File rewritten = new Mp3File(file(Mp3Corpus.VBR_XING));
+		assertEquals(mp3File.getXingOffset(), rewritten.getXingOffset());
+		assertEquals(mp3File.getStartOffset(), rewritten.getStartOffset());
+		assertEquals(mp3File.getEndOffset(), rewritten.getEndOffset());
+		assertEquals(200, rewritten.getFrameCount());
+		assertEquals("DJ Food - 2013-10-04", rewritten.getId3v2Tag().getTitle());
+	}
+
+	public void testUpdateAfterRewrite() throws Exception {
+		Mp3File mp3File = new Mp3File(file(Mp3Corpus.VBR_XING));
+		byte[] audio = audio(mp3File);
+		ID3v23Tag tag = new ID3v23Tag();
+		tag.setTitle("DJ Food");
+		mp3File.setId3v2Tag(tag);
+		assertFalse(mp3File.update().isInPlace());
+		long length = Files.size(files.get(Mp3Corpus.VBR_XING));
+		long xingOffset = mp3File.getXingOffset();
+
+		// the same object knows the new layout, the grown tag fits in the padding up to the Xing frame
+		tag.setTitle("DJ Food - 2013-10-04 - part 1 & 2");
+		tag.setArtist("Solid Steel");
+		SaveResult result = mp3File.update();
+		assertTrue(result.isInPlace());
+		assertEquals(xingOffset, result.getTagBytes());
+		assertEquals(length, Files.size(files.get(Mp3Corpus.VBR_XING)));
+		assertEquals(xingOffset, mp3File.getXingOffset());
+
+		Mp3File updated = new Mp3File(file(Mp3Corpus.VBR_XING));
+		assertEquals(xingOffset, updated.getXingOffset());
+		assertEquals("DJ Food - 2013-10-04 - part 1 & 2", updated.getId3v2Tag().getTitle());
+		assertTrue(Arrays.equals(audio, audio(updated)));
+	}
+
+	public void testId3v1() throws Exception {
+		Mp3File mp3File = new Mp3File(file(Mp3Corpus.ID3V1));
+		long length = Files.size(files.get(Mp3Corpus.ID3V1));
+		byte[] audio = audio(mp3File);
+
+		mp3File.getId3v1Tag().setArtist("DJ Food");
+		ID3v23Tag tag = new ID3v23Tag();
+		tag.setArtist("DJ Food");
+		mp3File.setId3v2Tag(tag);
+		SaveResult result = mp3File.update();
+		assertFalse(result.isInPlace());
+		// the old trailer is replaced, not kept after the audio
+		assertEquals(length + mp3File.getStartOffset(), Files.size(files.get(Mp3Corpus.ID3V1)));
+
+		mp3File.getId3v1Tag().setTitle("Solid Steel");
+		assertTrue(mp3File.update().isInPlace());
+		assertEquals(length + mp3File.getStartOffset(), Files.size(files.get(Mp3Corpus.ID3V1)));
+
+		Mp3File updated = new Mp3File(file(Mp3Corpus.ID3V1));
+		assertEquals("DJ Food", updated.getId3v1Tag().getArtist());
+		assertEquals("Solid Steel", updated.getId3v1Tag().getTitle());
+		assertEquals("DJ Food", updated.getId3v2Tag().getArtist());
+		assertFalse(updated.hasCustomTag());
+		assertTrue(Arrays.equals(audio, audio(updated)));
+	}
+
+	/**
+	 * @return bytes from the Xing frame, or the first frame, to the end of the last frame
+	 */
+	private static byte[] audio(Mp3File mp3File) throws IOException {
+		byte[] bytes = Files.readAllBytes(Paths.get(mp3File.getFilename()));
+		long start = mp3File.hasXingFrame() ? mp3File.getXingOffset() : mp3File.getStartOffset();
+		return Arrays.copyOfRange(bytes, (int) start, (int) mp3File.getEndOffset() + 1);
+	}
+
+	private String file(String variant) {
+		return files.get(variant).toString();
+	}
+}
@@ -0,0 +1,61 @@
+package ebs.music.tests;
+
+import com.mpatric.mp3agic.InvalidDataException;
+import com.mpatric.mp3agic.Mp3File;
+import com.mpatric.mp3agic.Mp3TagFile;
+import ebs.music.bench.Mp3Corpus;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class Mp3TagFileTest extends TestCase {
+	private Path directory;
+	private Map<String, Path> files;
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("tags");
+		files = new Mp3Corpus(50, 32 * 1024).generate(directory);
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		try (Stream<Path> paths = Files.list(directory)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				Files.delete(path);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	public void testSameTagsAsMp3File() throws Exception {
+		for (Map.Entry<String, Path> entry : files.entrySet()) {
+			String name = entry.getValue().toString();
+			Mp3File mp3File = new Mp3File(name);
+			Mp3TagFile tagFile = new Mp3TagFile(name);
+
+			assertEquals(entry.getKey(), mp3File.getId3v1Tag(), tagFile.getId3v1Tag());
+			assertEquals(entry.getKey(), mp3File.getId3v2Tag(), tagFile.getId3v2Tag());
+			assertEquals(entry.getKey(), mp3File.hasId3v2Tag(), tagFile.hasId3v2Tag());
+		}
+		assertTrue(new Mp3TagFile(files.get(Mp3Corpus.ID3V24).toString()).hasId3v2Tag());
+		assertTrue(new Mp3TagFile(files.get(Mp3Corpus.ID3V1).toString()).hasId3v1Tag());
+	}
+
+	public void testTruncatedTag() throws Exception {
+		byte[] bytes = Files.readAllBytes(files.get(Mp3Corpus.APIC));
+		Path truncated = directory.resolve("truncated.mp3");
+		Files.write(truncated, Arrays.copyOf(bytes, 1000));
+		try {
+			new Mp3TagFile(truncated.toString());
+			fail();
+		} catch (InvalidDataException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package ebs.music.tests;
+
+import com.mpatric.mp3agic.InvalidDataException;
+import com.mpatric.mp3agic.MpegFrame;
+import junit.framework.TestCase;
+
+public class MpegFrameTest extends TestCase {
+	private static final int SYNC = 0xFFE00000;
+	// private, copyright and original bits, they are never decoded into anything that is checked
+	private static final int IGNORED_BITS = 0x10C;
+
+	/**
+	 * Every header the int decoder accepts must be accepted by the constructor, with the same fields.
+	 */
+	public void testDecodeInt() {
+		int valid = 0;
+		for (int bits = 0; bits < 1 << 21; bits++) {
+			if ((bits & IGNORED_BITS) != 0) {
+				continue;
+			}
+
+			int header = SYNC | bits;
+			MpegFrame frame;
+			try {
+				frame = new MpegFrame((byte) (header >>> 24), (byte) (header >>> 16), (byte) (header >>> 8),
+						(byte) header);
+			} catch (InvalidDataException e) {
+				frame = null;
+			}
+
+			String hex = Integer.toHexString(header);
+			assertEquals(hex, frame != null, MpegFrame.isValidHeader(header));
+			if (frame == null) {
+				continue;
+			}
+			valid++;
+			assertEquals(hex, frame.getBitrate(), MpegFrame.getBitrate(header));
+			assertEquals(hex, frame.getSampleRate(), MpegFrame.getSampleRate(header));
+			assertEquals(hex, frame.getLengthInBytes(), MpegFrame.getLengthInBytes(header));
+			assertEquals(hex, frame.getSamplesPerFrame(), MpegFrame.getSamplesPerFrame(header));
+		}
+		assertTrue(valid > 0);
+	}
+
+	public void testInvalid() {
+		// no sync word, reserved emphasis, free bitrate, reserved sample rate
+		assertFalse(MpegFrame.isValidHeader(0x7FFB9040));
+		assertFalse(MpegFrame.isValidHeader(0xFFFB9042));
+		assertFalse(MpegFrame.isValidHeader(0xFFFB0040));
+		assertFalse(MpegFrame.isValidHeader(0xFFFB9C40));
+		assertTrue(MpegFrame.isValidHeader(0xFFFB9040));
+	}
+
+	public void testSameStream() {
+		// bitrate and padding may change within a stream, sample rate may not
+		assertTrue(MpegFrame.isSameStream(0xFFFB9040, 0xFFFBB240));
+		assertFalse(MpegFrame.isSameStream(0xFFFB9040, 0xFFFB9440));
+		assertFalse(MpegFrame.isSameStream(0xFFFB9040, 0xFFF39040));
+	}
+}
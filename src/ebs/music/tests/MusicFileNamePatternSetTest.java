@@ -0,0 +1,130 @@
+package ebs.music.tests;
+
+import ebs.music.MusicBase;
+import ebs.music.MusicFileNamePattern;
+import ebs.music.MusicFileNamePatternSet;
+import ebs.music.RenameBreezeblock;
+import ebs.music.RenameSolidSteel;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class MusicFileNamePatternSetTest extends TestCase {
+	public void testLiterals() {
+		MusicFileNamePatternSet set = new MusicFileNamePatternSet(new MusicFileNamePattern[]{
+				pattern("(\\d\\d\\d\\d-\\d\\d-\\d\\d) .+ - (.+) - Part (\\d)(\\..+)"),
+				pattern(".+(\\d\\d\\d\\d.\\d\\d.\\d\\d)\\.0(\\d|\\d.) (.+)\\)(\\..+)"),
+				pattern("(.+) pt ?(\\d)(x)?(\\..+)"),
+				pattern("a|b")
+		});
+
+		assertEquals(Arrays.asList("-", "-", " ", " - ", " - Part ", "."), Arrays.asList(set.getLiterals(0)));
+		assertEquals(Arrays.asList(".0", " ", ")", "."), Arrays.asList(set.getLiterals(1)));
+		assertEquals(Arrays.asList(" pt", "."), Arrays.asList(set.getLiterals(2)));
+		assertEquals(0, set.getLiterals(3).length);
+	}
+
+	public void testMatch() {
+		MusicFileNamePatternSet set = new MusicFileNamePatternSet(RenameBreezeblock.BREEZEBLOCK_PATTERNS);
+
+		MusicFileNamePatternSet.Match match = set.match("1997-12-15 Breezeblock - Primal Scream - Part 2.mp3", 0);
+		assertEquals(0, match.getIndex());
+		match = set.match("1997-12-15 Breezeblock - Primal Scream - Part 2.mp3", 1);
+		assertEquals(5, match.getIndex());
+		assertEquals("2", match.getResults().get(0).group(3));
+
+		assertNull(set.match("folder.jpg", 0));
+	}
+
+	public void testAdaptive() {
+		MusicFileNamePatternSet set = new MusicFileNamePatternSet(new MusicFileNamePattern[]{
+				pattern("(\\d) - (.+)"),
+				pattern("x(\\d)"),
+				pattern("(\\d)y"),
+				pattern("(\\d)z")
+		}, new int[][]{{0, 2}});
+		set.setAdaptive(true);
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(2, set.match(i % 10 + "y", null).getIndex());
+		}
+		assertEquals(3, set.match("1z", null).getIndex());
+		assertEquals(1, set.match("x1", null).getIndex());
+		set.reorder();
+		// 0 has to be tried before 2
+		assertEquals(Arrays.asList(0, 2, 1, 3), toList(set.getOrder()));
+
+		MusicFileNamePatternSet.Match match = set.match("1 - 2y", null);
+		assertEquals(0, match.getIndex());
+		assertEquals(2, set.match("1 - 2y", match).getIndex());
+
+		assertEquals(101, set.getHits(2));
+		assertEquals(102, set.getSkips(0));
+		assertEquals(Collections.emptyList(), set.getDeadPatterns());
+		set.setAdaptive(false);
+		assertEquals(Arrays.asList(0, 1, 2, 3), toList(set.getOrder()));
+
+		try {
+			new MusicFileNamePatternSet(new MusicFileNamePattern[]{pattern("a"), pattern("b")}, new int[][]{{1, 0}});
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Names with two date forms match two patterns, however hot the later one is the earlier one stays first.
+	 */
+	public void testSplicedNames() {
+		testSplicedNames(RenameSolidSteel.SOLID_STEEL_PATTERN_SET,
+				"Solid Steel Radio Show 3122014 Part 1 + 2 - Mr Scruff.mp3",
+				"04.10.13 - Solid Steel Radio Show 4-10-2013 Part 1 + 2 - DJ Food.mp3",
+				"Solid Steel Radio Show 4-10-2013 Part 1 + 2 - DJ Food 312014 Part 1 + 2 - Mr Scruff.mp3",
+				"01 - Solid Steel - DJ Food - 10-04-13 x Solid Steel Radio Show 1-11-2013 Part 1 - Four Tet.mp3",
+				"Solid Steel Radio Show 1-11-2013 Part 1 - Four Tet 30112014 Part 1 + 2 - Mr Scruff.mp3");
+		testSplicedNames(RenameBreezeblock.BREEZEBLOCK_PATTERN_SET,
+				"Up, Bustle - (10) Richard Egues - Descarga Con Cate.mp3",
+				"02 mix 1999-01-18 Breezeblock - Bentley Rhythm Ace 1.mp3",
+				"1997-10-20 Breezeblock - Dub Pistols pt 1.5 - Part 2.mp3",
+				"1997-12-15 Breezeblock - Up, Bustle - (10) Richard Egues - Part 2.mp3");
+	}
+
+	private static void testSplicedNames(MusicFileNamePatternSet set, String hot, String... names) {
+		int[] expected = new int[names.length];
+		for (int i = 0; i < names.length; i++) {
+			MusicFileNamePatternSet.Match match = set.match(names[i], 0);
+			assertNotNull(names[i], set.match(names[i], match.getIndex() + 1));
+			expected[i] = match.getIndex();
+		}
+
+		set.setAdaptive(true);
+		try {
+			int hotIndex = set.match(hot, 0).getIndex();
+			for (int i = 0; i < 5000; i++) {
+				assertEquals(hotIndex, set.match(hot, null).getIndex());
+			}
+			set.reorder();
+			for (int i = 0; i < names.length; i++) {
+				assertEquals(names[i], expected[i], set.match(names[i], null).getIndex());
+			}
+		} finally {
+			set.setAdaptive(false);
+		}
+	}
+
+	private static List<Integer> toList(int[] order) {
+		List<Integer> list = new ArrayList<Integer>();
+		for (int i : order) {
+			list.add(i);
+		}
+		return list;
+	}
+
+	private static MusicFileNamePattern pattern(String regex) {
+		return new MusicFileNamePattern(Pattern.compile(regex), MusicBase.TRUE_DATE_FORMAT, 0, 0, 0, 0, 0);
+	}
+}
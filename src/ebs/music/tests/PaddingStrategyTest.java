@@ -0,0 +1,107 @@
+package ebs.music.tests;
+
+import com.beaglebuddy.mp3.MP3;
+import com.beaglebuddy.mp3.id3v23.PaddingStrategy;
+import com.beaglebuddy.mp3.pojo.SaveResult;
+import ebs.music.bench.Mp3Corpus;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class PaddingStrategyTest extends TestCase {
+	private Path directory;
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("padding");
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		ScanFixtures.deleteTree(directory);
+	}
+
+	public void testFixed() {
+		assertEquals(100, new PaddingStrategy.Fixed(100).getPaddingSize(1000, 50));
+		assertEquals(0, new PaddingStrategy.Fixed(0).getPaddingSize(1000, 50));
+		try {
+			new PaddingStrategy.Fixed(-1);
+			fail("A negative padding size must be rejected");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testPercentage() {
+		PaddingStrategy percentage = new PaddingStrategy.Percentage(10, 50);
+		assertEquals(100, percentage.getPaddingSize(1000, 0));
+		assertEquals(50, percentage.getPaddingSize(100, 0));
+		// no overflow on a large tag
+		assertEquals(Integer.MAX_VALUE / 10, new PaddingStrategy.Percentage(10, 0).getPaddingSize(Integer.MAX_VALUE, 0));
+	}
+
+	public void testBlock() {
+		PaddingStrategy block = new PaddingStrategy.Block(4096, 1024);
+		assertEquals(3096, block.getPaddingSize(1000, 0));
+		// tag and minimum end exactly on a block boundary
+		assertEquals(1024, block.getPaddingSize(3072, 0));
+		// one byte more rounds up to the next block
+		assertEquals(8192 - 3073, block.getPaddingSize(3073, 0));
+		assertEquals(0, new PaddingStrategy.Block(4096, 0).getPaddingSize(8192, 0));
+		for (int tagSize = 1; tagSize < 20000; tagSize += 997) {
+			assertEquals(0, (tagSize + block.getPaddingSize(tagSize, 0)) % 4096);
+		}
+	}
+
+	public void testHeadroom() {
+		PaddingStrategy headroom = new PaddingStrategy.Headroom(4, 256);
+		assertEquals(400, headroom.getPaddingSize(1000, 100));
+		assertEquals(256, headroom.getPaddingSize(1000, 10));
+		assertEquals(256, headroom.getPaddingSize(1000, -500));
+		// a shrinking tag needs no room
+		assertEquals(0, new PaddingStrategy.Headroom(4, 0).getPaddingSize(1000, -500));
+		assertEquals(Integer.MAX_VALUE, new PaddingStrategy.Headroom(Integer.MAX_VALUE, 0).getPaddingSize(1000, 2));
+	}
+
+	public void testSave() throws IOException {
+		Path file = directory.resolve("show.mp3");
+		Files.write(file, new Mp3Corpus(200, 0).create(Mp3Corpus.ID3V23));
+		MP3 mp3 = new MP3(file.toFile());
+		byte[] audio = audio(file, mp3.getTagSize());
+
+		// the new TSIZ frame alone grows the tag, so the first save rewrites the file
+		mp3.setPaddingStrategy(new PaddingStrategy.Block(4096, 1024));
+		mp3.setTitle("DJ Food - 2013-10-04 - part 1 & 2 - Ninja Tune");
+		SaveResult result = mp3.save();
+		assertTrue(result.isRewritten());
+		assertEquals(1, mp3.getNumRewrites());
+		assertEquals(0, mp3.getNumInPlaceSaves());
+		assertEquals(0, mp3.getTagSize() % 4096);
+		assertTrue(Arrays.equals(audio, audio(file, mp3.getTagSize())));
+
+		// the padding takes the next edit
+		long length = Files.size(file);
+		mp3.setTitle("DJ Food - 2013-10-04 - part 1 & 2 - Ninja Tune - Solid Steel");
+		result = mp3.save();
+		assertFalse(result.isRewritten());
+		assertEquals(1, mp3.getNumRewrites());
+		assertEquals(1, mp3.getNumInPlaceSaves());
+		assertEquals(length, Files.size(file));
+
+		MP3 saved = new MP3(file.toFile());
+		assertEquals("DJ Food - 2013-10-04 - part 1 & 2 - Ninja Tune - Solid Steel", saved.getTitle());
+		assertEquals(mp3.getTagSize(), saved.getTagSize());
+		assertTrue(Arrays.equals(audio, audio(file, saved.getTagSize())));
+	}
+
+	/**
+	 * @return bytes of the file after the ID3v2 tag
+	 */
+	static byte[] audio(Path file, long tagSize) throws IOException {
+		byte[] bytes = Files.readAllBytes(file);
+		return Arrays.copyOfRange(bytes, (int) tagSize, bytes.length);
+	}
+}
@@ -5,7 +5,7 @@ import ebs.music.RenameBreezeblock;
 import junit.framework.TestCase;
 
 import java.text.ParseException;
-import java.util.Calendar;
+import java.time.LocalDate;
 import java.util.regex.Matcher;
 
 /**
@@ -86,12 +86,11 @@ public class RenameBreezeblockTest extends TestCase {
 		assertTrue(matcher.find());
 
 		if (year > 0) {
-			Calendar calendar = Calendar.getInstance();
-			calendar.setTime(pattern.getDateFormat().parse(matcher.group(pattern.getDate())));
+			LocalDate date = LocalDate.ofEpochDay(pattern.getDateParser().parse(matcher.group(pattern.getDate())));
 
-			assertEquals(testName, year, calendar.get(Calendar.YEAR));
-			assertEquals(testName, month - 1, calendar.get(Calendar.MONTH));
-			assertEquals(testName, day, calendar.get(Calendar.DAY_OF_MONTH));
+			assertEquals(testName, year, date.getYear());
+			assertEquals(testName, month.intValue(), date.getMonthValue());
+			assertEquals(testName, day, date.getDayOfMonth());
 		}
 
 		String part1 = pattern.getPart1() == 0 ? "" : matcher.group(pattern.getPart1());
@@ -0,0 +1,171 @@
+package ebs.music.tests;
+
+import ebs.music.DirectoryScanner;
+import ebs.music.FileMetrics;
+import ebs.music.FileTagsEditor;
+import ebs.music.FolderData;
+import ebs.music.MusicFileData;
+import ebs.music.RenameJournal;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class RenameJournalTest extends TestCase {
+	private Path baseDirectory;
+	private Path journalFile;
+
+	@Override
+	protected void setUp() throws IOException {
+		baseDirectory = Files.createTempDirectory("journal");
+		journalFile = baseDirectory.resolve(RenameJournal.FILE_NAME);
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		ScanFixtures.deleteTree(baseDirectory);
+	}
+
+	public void testReopen() throws IOException {
+		Path first = baseDirectory.resolve("1.mp3");
+		Path second = baseDirectory.resolve("2.mp3");
+		try (RenameJournal journal = new RenameJournal(journalFile)) {
+			journal.planned(first, baseDirectory.resolve("first.mp3"));
+			journal.planned(second, baseDirectory.resolve("second.mp3"));
+			journal.tagged(first);
+		}
+		// a record cut by a crash
+		Files.write(journalFile, ("T\t" + second).getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+		try (RenameJournal journal = new RenameJournal(journalFile)) {
+			assertEquals(RenameJournal.State.TAGGED, journal.getState(first));
+			assertEquals(RenameJournal.State.PLANNED, journal.getState(second));
+			assertEquals(RenameJournal.State.NEW, journal.getState(baseDirectory.resolve("3.mp3")));
+			assertEquals(baseDirectory.resolve("first.mp3"), journal.getTarget(first));
+		}
+	}
+
+	public void testResumeAndRollback() throws IOException {
+		Path tagged = Files.createFile(baseDirectory.resolve("1.mp3"));
+		Path fresh = Files.createFile(baseDirectory.resolve("2.mp3"));
+		Path stale = Files.createFile(baseDirectory.resolve("3.mp3"));
+		try (RenameJournal journal = new RenameJournal(journalFile)) {
+			journal.planned(tagged, baseDirectory.resolve("1 renamed.mp3"));
+			journal.planned(stale, baseDirectory.resolve("3 old.mp3"));
+			journal.tagged(tagged);
+			journal.tagged(stale);
+		}
+
+		final List<String> updated = Collections.synchronizedList(new ArrayList<String>());
+		ScanFixtures.RecordingRules rules = new ScanFixtures.RecordingRules() {
+			@Override
+			protected boolean updateTags(FileTagsEditor editor, FileMetrics metrics) {
+				return updated.add(editor.getFileName());
+			}
+
+			@Override
+			protected boolean renameFile(FileTagsEditor editor) {
+				return false;
+			}
+
+			@Override
+			protected String getNewFileName(FileTagsEditor editor) {
+				return editor.getFileName().replace(".mp3", " renamed.mp3");
+			}
+		};
+
+		try (RenameJournal journal = new RenameJournal(journalFile)) {
+			new DirectoryScanner(rules, 2, journal).scan(baseDirectory);
+
+			// the new name of the stale file is not the journalled one any more, its tags are written again
+			Collections.sort(updated);
+			assertEquals(Arrays.asList(fresh.toString(), stale.toString()), updated);
+			assertFalse(Files.exists(tagged));
+			assertFalse(Files.exists(fresh));
+			assertFalse(Files.exists(baseDirectory.resolve("3 old.mp3")));
+			assertTrue(Files.exists(baseDirectory.resolve("1 renamed.mp3")));
+			assertTrue(Files.exists(baseDirectory.resolve("2 renamed.mp3")));
+			assertTrue(Files.exists(baseDirectory.resolve("3 renamed.mp3")));
+			assertEquals(RenameJournal.State.DONE, journal.getState(tagged));
+
+			assertEquals(3, journal.rollback());
+		}
+
+		assertTrue(Files.exists(tagged));
+		assertTrue(Files.exists(fresh));
+		assertTrue(Files.exists(stale));
+		try (RenameJournal journal = new RenameJournal(journalFile)) {
+			assertEquals(RenameJournal.State.UNDONE, journal.getState(fresh));
+			assertNull(journal.getTarget(fresh));
+
+			// rolled back files are not resumed by the next scan
+			new DirectoryScanner(new ScanFixtures.RecordingRules() {
+				@Override
+				public MusicFileData matchFile(String fileName, FolderData folder) {
+					return null;
+				}
+			}, 2, journal).scan(baseDirectory);
+		}
+
+		assertTrue(Files.exists(tagged));
+		assertTrue(Files.exists(fresh));
+		assertTrue(Files.exists(stale));
+	}
+
+	public void testSpecialCharacters() throws IOException {
+		// all legal in a Linux file name, a raw tab or line break would split the record
+		Path file = Files.createFile(baseDirectory.resolve("DJ Food\t2013\\10\\04.mp3"));
+		Path target = baseDirectory.resolve("Solid Steel\n\\t part 1\r.mp3");
+		try (RenameJournal journal = new RenameJournal(journalFile)) {
+			journal.planned(file, target);
+			journal.tagged(file);
+			Files.move(file, target);
+			journal.renamed(file);
+		}
+
+		try (RenameJournal journal = new RenameJournal(journalFile)) {
+			assertEquals(RenameJournal.State.DONE, journal.getState(file));
+			assertEquals(target, journal.getTarget(file));
+			assertEquals(RenameJournal.State.NEW, journal.getState(baseDirectory.resolve("DJ Food")));
+			assertEquals(1, journal.rollback());
+		}
+
+		assertTrue(Files.exists(file));
+		assertFalse(Files.exists(target));
+		try (RenameJournal journal = new RenameJournal(journalFile)) {
+			assertEquals(RenameJournal.State.UNDONE, journal.getState(file));
+		}
+	}
+
+	public void testCompact() throws IOException {
+		Path file = baseDirectory.resolve("1.mp3");
+		try (RenameJournal journal = new RenameJournal(journalFile)) {
+			for (int i = 0; i < 1000; i++) {
+				journal.planned(file, baseDirectory.resolve(i + ".mp3"));
+				journal.tagged(file);
+				journal.renamed(file);
+			}
+		}
+		long size = Files.size(journalFile);
+
+		try (RenameJournal journal = new RenameJournal(journalFile)) {
+			assertEquals(RenameJournal.State.DONE, journal.getState(file));
+			assertEquals(baseDirectory.resolve("999.mp3"), journal.getTarget(file));
+			assertTrue(size < 1000);
+
+			// a TAGGED file keeps the journal as it is
+			for (int i = 0; i < 1000; i++) {
+				journal.planned(file, baseDirectory.resolve(i + ".mp3"));
+				journal.tagged(file);
+			}
+		}
+		assertTrue(Files.size(journalFile) > size + 1000);
+	}
+}
@@ -0,0 +1,117 @@
+package ebs.music.tests;
+
+import ebs.music.DirectoryScanner;
+import ebs.music.FileTagsEditor;
+import ebs.music.FolderData;
+import ebs.music.MusicBase;
+import ebs.music.MusicFileData;
+import ebs.music.RenamePlan;
+import ebs.music.TagsData;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RenamePlanTest extends TestCase {
+	private Path baseDirectory;
+
+	@Override
+	protected void setUp() throws IOException {
+		baseDirectory = Files.createTempDirectory("plan");
+		Files.createDirectories(baseDirectory.resolve("Mix, \"live\""));
+		for (String name : new String[]{"1998-03-05 01.mp3", "1998-03-06 02.mp3", "readme.txt"}) {
+			Files.createFile(baseDirectory.resolve("Mix, \"live\"").resolve(name));
+		}
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		ScanFixtures.deleteTree(baseDirectory);
+	}
+
+	public void testPlanAndExecute() throws IOException {
+		RecordingRules rules = new RecordingRules();
+		RenamePlan plan = new DirectoryScanner(rules, 2).plan(baseDirectory);
+		assertTrue(rules.renamed.isEmpty());
+		assertEquals(2, plan.size());
+
+		RenamePlan.Entry entry = plan.getEntries().get(0);
+		assertEquals("1998-03-05 01.mp3", entry.getFile().getFileName().toString());
+		// a relative new name is in the base directory, whatever the working directory is
+		assertEquals(baseDirectory.resolve("Test - 1998-03-05 - Mix, \"live\" [part 1].mp3"), entry.getTarget());
+		assertEquals("Mix, \"live\" - 1998-03-05 - part 1", entry.getTitle());
+		assertEquals("1998-03-05", entry.getAlbum());
+		assertEquals(1998, entry.getYear());
+		assertEquals(1, entry.getTrack());
+		assertEquals("Electronic", entry.getGenre());
+
+		Path planFile = baseDirectory.resolve("plan.csv");
+		plan.write(planFile);
+		RenamePlan read = RenamePlan.read(planFile);
+		assertEquals(plan.size(), read.size());
+		for (int i = 0; i < plan.size(); i++) {
+			RenamePlan.Entry expected = plan.getEntries().get(i);
+			RenamePlan.Entry actual = read.getEntries().get(i);
+			assertEquals(expected.getFile(), actual.getFile());
+			assertEquals(expected.getTarget(), actual.getTarget());
+			assertEquals(expected.getTitle(), actual.getTitle());
+			assertEquals(expected.getTrack(), actual.getTrack());
+		}
+
+		// the second file is renamed by hand after the plan was made, the third one is removed from the plan
+		List<String> lines = new ArrayList<String>(Files.readAllLines(planFile, StandardCharsets.UTF_8));
+		lines.set(2, lines.get(2).replace("[part 2]", "[part 3]"));
+		Files.write(planFile, lines, StandardCharsets.UTF_8);
+		new DirectoryScanner(rules, 2).execute(baseDirectory, RenamePlan.read(planFile));
+		assertEquals(Arrays.asList("Test - 1998-03-05 - Mix, \"live\" [part 1].mp3"), rules.renamed);
+	}
+
+	public void testLineBreaks() throws IOException {
+		RenamePlan plan = new RenamePlan();
+		plan.add(new RenamePlan.Entry(baseDirectory.resolve("a\nb.mp3"), baseDirectory.resolve("c.mp3"), 0, "Band\r",
+				"Mix\r\n\"live\",\nagain", "1998-03-05", 1998, "Electronic", 1));
+		plan.add(new RenamePlan.Entry(baseDirectory.resolve("d.mp3"), baseDirectory.resolve("e.mp3"), 1, "Band",
+				"Title", "1998-03-06", 1998, "Electronic", 2));
+		Path planFile = baseDirectory.resolve("plan.csv");
+		plan.write(planFile);
+
+		RenamePlan read = RenamePlan.read(planFile);
+		assertEquals(2, read.size());
+		RenamePlan.Entry entry = read.getEntries().get(0);
+		assertEquals(baseDirectory.resolve("a\nb.mp3"), entry.getFile());
+		assertEquals("Band\r", entry.getBand());
+		assertEquals("Mix\r\n\"live\",\nagain", entry.getTitle());
+		assertEquals(1, entry.getTrack());
+		assertEquals("Title", read.getEntries().get(1).getTitle());
+	}
+
+	private static class RecordingRules extends ScanFixtures.RecordingRules {
+		@Override
+		public MusicFileData matchFile(String fileName, FolderData folder) {
+			if (!fileName.endsWith(".mp3")) {
+				return null;
+			}
+			int date = (int) LocalDate.parse(fileName.substring(0, 10)).toEpochDay();
+			return new MusicFileData(date, folder.getName(), fileName.substring(12, 13), "", ".mp3", 0);
+		}
+
+		@Override
+		protected TagsData getTagsData() {
+			return new TagsData("Test", MusicBase.TRUE_DATE_FORMAT, "Electronic");
+		}
+
+		@Override
+		protected String getNewFileName(FileTagsEditor editor) {
+			MusicFileData musicFileData = editor.getMusicFileData();
+			return editor.getTagsData().getBand() + " - " + editor.getAlbum() + " - " + musicFileData.getName() + " [" +
+					MusicBase.getParts(musicFileData.getPart1(), musicFileData.getPart2()) + "]" +
+					musicFileData.getExtension();
+		}
+	}
+}
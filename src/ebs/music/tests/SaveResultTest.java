@@ -0,0 +1,75 @@
+package ebs.music.tests;
+
+import com.beaglebuddy.mp3.MP3;
+import com.mpatric.mp3agic.ID3v1Tag;
+import com.mpatric.mp3agic.ID3v23Tag;
+import com.mpatric.mp3agic.Mp3File;
+import com.mpatric.mp3agic.SaveResult;
+import ebs.music.bench.Mp3Corpus;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class SaveResultTest extends TestCase {
+	// a few MiB, so the audio takes more than one small transfer
+	private static final int FRAMES = 10000;
+
+	private Path directory;
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("save");
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		ScanFixtures.deleteTree(directory);
+	}
+
+	public void testMp3FileSave() throws Exception {
+		Path file = directory.resolve("show.mp3");
+		Files.write(file, new Mp3Corpus(FRAMES, 0).create(Mp3Corpus.ID3V1));
+		Mp3File mp3File = new Mp3File(file.toString());
+		long audioLength = mp3File.getEndOffset() - mp3File.getStartOffset() + 1;
+		byte[] audio = Arrays.copyOfRange(Files.readAllBytes(file), (int) mp3File.getStartOffset(),
+				(int) mp3File.getEndOffset() + 1);
+
+		ID3v23Tag tag = new ID3v23Tag();
+		tag.setArtist("Solid Steel");
+		mp3File.setId3v2Tag(tag);
+		Path saved = directory.resolve("saved.mp3");
+		SaveResult result = mp3File.save(saved.toString());
+
+		assertFalse(result.isInPlace());
+		assertEquals(audioLength, result.getAudioBytes());
+		assertEquals(tag.toBytes().length + ID3v1Tag.TAG_LENGTH, result.getTagBytes());
+		assertEquals(Files.size(saved), result.getBytesWritten());
+		assertTrue(result.toString().startsWith("wrote " + Files.size(saved) + " bytes"));
+
+		Mp3File savedFile = new Mp3File(saved.toString());
+		assertEquals(FRAMES, savedFile.getFrameCount());
+		assertEquals("Solid Steel", savedFile.getId3v1Tag().getArtist());
+		assertTrue(Arrays.equals(audio, Arrays.copyOfRange(Files.readAllBytes(saved),
+				(int) savedFile.getStartOffset(), (int) savedFile.getEndOffset() + 1)));
+	}
+
+	public void testMp3Rewrite() throws IOException {
+		Path file = directory.resolve("show.mp3");
+		Files.write(file, new Mp3Corpus(FRAMES, 0).create(Mp3Corpus.ID3V23));
+		MP3 mp3 = new MP3(file.toFile());
+		byte[] audio = PaddingStrategyTest.audio(file, mp3.getTagSize());
+
+		mp3.setTitle("DJ Food - 2013-10-04 - part 1 & 2 - Ninja Tune");
+		com.beaglebuddy.mp3.pojo.SaveResult result = mp3.save();
+
+		assertTrue(result.isRewritten());
+		assertEquals(audio.length, result.getAudioSize());
+		assertEquals(mp3.getTagSize(), result.getTagSize());
+		assertEquals(Files.size(file), result.getTagSize() + result.getAudioSize());
+		assertTrue(result.toString().startsWith("rewrote " + Files.size(file) + " bytes"));
+		assertTrue(Arrays.equals(audio, PaddingStrategyTest.audio(file, mp3.getTagSize())));
+	}
+}
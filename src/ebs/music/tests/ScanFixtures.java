@@ -0,0 +1,106 @@
+package ebs.music.tests;
+
+import ebs.music.FileMetrics;
+import ebs.music.FileTagsEditor;
+import ebs.music.FolderData;
+import ebs.music.MusicBase;
+import ebs.music.MusicFileData;
+import ebs.music.ScanRules;
+import ebs.music.TagsData;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Fixtures shared by the tests that scan a temporary directory tree.
+ */
+final class ScanFixtures {
+	private ScanFixtures() {
+	}
+
+	/**
+	 * Deletes the directory with everything in it.
+	 */
+	static void deleteTree(Path directory) throws IOException {
+		List<Path> paths = new ArrayList<Path>();
+		try (Stream<Path> walk = Files.walk(directory)) {
+			walk.forEach(paths::add);
+		}
+		Collections.reverse(paths);
+		for (Path path : paths) {
+			Files.delete(path);
+		}
+	}
+
+	/**
+	 * Rules that enter every directory and match every .mp3 file with its file name as the name. The editors write
+	 * nothing, they record the files they are created for and the new names of the files they rename. Tests
+	 * override the protected methods to change any of it.
+	 */
+	static class RecordingRules implements ScanRules {
+		final List<String> edited = Collections.synchronizedList(new ArrayList<String>());
+		final List<String> renamed = Collections.synchronizedList(new ArrayList<String>());
+
+		@Override
+		public FolderData enterDirectory(String directoryName, FolderData parent) {
+			return new FolderData(MusicBase.NO_DATE, directoryName);
+		}
+
+		@Override
+		public MusicFileData matchFile(String fileName, FolderData folder) {
+			return fileName.endsWith(".mp3") ? new MusicFileData(MusicBase.NO_DATE, fileName, "", "", ".mp3") : null;
+		}
+
+		@Override
+		public FileTagsEditor createEditor(String fileName, MusicFileData musicFileData) {
+			edited.add(fileName);
+			return new RecordingEditor(getTagsData(), fileName, musicFileData);
+		}
+
+		protected TagsData getTagsData() {
+			return null;
+		}
+
+		/**
+		 * @param metrics metrics of the editor
+		 * @return true if the tags are saved
+		 */
+		protected boolean updateTags(FileTagsEditor editor, FileMetrics metrics) {
+			return true;
+		}
+
+		protected boolean renameFile(FileTagsEditor editor) {
+			return renamed.add(editor.getNewFileName());
+		}
+
+		protected String getNewFileName(FileTagsEditor editor) {
+			return editor.getFileName();
+		}
+
+		private class RecordingEditor extends FileTagsEditor {
+			private RecordingEditor(TagsData tagsData, String fileName, MusicFileData musicFileData) {
+				super(tagsData, fileName, musicFileData);
+			}
+
+			@Override
+			public boolean updateTags(boolean renameFile) {
+				return RecordingRules.this.updateTags(this, metrics) && (!renameFile || renameFile());
+			}
+
+			@Override
+			public boolean renameFile() {
+				return RecordingRules.this.renameFile(this);
+			}
+
+			@Override
+			public String getNewFileName() {
+				return RecordingRules.this.getNewFileName(this);
+			}
+		}
+	}
+}
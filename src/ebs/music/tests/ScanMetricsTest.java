@@ -0,0 +1,80 @@
+package ebs.music.tests;
+
+import ebs.music.DirectoryScanner;
+import ebs.music.FileMetrics;
+import ebs.music.FileTagsEditor;
+import ebs.music.LatencyHistogram;
+import ebs.music.ScanMetrics;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+public class ScanMetricsTest extends TestCase {
+	public void testHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getPercentile(50));
+
+		long[] values = new long[10000];
+		Random random = new Random(7);
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (long) Math.exp(random.nextDouble() * 25);
+			histogram.record(values[i]);
+		}
+		Arrays.sort(values);
+
+		assertEquals(values.length, histogram.getCount());
+		assertEquals(values[values.length - 1], histogram.getMax());
+		for (double percentile : new double[]{1, 50, 90, 99, 99.9}) {
+			long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+			long actual = histogram.getPercentile(percentile);
+			assertTrue(percentile + ": " + expected + " " + actual, actual >= expected && actual <= expected * 1.04 + 1);
+		}
+	}
+
+	public void testScan() throws IOException {
+		Path baseDirectory = Files.createTempDirectory("metrics");
+		System.setProperty(ScanMetrics.SLOW_PROPERTY, "0");
+		try {
+			Files.createDirectories(baseDirectory.resolve("show"));
+			for (String name : new String[]{"1.mp3", "2.mp3", "readme.txt"}) {
+				Files.createFile(baseDirectory.resolve("show").resolve(name));
+			}
+
+			DirectoryScanner scanner = new DirectoryScanner(new TimedRules(), 2);
+			scanner.scan(baseDirectory);
+			ScanMetrics metrics = scanner.getMetrics();
+
+			assertEquals(2, metrics.getHistogram(ScanMetrics.Stage.LIST).getCount());
+			assertEquals(3, metrics.getHistogram(ScanMetrics.Stage.MATCH).getCount());
+			assertEquals(2, metrics.getHistogram(ScanMetrics.Stage.SAVE).getCount());
+			assertEquals(2, metrics.getHistogram(ScanMetrics.Stage.RENAME).getCount());
+			assertEquals(3, metrics.getFiles());
+			assertEquals(3, metrics.getSlowFiles());
+			assertEquals(200, metrics.getBytesWritten());
+			assertTrue(metrics.getPercentile("save", 50) >= 1000000);
+			assertTrue(metrics.report(), metrics.report().startsWith("LIST "));
+		} finally {
+			System.clearProperty(ScanMetrics.SLOW_PROPERTY);
+			ScanFixtures.deleteTree(baseDirectory);
+		}
+	}
+
+	private static class TimedRules extends ScanFixtures.RecordingRules {
+		@Override
+		protected boolean updateTags(FileTagsEditor editor, FileMetrics metrics) {
+			long start = System.nanoTime();
+			try {
+				Thread.sleep(2);
+			} catch (InterruptedException e) {
+				return false;
+			}
+			metrics.stop(ScanMetrics.Stage.SAVE, start);
+			metrics.written(100);
+			return true;
+		}
+	}
+}
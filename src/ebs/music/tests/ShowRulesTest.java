@@ -0,0 +1,155 @@
+package ebs.music.tests;
+
+import ebs.music.FolderData;
+import ebs.music.MusicFileData;
+import ebs.music.ShowRules;
+import ebs.music.ShowRulesDirectory;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+public class ShowRulesTest extends TestCase {
+	private static final String RULES = "show = Test Show\n" +
+			"genre = Electronic\n" +
+			"# comment\n" +
+			"folder.pattern = (\\d\\d\\d\\d-\\d\\d-\\d\\d) .+ - (.+)\n" +
+			"folder.groups = 1 2\n" +
+			"file.0.pattern = (\\d\\d\\d\\d-\\d\\d-\\d\\d) .+ - (.+) pt ?(\\d)(\\..+)   # date, name, part\n" +
+			"file.0.groups = 1 2 3 0 4\n" +
+			"file.1.pattern = 0(\\d) (.+)(\\..+)\n" +
+			"file.1.groups = 0 2 1 0 3\n" +
+			"file.2.pattern = (\\d\\d-\\d\\d-\\d\\d) (.+)(\\..+)\n" +
+			"file.2.date.format = dd-MM-yy\n" +
+			"file.2.groups = 1 2 0 0 3\n" +
+			"precedence = 0 1\n";
+
+	private Path baseDirectory;
+
+	@Override
+	protected void setUp() throws IOException {
+		baseDirectory = Files.createTempDirectory("rules");
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		ScanFixtures.deleteTree(baseDirectory);
+	}
+
+	public void testLoad() throws IOException {
+		Path file = Files.write(baseDirectory.resolve("test.rules"), RULES.getBytes(StandardCharsets.UTF_8));
+
+		ShowRules parsed = ShowRules.load(file);
+		assertTrue(Files.exists(baseDirectory.resolve("test.rules.cache")));
+		ShowRules cached = ShowRules.load(file);
+
+		for (ShowRules rules : new ShowRules[]{parsed, cached}) {
+			assertEquals("Test Show", rules.getShow());
+			assertEquals(3, rules.getPatternSet().size());
+
+			FolderData folder = rules.enterDirectory("1997-10-20 Breezeblock - Dub Pistols", FolderData.ROOT);
+			assertEquals("Dub Pistols", folder.getName());
+			assertEquals(LocalDate.of(1997, 10, 20).toEpochDay(), folder.getDate());
+
+			MusicFileData fileData = rules.matchFile("1997-10-20 Breezeblock - Dub Pistols pt 1.mp3", folder);
+			assertEquals(0, fileData.getPattern());
+			assertEquals("Dub Pistols", fileData.getName());
+			assertEquals("1", fileData.getPart1());
+
+			fileData = rules.matchFile("02 mix.mp3", folder);
+			assertEquals(1, fileData.getPattern());
+			assertEquals("Dub Pistols - mix", fileData.getName());
+			assertEquals(folder.getDate(), fileData.getDate());
+
+			fileData = rules.matchFile("20-10-97 mix.mp3", FolderData.ROOT);
+			assertEquals(2, fileData.getPattern());
+			assertEquals(LocalDate.of(1997, 10, 20).toEpochDay(), fileData.getDate());
+
+			// no date in the file name nor the folder
+			assertNull(rules.matchFile("02 mix.mp3", FolderData.ROOT));
+		}
+	}
+
+	public void testRefresh() throws IOException {
+		ShowRulesDirectory directory = new ShowRulesDirectory(baseDirectory);
+		assertTrue(directory.getRules().isEmpty());
+
+		final List<String> warnings = Collections.synchronizedList(new ArrayList<String>());
+		Handler handler = new Handler() {
+			@Override
+			public void publish(LogRecord record) {
+				warnings.add(record.getMessage());
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		Logger logger = Logger.getLogger(ShowRulesDirectory.class.getName());
+		logger.addHandler(handler);
+		try {
+			Path file = Files.write(baseDirectory.resolve("test.rules"), RULES.getBytes(StandardCharsets.UTF_8));
+			Path broken = Files.write(baseDirectory.resolve("broken.rules"),
+					"show = Broken\n".getBytes(StandardCharsets.UTF_8));
+			assertEquals(Collections.singletonList("Test Show"), directory.refresh());
+			assertEquals(1, warnings.size());
+
+			// the broken file is not loaded again until it changes
+			assertEquals(Collections.emptyList(), directory.refresh());
+			assertEquals(1, warnings.size());
+			Files.setLastModifiedTime(broken, FileTime.fromMillis(Files.getLastModifiedTime(broken).toMillis() + 5000));
+			assertEquals(Collections.emptyList(), directory.refresh());
+			assertEquals(2, warnings.size());
+
+			ShowRules rules = directory.get("Test Show");
+			Files.write(file, RULES.replace("genre = Electronic", "genre = Trip-Hop").getBytes(StandardCharsets.UTF_8));
+			Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5000));
+			assertEquals(Collections.singletonList("Test Show"), directory.refresh());
+			assertNotSame(rules, directory.get("Test Show"));
+			assertEquals("Trip-Hop", directory.get("Test Show").getGenre());
+
+			Files.delete(file);
+			assertEquals(Collections.singletonList("Test Show"), directory.refresh());
+			assertNull(directory.get("Test Show"));
+		} finally {
+			logger.removeHandler(handler);
+		}
+	}
+
+	public void testDispatch() throws IOException {
+		Files.write(baseDirectory.resolve("test.rules"), RULES.getBytes(StandardCharsets.UTF_8));
+		ShowRulesDirectory directory = new ShowRulesDirectory(baseDirectory);
+
+		assertNull(directory.enterDirectory("Other Show", FolderData.ROOT));
+		assertNull(directory.matchFile("20-10-97 mix.mp3", FolderData.ROOT));
+
+		FolderData show = directory.enterDirectory("Test Show", FolderData.ROOT);
+		FolderData folder = directory.enterDirectory("1997-10-20 Breezeblock - Dub Pistols", show);
+		assertEquals("Dub Pistols", folder.getName());
+		MusicFileData fileData = directory.matchFile("1997-10-20 Breezeblock - Dub Pistols pt 1.mp3", folder);
+		assertEquals(0, fileData.getPattern());
+		assertEquals("Dub Pistols", fileData.getName());
+		assertEquals("Test Show", directory.createEditor("show.mp3", fileData).getTagsData().getBand());
+
+		// a new show is picked up when its directory is entered
+		Files.write(baseDirectory.resolve("other.rules"),
+				RULES.replace("Test Show", "Other Show").getBytes(StandardCharsets.UTF_8));
+		show = directory.enterDirectory("Other Show", FolderData.ROOT);
+		fileData = directory.matchFile("20-10-97 mix.mp3", show);
+		assertEquals("Other Show", directory.createEditor("show.mp3", fileData).getTagsData().getBand());
+	}
+}